@@ -0,0 +1,72 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.engine.AggregateId;
+import com.axer.component.engine.ApplicationService;
+import com.axer.component.exceptions.EventStoreException;
+import com.axer.es.account.domain.aggregate.BankAccountAggregate;
+import com.axer.es.account.domain.aggregate.GatedAccount;
+import com.axer.es.account.domain.commands.CreateAccountCommand;
+import com.axer.es.account.domain.commands.GatedCommand;
+import com.axer.es.account.domain.exeptions.InvalidAccountNameException;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+@Property(name = "eventstore.async.max-concurrency", value = "2")
+class AsyncCommandTest {
+
+    @Inject
+    ApplicationService applicationService;
+
+    @Test
+    void concurrentCommandsAreLimited() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletableFuture<AggregateId>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(applicationService.executeCommandAsync(
+                new GatedCommand("gated_" + i, gate, running, maxRunning), GatedAccount.class));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (running.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // the other commands wait for a permit instead of entering the command processor
+        Thread.sleep(200);
+        assertEquals(2, running.get());
+        gate.countDown();
+
+        for (CompletableFuture<AggregateId> future : futures) {
+            assertEquals(0L, future.get(10, TimeUnit.SECONDS).getVersion());
+        }
+        assertEquals(2, maxRunning.get());
+        assertEquals(0, running.get());
+    }
+
+    @Test
+    void failureOfTheCommandCompletesTheFuture() {
+        CompletableFuture<AggregateId> future = applicationService.executeCommandAsync(
+            new CreateAccountCommand("test"), BankAccountAggregate.class);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        EventStoreException failure = assertInstanceOf(EventStoreException.class, e.getCause());
+        assertInstanceOf(InvalidAccountNameException.class, failure.getCause());
+        assertTrue(future.isCompletedExceptionally());
+    }
+}
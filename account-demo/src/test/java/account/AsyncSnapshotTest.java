@@ -0,0 +1,58 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.engine.AggregateId;
+import com.axer.component.engine.ApplicationService;
+import com.axer.data.jpa.SnapshotWriter;
+import com.axer.data.jpa.entities.AggregateRecord;
+import com.axer.es.account.domain.aggregate.AsyncSnapshotAccount;
+import com.axer.es.account.domain.commands.CreateAccountCommand;
+import com.axer.es.account.domain.repository.AggregateRecordCrudRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+class AsyncSnapshotTest {
+
+    @Inject
+    ApplicationService applicationService;
+    @Inject
+    SnapshotWriter snapshotWriter;
+    @Inject
+    AggregateRecordCrudRepository snapshotsRepository;
+    @Inject
+    ObjectMapper om;
+
+    @Test
+    void snapshotIsWrittenAfterTheCommit() throws Exception {
+        long written = snapshotWriter.getWritten();
+        AggregateId aggId = applicationService.executeCommand(new CreateAccountCommand("async_0"), AsyncSnapshotAccount.class, null);
+        applicationService.executeCommand(new CreateAccountCommand("async_1"), AsyncSnapshotAccount.class, aggId.getId());
+        // version 2 is due, the snapshot holds the state after the events of the command
+        aggId = applicationService.executeCommand(new CreateAccountCommand("async_2"), AsyncSnapshotAccount.class, aggId.getId());
+        assertEquals(2, aggId.getVersion());
+
+        for (int i = 0; i < 100 && snapshotWriter.getWritten() == written; i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(snapshotWriter.getWritten() > written);
+        Long aggregateId = aggId.getId();
+        List<AggregateRecord> snapshots = snapshotsRepository.findAll().stream()
+            .filter(snapshot -> snapshot.getAggregateId().equals(aggregateId))
+            .toList();
+        assertEquals(1, snapshots.size());
+        assertEquals(2L, snapshots.get(0).getVersion());
+        Map<?, ?> state = om.readValue(snapshots.get(0).getData(), Map.class);
+        assertEquals("async_2", state.get("accountName"));
+
+        // the next command restores from the snapshot and continues after it
+        aggId = applicationService.executeCommand(new CreateAccountCommand("async_3"), AsyncSnapshotAccount.class, aggId.getId());
+        assertEquals(3, aggId.getVersion());
+    }
+}
@@ -0,0 +1,88 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.engine.AggregateId;
+import com.axer.component.engine.ApplicationService;
+import com.axer.data.jpa.SnapshotWriter;
+import com.axer.data.jpa.entities.AggregateRecord;
+import com.axer.es.account.domain.aggregate.AsyncSnapshotAccount;
+import com.axer.es.account.domain.aggregate.CachedGatedAccount;
+import com.axer.es.account.domain.commands.CountEventsCommand;
+import com.axer.es.account.domain.commands.CreateAccountCommand;
+import com.axer.es.account.domain.commands.GatedCommand;
+import com.axer.es.account.domain.repository.AggregateRecordCrudRepository;
+import com.axer.es.account.domain.repository.NativeSql;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+class CallerTransactionTest {
+
+    @Inject
+    ApplicationService applicationService;
+    @Inject
+    SnapshotWriter snapshotWriter;
+    @Inject
+    AggregateRecordCrudRepository snapshotsRepository;
+    @Inject
+    NativeSql nativeSql;
+    @Inject
+    ObjectMapper om;
+
+    private static GatedCommand command(String accountName) {
+        return new GatedCommand(accountName, new CountDownLatch(0), new AtomicInteger(), new AtomicInteger());
+    }
+
+    @Test
+    void cachedStateOfRolledBackCallerIsNotUsed() {
+        Long aggregateId = applicationService.executeCommand(command("caller"), CachedGatedAccount.class).getId();
+
+        assertThrows(IllegalStateException.class, () -> nativeSql.transaction(() -> {
+            AggregateId joined = applicationService.executeCommand(command("rolled_back"), CachedGatedAccount.class, aggregateId);
+            assertEquals(1L, joined.getVersion());
+            throw new IllegalStateException("rollback");
+        }));
+
+        // the next command continues from the committed version 0, not from the rolled back version 1
+        assertEquals(1L, applicationService.executeCommand(command("committed"), CachedGatedAccount.class, aggregateId).getVersion());
+        AtomicInteger events = new AtomicInteger();
+        applicationService.executeCommand(new CountEventsCommand(events), CachedGatedAccount.class, aggregateId);
+        assertEquals(2, events.get());
+    }
+
+    @Test
+    void asyncSnapshotOfRolledBackCallerIsNotWritten() throws Exception {
+        Long aggregateId = applicationService.executeCommand(new CreateAccountCommand("caller_0"), AsyncSnapshotAccount.class, null).getId();
+        applicationService.executeCommand(new CreateAccountCommand("caller_1"), AsyncSnapshotAccount.class, aggregateId);
+        long written = snapshotWriter.getWritten();
+
+        // version 2 is due for a snapshot, but the transaction of the caller is rolled back
+        assertThrows(IllegalStateException.class, () -> nativeSql.transaction(() -> {
+            applicationService.executeCommand(new CreateAccountCommand("rolled_back"), AsyncSnapshotAccount.class, aggregateId);
+            throw new IllegalStateException("rollback");
+        }));
+        AggregateId committed = applicationService.executeCommand(new CreateAccountCommand("committed"),
+            AsyncSnapshotAccount.class, aggregateId);
+        assertEquals(2L, committed.getVersion());
+
+        for (int i = 0; i < 100 && snapshotWriter.getWritten() == written; i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(snapshotWriter.getWritten() > written);
+        List<AggregateRecord> snapshots = snapshotsRepository.findAll().stream()
+            .filter(snapshot -> snapshot.getAggregateId().equals(aggregateId))
+            .toList();
+        assertEquals(1, snapshots.size());
+        Map<?, ?> state = om.readValue(snapshots.get(0).getData(), Map.class);
+        assertEquals("committed", state.get("accountName"));
+    }
+}
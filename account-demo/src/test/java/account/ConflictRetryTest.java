@@ -0,0 +1,85 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.axer.component.engine.AggregateId;
+import com.axer.component.engine.ApplicationService;
+import com.axer.component.exceptions.ConcurrencyConflictException;
+import com.axer.component.exceptions.EventStoreException;
+import com.axer.data.jpa.DefaultApplicationService;
+import com.axer.es.account.domain.aggregate.GatedAccount;
+import com.axer.es.account.domain.commands.GatedCommand;
+import com.axer.es.account.domain.repository.NativeSql;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+class ConflictRetryTest {
+
+    @Inject
+    ApplicationService applicationService;
+    @Inject
+    NativeSql nativeSql;
+
+    private static GatedCommand command(String accountName, CountDownLatch gate, AtomicInteger running) {
+        return new GatedCommand(accountName, gate, running, new AtomicInteger());
+    }
+
+    private static GatedCommand command(String accountName) {
+        CountDownLatch open = new CountDownLatch(0);
+        return command(accountName, open, new AtomicInteger());
+    }
+
+    @Test
+    void duplicateVersionIsRetried() throws Exception {
+        DefaultApplicationService service = (DefaultApplicationService) applicationService;
+        Long aggregateId = applicationService.executeCommand(command("clash"), GatedAccount.class).getId();
+        long conflicts = service.getConflicts();
+        long retries = service.getRetries();
+
+        CountDownLatch gate = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        CompletableFuture<AggregateId> slow = applicationService.executeCommandAsync(
+            command("slow", gate, running), GatedAccount.class, aggregateId);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (running.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // the slow command has restored version 0 and is paused, the fast command takes version 1
+        AggregateId fast = applicationService.executeCommand(command("fast"), GatedAccount.class, aggregateId);
+        gate.countDown();
+
+        assertEquals(1L, fast.getVersion());
+        assertEquals(2L, slow.get(10, TimeUnit.SECONDS).getVersion());
+        assertEquals(conflicts + 1, service.getConflicts());
+        assertEquals(retries + 1, service.getRetries());
+    }
+
+    @Test
+    void otherConstraintViolationIsNotRetried() {
+        DefaultApplicationService service = (DefaultApplicationService) applicationService;
+        Long aggregateId = applicationService.executeCommand(command("constrained"), GatedAccount.class).getId();
+        long conflicts = service.getConflicts();
+        long retries = service.getRetries();
+        // a unique violation on event_record which is not the version key
+        nativeSql.execute("CREATE UNIQUE INDEX event_record_once_idx ON event_record (aggregate_id) WHERE aggregate_id = "
+            + aggregateId);
+        try {
+            EventStoreException e = assertThrows(EventStoreException.class,
+                () -> applicationService.executeCommand(command("second"), GatedAccount.class, aggregateId));
+
+            assertFalse(e instanceof ConcurrencyConflictException);
+            assertEquals(conflicts, service.getConflicts());
+            assertEquals(retries, service.getRetries());
+        } finally {
+            nativeSql.execute("DROP INDEX event_record_once_idx");
+        }
+    }
+}
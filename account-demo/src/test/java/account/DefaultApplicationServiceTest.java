@@ -11,6 +11,7 @@ import com.github.f4b6a3.tsid.TsidCreator;
 import com.axer.component.engine.AggregateId;
 import com.axer.component.engine.ApplicationService;
 import com.axer.component.exceptions.EventStoreException;
+import com.axer.data.jpa.DefaultApplicationService;
 import com.axer.data.jpa.entities.AggregateRecord;
 import com.axer.data.jpa.entities.EntityId;
 import com.axer.data.jpa.entities.EventRecord;
@@ -151,13 +152,13 @@ class DefaultApplicationServiceTest {
         List<AggregateRecord> snapshots = snapshotsRepository.findAll().stream().toList();
         assertEquals(4, snapshots.size());
         AggregateRecord snapshot1 = snapshots.get(0);
-        Map bankAccount1 = om.readValue(snapshot1.getJson(), Map.class);
+        Map bankAccount1 = om.readValue(snapshot1.getData(), Map.class);
         assertEquals("account_5", bankAccount1.get("accountName"));
         AggregateRecord snapshot2 = snapshots.get(3);
-        Map bankAccount2 = om.readValue(snapshot2.getJson(), Map.class);
+        Map bankAccount2 = om.readValue(snapshot2.getData(), Map.class);
         assertEquals("account_20", bankAccount2.get("accountName"));
         EventRecord lastEventRecord = eventRecords.get(eventRecords.size() - 1);
-        AccountCreated accountCreated = om.readValue(lastEventRecord.getJson(), AccountCreated.class);
+        AccountCreated accountCreated = om.readValue(lastEventRecord.getPayload(), AccountCreated.class);
         assertEquals("account_22", accountCreated.accountName());
     }
 
@@ -165,18 +166,17 @@ class DefaultApplicationServiceTest {
     void executeCommandLock() {
         SlowTask task = new SlowTask(applicationService, aggRootId);
         ExecutorService threadExecutor = Executors.newSingleThreadExecutor();
+        long retries = ((DefaultApplicationService) applicationService).getRetries();
         try {
-            // Start task on another thread
+            // Start task on another thread, the slow command conflicts and is retried on top of the fast one
             Future<AggregateId> futureResult = threadExecutor.submit(task);
-            applicationService.executeCommand(new CreateAccountCommand("test1"), BankAccountAggregate.class, aggRootId);
-            futureResult.get();
+            AggregateId fast = applicationService.executeCommand(new CreateAccountCommand("test1"), BankAccountAggregate.class, aggRootId);
+            AggregateId slow = futureResult.get();
+            assertEquals(3, fast.getVersion());
+            assertEquals(4, slow.getVersion());
+            assertTrue(((DefaultApplicationService) applicationService).getRetries() > retries);
+        } catch (InterruptedException | ExecutionException e) {
             fail();
-        } catch (ExecutionException e) {
-            assertTrue(e.getCause().getMessage().contains("com.axer.component.exceptions.EventStoreException: org.hibernate.exception.ConstraintViolationException"));
-        } catch (InterruptedException e) {
-            fail();
-        } catch (Throwable e) {
-            throw new RuntimeException(e);
         }
     }
 
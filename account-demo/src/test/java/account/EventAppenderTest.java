@@ -0,0 +1,75 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.data.jpa.EventAppender;
+import com.axer.data.jpa.EventTypeRegistry;
+import com.axer.data.jpa.TsidUtil;
+import com.axer.data.jpa.entities.EventRecord;
+import com.axer.es.account.domain.events.MoneyDeposited;
+import com.axer.es.account.domain.repository.NativeSql;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+@Property(name = "eventstore.append.batch-size", value = "3")
+class EventAppenderTest {
+    private static final int EVENTS = 10;
+
+    @Inject
+    EventAppender eventAppender;
+    @Inject
+    EventTypeRegistry eventTypes;
+    @Inject
+    NativeSql nativeSql;
+
+    @Test
+    void batchOfEventsAndOutboxRecordsIsWrittenInOrder() {
+        long aggregateId = TsidUtil.getTsidFactory().create().toLong();
+        EventTypeRegistry.EventType eventType = eventTypes.get(MoneyDeposited.class);
+        List<EventRecord> eventRecords = new ArrayList<>();
+        for (int version = 0; version < EVENTS; version++) {
+            eventRecords.add(new EventRecord(aggregateId, (long) version,
+                serialize(eventType, new MoneyDeposited(BigDecimal.valueOf(version))),
+                eventType.serializer().getFormat(), eventType.id()));
+        }
+
+        // the outbox is read in the same transaction, before the dispatcher can remove it
+        List<?> outbox = nativeSql.transaction(() -> {
+            eventAppender.append(eventRecords, true);
+            return nativeSql.query("SELECT version FROM projection_outbox WHERE aggregate_id = ?1 ORDER BY version",
+                aggregateId);
+        });
+        List<?> events = nativeSql.query("SELECT version, position, event_type_id FROM event_record "
+            + "WHERE aggregate_id = ?1 ORDER BY version", aggregateId);
+
+        assertEquals(EVENTS, outbox.size());
+        assertEquals(EVENTS, events.size());
+        long lastPosition = Long.MIN_VALUE;
+        for (int version = 0; version < EVENTS; version++) {
+            Object[] row = (Object[]) events.get(version);
+            assertEquals(version, ((Number) row[0]).longValue());
+            assertEquals(version, ((Number) outbox.get(version)).longValue());
+            long position = ((Number) row[1]).longValue();
+            assertTrue(position > lastPosition, "positions follow the versions");
+            assertEquals(eventType.id(), ((Number) row[2]).intValue());
+            lastPosition = position;
+        }
+    }
+
+    private static byte[] serialize(EventTypeRegistry.EventType eventType, Object event) {
+        try {
+            return eventType.serializer().serialize(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
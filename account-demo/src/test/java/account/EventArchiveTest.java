@@ -0,0 +1,154 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.engine.ApplicationService;
+import com.axer.data.jpa.EventArchive;
+import com.axer.data.jpa.EventStore;
+import com.axer.data.jpa.ProjectionReplayer;
+import com.axer.es.account.domain.aggregate.BankAccountAggregate;
+import com.axer.es.account.domain.commands.CreateAccountCommand;
+import com.axer.es.account.domain.commands.DepositMoneyCommand;
+import com.axer.es.account.domain.projection.FlakyProjection;
+import com.axer.es.account.domain.projection.ReplayLogProjection;
+import com.axer.es.account.domain.repository.NativeSql;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+@Property(name = "eventstore.archive.enabled", value = "true")
+@Property(name = "eventstore.archive.min-age", value = "0s")
+@Property(name = "eventstore.archive.interval", value = "100ms")
+@Property(name = "eventstore.snapshot.retain", value = "1")
+@Property(name = "eventstore.snapshot.prune-interval", value = "100ms")
+@Property(name = "eventstore.projection.poll-interval", value = "50ms")
+class EventArchiveTest {
+    // the account has the versions 0 to 12 and the snapshots 5 and 10, the first of them is pruned
+    private static final int DEPOSITS = 12;
+    private static final long SNAPSHOT = 10;
+
+    @Inject
+    ApplicationService applicationService;
+    @Inject
+    EventStore eventStore;
+    @Inject
+    EventArchive eventArchive;
+    @Inject
+    ProjectionReplayer replayer;
+    @Inject
+    FlakyProjection flakyProjection;
+    @Inject
+    NativeSql nativeSql;
+
+    private Long createAccount(String accountName, int deposits) {
+        Long aggregateId = applicationService.executeCommand(new CreateAccountCommand(accountName), BankAccountAggregate.class).getId();
+        for (int i = 0; i < deposits; i++) {
+            applicationService.executeCommand(new DepositMoneyCommand(BigDecimal.ONE), BankAccountAggregate.class, aggregateId);
+        }
+        return aggregateId;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached in time");
+            Thread.sleep(20);
+        }
+    }
+
+    private List<Long> versions(String sql, Long aggregateId) {
+        return nativeSql.query(sql, aggregateId).stream().map(version -> ((Number) version).longValue()).toList();
+    }
+
+    private List<Long> hotVersions(Long aggregateId) {
+        return versions("SELECT version FROM event_record WHERE aggregate_id = ?1 ORDER BY version", aggregateId);
+    }
+
+    private List<Long> snapshotVersions(Long aggregateId) {
+        return versions("SELECT version FROM aggregate_record WHERE aggregate_id = ?1 ORDER BY version", aggregateId);
+    }
+
+    private List<Long> storedVersions(Long aggregateId) throws Exception {
+        List<Long> versions = new ArrayList<>();
+        eventStore.readEvents(aggregateId, -1, eventRecord -> versions.add(eventRecord.getVersion()));
+        return versions;
+    }
+
+    private static List<Long> range(long fromVersion, long toVersion) {
+        return LongStream.rangeClosed(fromVersion, toVersion).boxed().toList();
+    }
+
+    @Test
+    void eventsBelowTheLatestSnapshotAreArchived() throws Exception {
+        Long aggregateId = createAccount("archived", DEPOSITS);
+
+        // only the newest snapshot is retained and the archive follows it
+        await(() -> snapshotVersions(aggregateId).equals(List.of(SNAPSHOT)));
+        await(() -> hotVersions(aggregateId).getFirst() == SNAPSHOT);
+
+        assertEquals(range(SNAPSHOT, DEPOSITS), hotVersions(aggregateId));
+        List<?> archived = nativeSql.query("SELECT MIN(from_version), MAX(version), SUM(events) FROM event_archive "
+            + "WHERE aggregate_id = ?1", aggregateId);
+        Object[] chunks = (Object[]) archived.getFirst();
+        assertEquals(0L, ((Number) chunks[0]).longValue());
+        assertEquals(SNAPSHOT - 1, ((Number) chunks[1]).longValue());
+        assertEquals(SNAPSHOT, ((Number) chunks[2]).longValue());
+        assertTrue(eventArchive.getArchivedEvents() >= SNAPSHOT);
+    }
+
+    @Test
+    void fullHistoryIsReadAcrossTheArchive() throws Exception {
+        Long aggregateId = createAccount("archive_history", DEPOSITS);
+        await(() -> hotVersions(aggregateId).getFirst() == SNAPSHOT);
+        long reads = eventArchive.getArchiveReads();
+
+        assertEquals(range(0, DEPOSITS), storedVersions(aggregateId));
+        assertTrue(eventArchive.getArchiveReads() > reads);
+        // the restore starts at the retained snapshot and does not need the archived events
+        assertEquals(DEPOSITS + 1L, applicationService.executeCommand(new DepositMoneyCommand(BigDecimal.ONE),
+            BankAccountAggregate.class, aggregateId).getVersion());
+    }
+
+    @Test
+    void replayFillsTheArchivedEvents() throws Exception {
+        nativeSql.execute("CREATE TABLE IF NOT EXISTS replay_log (aggregate_id bigint, version bigint, "
+            + "PRIMARY KEY (aggregate_id, version))");
+        nativeSql.execute("DELETE FROM replay_log");
+        replayer.reset(ReplayLogProjection.class);
+        Long aggregateId = createAccount("archive_replay", DEPOSITS);
+        await(() -> hotVersions(aggregateId).getFirst() == SNAPSHOT);
+
+        replayer.replay(ReplayLogProjection.class).getCompletion().get(30, TimeUnit.SECONDS);
+
+        assertEquals(range(0, DEPOSITS),
+            versions("SELECT version FROM replay_log WHERE aggregate_id = ?1 ORDER BY version", aggregateId));
+    }
+
+    @Test
+    void aggregateWithPendingProjectionsIsNotArchived() throws Exception {
+        flakyProjection.poison("archive_pending");
+        Long pending = createAccount("archive_pending", DEPOSITS);
+        Long healthy = createAccount("archive_healthy", DEPOSITS);
+
+        await(() -> hotVersions(healthy).getFirst() == SNAPSHOT);
+        await(() -> snapshotVersions(pending).equals(List.of(SNAPSHOT)));
+        // the archive job runs a few more times while the outbox records of the pending aggregate are kept
+        Thread.sleep(300);
+        assertEquals(range(0, DEPOSITS), hotVersions(pending));
+        assertTrue(((Number) nativeSql.query("SELECT COUNT(*) FROM projection_outbox WHERE aggregate_id = ?1", pending)
+            .getFirst()).intValue() > 0);
+
+        flakyProjection.cure("archive_pending");
+        await(() -> hotVersions(pending).getFirst() == SNAPSHOT);
+        assertEquals(range(0, DEPOSITS), storedVersions(pending));
+    }
+}
@@ -0,0 +1,157 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.engine.AggregateId;
+import com.axer.component.engine.ApplicationService;
+import com.axer.data.jpa.EventAppender;
+import com.axer.data.jpa.EventPosition;
+import com.axer.data.jpa.EventReader;
+import com.axer.data.jpa.EventTypeRegistry;
+import com.axer.data.jpa.TsidUtil;
+import com.axer.data.jpa.entities.EventRecord;
+import com.axer.es.account.domain.aggregate.BankAccountAggregate;
+import com.axer.es.account.domain.commands.CreateAccountCommand;
+import com.axer.es.account.domain.events.MoneyDeposited;
+import com.axer.es.account.domain.repository.NativeSql;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+class EventPositionTest {
+    private static final int COMMANDS = 8;
+    private static final int PAGE = 3;
+    private static final Comparator<EventPosition> COMMIT_ORDER =
+        Comparator.comparingLong(EventPosition::transactionId).thenComparingLong(EventPosition::position);
+
+    @Inject
+    ApplicationService applicationService;
+    @Inject
+    EventAppender eventAppender;
+    @Inject
+    EventReader eventReader;
+    @Inject
+    EventTypeRegistry eventTypes;
+    @Inject
+    NativeSql nativeSql;
+
+    @Test
+    void readerFollowsAllEventsInCommitOrder() throws Exception {
+        EventPosition start = lastPosition();
+        List<CompletableFuture<AggregateId>> futures = new ArrayList<>();
+        for (int i = 0; i < COMMANDS; i++) {
+            futures.add(applicationService.executeCommandAsync(
+                new CreateAccountCommand("position_" + i), BankAccountAggregate.class));
+        }
+        List<Long> ids = new ArrayList<>();
+        for (CompletableFuture<AggregateId> future : futures) {
+            ids.add(future.get(10, TimeUnit.SECONDS).getId());
+        }
+
+        Map<Long, Long> positions = readAfter(start);
+
+        for (Long id : ids) {
+            assertTrue(positions.containsValue(id), "every committed event is read");
+        }
+        List<?> rows = nativeSql.query("SELECT COUNT(*) FROM event_record WHERE transaction_id > ?1 "
+            + "or (transaction_id = ?1 and position > ?2)", start.transactionId(), start.position());
+        assertEquals(((Number) rows.get(0)).intValue(), positions.size());
+        // the positions are reserved in blocks, not per append
+        rows = nativeSql.query("SELECT next_position FROM event_position");
+        assertEquals(0, ((Number) rows.get(0)).longValue() % 100);
+    }
+
+    @Test
+    void laterCommitIsNotReadBeforeTheOpenTransaction() throws Exception {
+        EventPosition start = lastPosition();
+        long aggregateId = TsidUtil.getTsidFactory().create().toLong();
+        EventTypeRegistry.EventType eventType = eventTypes.get(MoneyDeposited.class);
+        EventRecord eventRecord = new EventRecord(aggregateId, 0L,
+            serialize(eventType, new MoneyDeposited(BigDecimal.ONE)), eventType.serializer().getFormat(), eventType.id());
+        CountDownLatch appended = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> nativeSql.transaction(() -> {
+            eventAppender.append(List.of(eventRecord));
+            appended.countDown();
+            try {
+                assertTrue(commit.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return null;
+        }));
+        assertTrue(appended.await(10, TimeUnit.SECONDS));
+        CompletableFuture<AggregateId> second = applicationService.executeCommandAsync(
+            new CreateAccountCommand("position_late"), BankAccountAggregate.class);
+
+        // the second append does not wait for the first one, but it is not read before the first one commits
+        Long lateId = second.get(10, TimeUnit.SECONDS).getId();
+        assertFalse(first.isDone());
+        assertTrue(readAfter(start).isEmpty());
+
+        commit.countDown();
+        first.get(10, TimeUnit.SECONDS);
+
+        Map<Long, Long> positions = readAfter(start);
+        assertEquals(2, positions.size());
+        List<Long> order = new ArrayList<>(positions.values());
+        assertEquals(List.of(aggregateId, lateId), order);
+    }
+
+    /**
+     * Reads the events after the given event position page by page.
+     *
+     * @return The aggregate ids by position, in the order they were read
+     */
+    private Map<Long, Long> readAfter(EventPosition start) throws IOException {
+        Map<Long, Long> positions = new LinkedHashMap<>();
+        EventPosition[] previous = {start};
+        EventPosition eventPosition = start;
+        while (true) {
+            EventPosition last = eventReader.readEventsFromPosition(eventPosition, PAGE, eventRecord -> {
+                EventPosition read = new EventPosition(eventRecord.getTransactionId(), eventRecord.getPosition());
+                assertTrue(COMMIT_ORDER.compare(read, previous[0]) > 0, "event positions increase");
+                previous[0] = read;
+                positions.put(eventRecord.getPosition(), eventRecord.getAggregateId());
+            });
+            if (last.equals(eventPosition)) {
+                return positions;
+            }
+            eventPosition = last;
+        }
+    }
+
+    private EventPosition lastPosition() {
+        List<?> rows = nativeSql.query("SELECT transaction_id, position FROM event_record WHERE transaction_id IS NOT NULL "
+            + "ORDER BY transaction_id DESC, position DESC LIMIT 1");
+        if (rows.isEmpty()) {
+            return EventPosition.START;
+        }
+        Object[] row = (Object[]) rows.get(0);
+        return new EventPosition(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+    }
+
+    private static byte[] serialize(EventTypeRegistry.EventType eventType, Object event) {
+        try {
+            return eventType.serializer().serialize(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
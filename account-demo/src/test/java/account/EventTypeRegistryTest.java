@@ -0,0 +1,74 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.axer.component.engine.AggregateId;
+import com.axer.component.engine.ApplicationService;
+import com.axer.component.exceptions.EventStoreException;
+import com.axer.data.jpa.EventTypeRegistry;
+import com.axer.data.jpa.EventTypeRepository;
+import com.axer.data.jpa.entities.EntityId;
+import com.axer.data.jpa.entities.EventRecord;
+import com.axer.data.jpa.entities.EventTypeRecord;
+import com.axer.es.account.domain.aggregate.BankAccountAggregate;
+import com.axer.es.account.domain.commands.CreateAccountCommand;
+import com.axer.es.account.domain.events.AccountCreated;
+import com.axer.es.account.domain.events.MoneyDeposited;
+import com.axer.es.account.domain.events.MoneyWithdraw;
+import com.axer.es.account.domain.repository.EventRecordCrudRepository;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+class EventTypeRegistryTest {
+
+    @Inject
+    ApplicationService applicationService;
+    @Inject
+    EventTypeRegistry eventTypes;
+    @Inject
+    EventTypeRepository eventTypeRepository;
+    @Inject
+    EventRecordCrudRepository eventRecordCrudRepository;
+
+    @Test
+    void domainEventsAreRegisteredInTheDictionary() {
+        Map<String, Integer> dictionary = eventTypeRepository.findAll().stream()
+            .collect(Collectors.toMap(EventTypeRecord::getName, EventTypeRecord::getId));
+
+        assertEquals(dictionary.get("AccountCreated"), eventTypes.get(AccountCreated.class).id());
+        assertEquals(dictionary.get("MoneyDeposited"), eventTypes.get(MoneyDeposited.class).id());
+        // the logical name of the event is registered, not the class name
+        assertEquals(dictionary.get("TakeMoneyFromAccount"), eventTypes.get(MoneyWithdraw.class).id());
+    }
+
+    @Test
+    void eventTypesAreResolvedByIdAndName() {
+        EventTypeRegistry.EventType eventType = eventTypes.get(MoneyWithdraw.class);
+
+        assertSame(MoneyWithdraw.class, eventTypes.get(eventType.id()).eventClass());
+        assertSame(MoneyWithdraw.class, eventTypes.get("TakeMoneyFromAccount").eventClass());
+        assertThrows(EventStoreException.class, () -> eventTypes.get(Integer.MAX_VALUE));
+        assertThrows(EventStoreException.class, () -> eventTypes.get("UnknownEvent"));
+        assertThrows(EventStoreException.class, () -> eventTypes.get(String.class));
+    }
+
+    @Test
+    void eventRecordsStoreTheDictionaryId() throws Exception {
+        AggregateId aggId = applicationService.executeCommand(new CreateAccountCommand("registry"), BankAccountAggregate.class, null);
+
+        EventRecord eventRecord = eventRecordCrudRepository.findById(new EntityId(aggId.getId(), 0)).orElseThrow();
+
+        assertEquals(eventTypes.get(AccountCreated.class).id(), eventRecord.getEventTypeId());
+        assertNull(eventRecord.getEventName());
+        AccountCreated event = assertInstanceOf(AccountCreated.class, eventTypes.deserialize(eventRecord));
+        assertEquals("registry", event.accountName());
+    }
+}
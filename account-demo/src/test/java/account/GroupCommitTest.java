@@ -0,0 +1,151 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.engine.AggregateId;
+import com.axer.component.engine.ApplicationService;
+import com.axer.data.jpa.DefaultApplicationService;
+import com.axer.data.jpa.EventAppender;
+import com.axer.data.jpa.EventTypeRegistry;
+import com.axer.data.jpa.entities.EventRecord;
+import com.axer.es.account.domain.aggregate.CachedGatedAccount;
+import com.axer.es.account.domain.aggregate.GatedAccount;
+import com.axer.es.account.domain.commands.CountEventsCommand;
+import com.axer.es.account.domain.commands.GatedCommand;
+import com.axer.es.account.domain.events.AccountCreated;
+import com.axer.es.account.domain.repository.NativeSql;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@MicronautTest(transactional = false)
+@Property(name = "eventstore.group-commit.enabled", value = "true")
+@Property(name = "eventstore.group-commit.window", value = "500ms")
+class GroupCommitTest {
+    private static final Logger LOG = LoggerFactory.getLogger(GroupCommitTest.class);
+
+    @Inject
+    ApplicationService applicationService;
+    @Inject
+    EventAppender eventAppender;
+    @Inject
+    EventTypeRegistry eventTypes;
+    @Inject
+    NativeSql nativeSql;
+
+    private static GatedCommand command(String accountName) {
+        return new GatedCommand(accountName, new CountDownLatch(0), new AtomicInteger(), new AtomicInteger());
+    }
+
+    private List<Long> createAccounts(int count) throws Exception {
+        List<CompletableFuture<AggregateId>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(applicationService.executeCommandAsync(command("group_" + i), GatedAccount.class));
+        }
+        List<Long> ids = new ArrayList<>();
+        for (CompletableFuture<AggregateId> future : futures) {
+            ids.add(future.get(30, TimeUnit.SECONDS).getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Appends an event of the aggregate as another node would do.
+     */
+    private void appendOther(Long aggregateId, long version) throws Exception {
+        EventTypeRegistry.EventType eventType = eventTypes.get(AccountCreated.class);
+        EventRecord eventRecord = new EventRecord(aggregateId, version, eventType.serializer().serialize(new AccountCreated("other")),
+            eventType.serializer().getFormat(), eventType.id());
+        nativeSql.transaction(() -> {
+            eventAppender.append(List.of(eventRecord));
+            return null;
+        });
+    }
+
+    private static void awaitRunning(AtomicInteger running) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (running.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void onlyTheConflictingCommandLeavesTheGroup() throws Exception {
+        DefaultApplicationService service = (DefaultApplicationService) applicationService;
+        List<Long> ids = createAccounts(3);
+        long committed = service.getGroupCommittedCommands();
+        long isolated = service.getGroupIsolatedCommands();
+
+        CountDownLatch gate = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        CompletableFuture<AggregateId> conflicting = applicationService.executeCommandAsync(
+            new GatedCommand("conflicting", gate, running, new AtomicInteger()), GatedAccount.class, ids.get(0));
+        CompletableFuture<AggregateId> second = applicationService.executeCommandAsync(command("second"), GatedAccount.class, ids.get(1));
+        CompletableFuture<AggregateId> third = applicationService.executeCommandAsync(command("third"), GatedAccount.class, ids.get(2));
+        awaitRunning(running);
+        // while the group executes, another node appends version 1 of the first aggregate
+        appendOther(ids.get(0), 1L);
+        gate.countDown();
+
+        assertEquals(2L, conflicting.get(30, TimeUnit.SECONDS).getVersion());
+        assertEquals(1L, second.get(30, TimeUnit.SECONDS).getVersion());
+        assertEquals(1L, third.get(30, TimeUnit.SECONDS).getVersion());
+        assertEquals(isolated + 1, service.getGroupIsolatedCommands());
+        // the other two commands were committed together in the group, the conflicting one alone
+        assertEquals(committed + 2, service.getGroupCommittedCommands());
+    }
+
+    @Test
+    void cachedStateOfRolledBackGroupIsNotAppliedTwice() throws Exception {
+        Long conflictingId = applicationService.executeCommand(command("cached_conflicting"), CachedGatedAccount.class).getId();
+        Long cachedId = applicationService.executeCommand(command("cached"), CachedGatedAccount.class).getId();
+        // the cached state of the second aggregate is behind the event appended by another node
+        appendOther(cachedId, 1L);
+
+        CountDownLatch gate = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        CompletableFuture<AggregateId> conflicting = applicationService.executeCommandAsync(
+            new GatedCommand("conflicting", gate, running, new AtomicInteger()), CachedGatedAccount.class, conflictingId);
+        CompletableFuture<AggregateId> cached = applicationService.executeCommandAsync(
+            command("cached_again"), CachedGatedAccount.class, cachedId);
+        awaitRunning(running);
+        appendOther(conflictingId, 1L);
+        gate.countDown();
+
+        // the rolled back group caught the cached state up to version 1 before the second command ran again
+        assertEquals(2L, conflicting.get(30, TimeUnit.SECONDS).getVersion());
+        assertEquals(2L, cached.get(30, TimeUnit.SECONDS).getVersion());
+        AtomicInteger events = new AtomicInteger();
+        applicationService.executeCommand(new CountEventsCommand(events), CachedGatedAccount.class, cachedId);
+        assertEquals(3, events.get());
+    }
+
+    @Test
+    void concurrentCommandsShareGroups() throws Exception {
+        DefaultApplicationService service = (DefaultApplicationService) applicationService;
+        long groups = service.getGroupCommits();
+        long committed = service.getGroupCommittedCommands();
+        int commands = 64;
+
+        long start = System.nanoTime();
+        createAccounts(commands);
+        long elapsed = System.nanoTime() - start;
+
+        long groupCount = service.getGroupCommits() - groups;
+        long groupedCommands = service.getGroupCommittedCommands() - committed;
+        LOG.info("{} commands in {} groups, {} commands per group, {} ms", groupedCommands, groupCount,
+            (double) groupedCommands / groupCount, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        assertEquals(commands, groupedCommands);
+        assertTrue(groupCount < commands);
+    }
+}
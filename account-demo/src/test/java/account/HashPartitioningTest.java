@@ -0,0 +1,62 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.engine.ApplicationService;
+import com.axer.es.account.domain.aggregate.BankAccountAggregate;
+import com.axer.es.account.domain.commands.CreateAccountCommand;
+import com.axer.es.account.domain.commands.DepositMoneyCommand;
+import com.axer.es.account.domain.commands.WithdrawMoneyCommand;
+import com.axer.es.account.domain.repository.NativeSql;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+@Property(name = "datasources.default.url", value = "jdbc:tc:postgresql:14:///hash_partitioning")
+@Property(name = "eventstore.partitioning.strategy", value = "HASH")
+@Property(name = "eventstore.partitioning.partitions", value = "4")
+class HashPartitioningTest {
+
+    @Inject
+    ApplicationService applicationService;
+    @Inject
+    NativeSql nativeSql;
+
+    @Test
+    void tablesArePartitionedByHash() {
+        for (String table : List.of("event_record", "aggregate_record")) {
+            assertEquals("p", single("SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?1)", table));
+            assertEquals(4, ((Number) single("SELECT COUNT(*) FROM pg_inherits WHERE inhparent = to_regclass(?1)",
+                table)).intValue());
+        }
+    }
+
+    @Test
+    void commandsReadAndWriteThePartitions() {
+        Long aggregateId = applicationService.executeCommand(new CreateAccountCommand("hash_account"),
+            BankAccountAggregate.class).getId();
+        for (int i = 0; i < 6; i++) {
+            applicationService.executeCommand(new DepositMoneyCommand(BigDecimal.ONE), BankAccountAggregate.class, aggregateId);
+        }
+        // restored from the snapshot and the events in the partitions
+        assertEquals(7L, applicationService.executeCommand(new WithdrawMoneyCommand(BigDecimal.valueOf(6)),
+            BankAccountAggregate.class, aggregateId).getVersion());
+
+        String partition = (String) single("SELECT DISTINCT tableoid::regclass::text FROM event_record WHERE aggregate_id = ?1",
+            aggregateId);
+        assertTrue(partition.startsWith("event_record_h"), partition);
+        assertTrue(((Number) single("SELECT COUNT(*) FROM aggregate_record WHERE aggregate_id = ?1", aggregateId))
+            .intValue() > 0);
+    }
+
+    private Object single(String sql, Object parameter) {
+        List<?> rows = nativeSql.query(sql, parameter);
+        assertEquals(1, rows.size());
+        return rows.get(0);
+    }
+}
@@ -0,0 +1,130 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.engine.ApplicationService;
+import com.axer.data.jpa.EventStore;
+import com.axer.data.jpa.EventTypeRegistry;
+import com.axer.data.jpa.InMemoryEventStore;
+import com.axer.data.jpa.TsidUtil;
+import com.axer.data.jpa.entities.EventRecord;
+import com.axer.es.account.domain.aggregate.BankAccountAggregate;
+import com.axer.es.account.domain.commands.CreateAccountCommand;
+import com.axer.es.account.domain.commands.DepositMoneyCommand;
+import com.axer.es.account.domain.events.MoneyDeposited;
+import com.axer.es.account.domain.projection.AuditProjection;
+import com.axer.es.account.domain.repository.NativeSql;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+@Property(name = EventStore.STORE_PROPERTY, value = "memory")
+@Property(name = "eventstore.projection.poll-interval", value = "50ms")
+class InMemoryEventStoreTest {
+
+    @Inject
+    EventStore eventStore;
+    @Inject
+    ApplicationService applicationService;
+    @Inject
+    AuditProjection auditProjection;
+    @Inject
+    EventTypeRegistry eventTypes;
+    @Inject
+    NativeSql nativeSql;
+
+    @Test
+    void storeIsSelected() {
+        assertTrue(eventStore instanceof InMemoryEventStore);
+    }
+
+    @Test
+    void eventsAreVisibleAfterTheCommit() {
+        long aggregateId = TsidUtil.getTsidFactory().create().toLong();
+
+        int inTransaction = nativeSql.transaction(() -> {
+            eventStore.append(List.of(deposit(aggregateId, 0)), false);
+            return count(aggregateId);
+        });
+
+        assertEquals(0, inTransaction);
+        assertEquals(1, count(aggregateId));
+    }
+
+    @Test
+    void eventsOfRolledBackTransactionAreDropped() {
+        long aggregateId = TsidUtil.getTsidFactory().create().toLong();
+
+        assertThrows(IllegalStateException.class, () -> nativeSql.transaction(() -> {
+            eventStore.append(List.of(deposit(aggregateId, 0)), false);
+            throw new IllegalStateException("rollback");
+        }));
+
+        assertEquals(0, count(aggregateId));
+        // the released version can be appended again
+        nativeSql.transaction(() -> {
+            eventStore.append(List.of(deposit(aggregateId, 0)), false);
+            return null;
+        });
+        assertEquals(1, count(aggregateId));
+    }
+
+    @Test
+    void eventsWithoutTransactionAreVisibleAtOnce() {
+        long aggregateId = TsidUtil.getTsidFactory().create().toLong();
+
+        eventStore.append(List.of(deposit(aggregateId, 0)), false);
+
+        assertEquals(1, count(aggregateId));
+    }
+
+    @Test
+    void asynchronousProjectionsGetTheCommittedEvents() throws Exception {
+        Long aggregateId = applicationService.executeCommand(new CreateAccountCommand("memory_account"),
+            BankAccountAggregate.class).getId();
+        applicationService.executeCommand(new DepositMoneyCommand(BigDecimal.ONE), BankAccountAggregate.class, aggregateId);
+
+        await(() -> auditProjection.getVersions(aggregateId).size() == 2);
+        assertEquals(List.of(0L, 1L), auditProjection.getVersions(aggregateId));
+        List<?> stored = nativeSql.query("SELECT COUNT(*) FROM event_record WHERE aggregate_id = ?1", aggregateId);
+        assertEquals(0, ((Number) stored.get(0)).intValue());
+    }
+
+    private int count(long aggregateId) {
+        int[] count = {0};
+        try {
+            eventStore.readEvents(aggregateId, -1, eventRecord -> count[0]++);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count[0];
+    }
+
+    private EventRecord deposit(long aggregateId, long version) {
+        EventTypeRegistry.EventType eventType = eventTypes.get(MoneyDeposited.class);
+        try {
+            return new EventRecord(aggregateId, version, eventType.serializer().serialize(new MoneyDeposited(BigDecimal.ONE)),
+                eventType.serializer().getFormat(), eventType.id());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached in time");
+            Thread.sleep(20);
+        }
+    }
+}
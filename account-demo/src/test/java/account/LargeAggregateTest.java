@@ -0,0 +1,90 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.axer.component.engine.AggregateId;
+import com.axer.component.engine.ApplicationService;
+import com.axer.component.exceptions.EventStoreException;
+import com.axer.data.jpa.EventAppender;
+import com.axer.data.jpa.EventReader;
+import com.axer.data.jpa.EventTypeRegistry;
+import com.axer.data.jpa.ReadConfiguration;
+import com.axer.data.jpa.TsidUtil;
+import com.axer.data.jpa.entities.EventRecord;
+import com.axer.es.account.domain.aggregate.BankAccountAggregate;
+import com.axer.es.account.domain.commands.WithdrawMoneyCommand;
+import com.axer.es.account.domain.events.AccountCreated;
+import com.axer.es.account.domain.events.MoneyDeposited;
+import com.axer.es.account.domain.exeptions.InsufficientAmountException;
+import com.axer.es.account.domain.repository.NativeSql;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+@Property(name = "eventstore.read.fetch-size", value = "4")
+class LargeAggregateTest {
+    private static final int DEPOSITS = 500;
+
+    @Inject
+    ApplicationService applicationService;
+    @Inject
+    EventAppender eventAppender;
+    @Inject
+    EventReader eventReader;
+    @Inject
+    EventTypeRegistry eventTypes;
+    @Inject
+    ReadConfiguration readConfiguration;
+    @Inject
+    NativeSql nativeSql;
+
+    @Test
+    void largeAggregateIsRestoredWithSmallFetchSize() throws IOException {
+        assertEquals(4, readConfiguration.getFetchSize());
+        long aggregateId = TsidUtil.getTsidFactory().create().toLong();
+        // the events are appended without a snapshot, so the command has to replay all of them
+        List<EventRecord> eventRecords = new ArrayList<>();
+        eventRecords.add(record(aggregateId, 0, new AccountCreated("large_account")));
+        for (int version = 1; version <= DEPOSITS; version++) {
+            eventRecords.add(record(aggregateId, version, new MoneyDeposited(BigDecimal.ONE)));
+        }
+        nativeSql.transaction(() -> {
+            eventAppender.append(eventRecords);
+            return null;
+        });
+
+        AtomicLong expected = new AtomicLong();
+        long lastVersion = eventReader.readEventsFromVersion(aggregateId, -1, eventRecord ->
+            assertEquals(expected.getAndIncrement(), eventRecord.getVersion()));
+        assertEquals(DEPOSITS, lastVersion);
+        assertEquals(DEPOSITS + 1, expected.get());
+
+        AggregateId result = applicationService.executeCommand(
+            new WithdrawMoneyCommand(BigDecimal.valueOf(DEPOSITS)), BankAccountAggregate.class, aggregateId);
+        assertEquals(DEPOSITS + 1L, result.getVersion());
+
+        EventStoreException e = assertThrows(EventStoreException.class, () -> applicationService.executeCommand(
+            new WithdrawMoneyCommand(BigDecimal.ONE), BankAccountAggregate.class, aggregateId));
+        assertInstanceOf(InsufficientAmountException.class, e.getCause());
+    }
+
+    private EventRecord record(long aggregateId, long version, Object event) {
+        EventTypeRegistry.EventType eventType = eventTypes.get(event.getClass());
+        try {
+            return new EventRecord(aggregateId, version, eventType.serializer().serialize(event),
+                eventType.serializer().getFormat(), eventType.id());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
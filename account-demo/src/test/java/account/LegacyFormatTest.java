@@ -0,0 +1,60 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.axer.component.engine.AggregateId;
+import com.axer.component.engine.ApplicationService;
+import com.axer.es.account.domain.aggregate.BankAccountAggregate;
+import com.axer.es.account.domain.commands.WithdrawMoneyCommand;
+import com.axer.es.account.domain.entities.Account;
+import com.axer.es.account.domain.projection.AccountRepository;
+import com.axer.es.account.domain.repository.NativeSql;
+import com.github.f4b6a3.tsid.TsidCreator;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Event records and snapshots written before the format column was introduced.
+ */
+@MicronautTest(transactional = false)
+class LegacyFormatTest {
+
+    @Inject
+    ApplicationService applicationService;
+    @Inject
+    AccountRepository accountRepository;
+    @Inject
+    NativeSql nativeSql;
+
+    @Test
+    void formatColumnsAreNullable() {
+        // a nullable column without a default can be added to a populated table by the schema update
+        assertEquals("YES", nativeSql.query("SELECT is_nullable FROM information_schema.columns "
+            + "WHERE table_name = 'event_record' AND column_name = 'format'").get(0));
+        assertEquals("YES", nativeSql.query("SELECT is_nullable FROM information_schema.columns "
+            + "WHERE table_name = 'aggregate_record' AND column_name = 'format'").get(0));
+    }
+
+    @Test
+    void legacyRowWithoutFormatIsReplayed() {
+        Long aggregateId = TsidCreator.getTsid().toLong();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String insert = "INSERT INTO event_record (aggregate_id, version, date_created, json, event_name) VALUES (?1, ?2, ?3, ?4, ?5)";
+        nativeSql.execute(insert, aggregateId, 0L, now, "{\"accountName\": \"legacy\"}", "AccountCreated");
+        nativeSql.execute(insert, aggregateId, 1L, now, "{\"amount\": 10}", "MoneyDeposited");
+        Account account = new Account(aggregateId, 1L, "legacy");
+        account.setCurrentBalance(BigDecimal.TEN);
+        accountRepository.save(account);
+
+        // the withdrawal needs the account name and the balance of both legacy events
+        AggregateId aggId = applicationService.executeCommand(new WithdrawMoneyCommand(BigDecimal.valueOf(4)),
+            BankAccountAggregate.class, aggregateId);
+
+        assertEquals(2L, aggId.getVersion());
+        assertEquals(0, accountRepository.findByAggregateId(aggregateId).getCurrentBalance().compareTo(BigDecimal.valueOf(6)));
+    }
+}
@@ -0,0 +1,98 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.engine.ApplicationService;
+import com.axer.es.account.domain.aggregate.BankAccountAggregate;
+import com.axer.es.account.domain.commands.CreateAccountCommand;
+import com.axer.es.account.domain.commands.DepositMoneyCommand;
+import com.axer.data.jpa.ProjectionDispatcher;
+import com.axer.data.jpa.ProjectionStats;
+import com.axer.es.account.domain.projection.AuditProjection;
+import com.axer.es.account.domain.projection.FlakyProjection;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+@Property(name = "eventstore.projection.batch-size", value = "2")
+@Property(name = "eventstore.projection.poll-interval", value = "50ms")
+class ProjectionDispatcherTest {
+
+    @Inject
+    ApplicationService applicationService;
+    @Inject
+    FlakyProjection flakyProjection;
+    @Inject
+    AuditProjection auditProjection;
+    @Inject
+    ProjectionDispatcher projectionDispatcher;
+
+    private Long createAccount(String accountName, int deposits) {
+        Long aggregateId = applicationService.executeCommand(new CreateAccountCommand(accountName), BankAccountAggregate.class).getId();
+        for (int i = 0; i < deposits; i++) {
+            applicationService.executeCommand(new DepositMoneyCommand(BigDecimal.ONE), BankAccountAggregate.class, aggregateId);
+        }
+        return aggregateId;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached in time");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void failingAggregateDoesNotBlockTheFollowingEvents() throws Exception {
+        flakyProjection.poison("poisoned");
+        // the poisoned aggregate is older, its outbox records fill the first page
+        Long poisoned = createAccount("poisoned", 2);
+        Long healthy = createAccount("healthy", 1);
+
+        await(() -> flakyProjection.getVersions(healthy).equals(List.of(0L, 1L)));
+        // the poisoned aggregate is retried in every pass over the outbox
+        await(() -> flakyProjection.getFailures(poisoned) >= 2);
+        assertTrue(flakyProjection.getVersions(poisoned).isEmpty());
+
+        flakyProjection.cure("poisoned");
+        await(() -> flakyProjection.getVersions(poisoned).size() == 3);
+        assertEquals(List.of(0L, 1L, 2L), flakyProjection.getVersions(poisoned));
+    }
+
+    @Test
+    void otherProjectionAdvancesWhileOneFails() throws Exception {
+        flakyProjection.poison("fan_out");
+        Long aggregateId = createAccount("fan_out", 2);
+
+        // the audit projection processes the events once, although they are delivered again for the other one
+        await(() -> flakyProjection.getFailures(aggregateId) >= 3);
+        assertEquals(List.of(0L, 1L, 2L), auditProjection.getVersions(aggregateId));
+        assertTrue(flakyProjection.getVersions(aggregateId).isEmpty());
+        ProjectionStats flakyStats = stats(FlakyProjection.class);
+        assertTrue(flakyStats.getFailures() >= 3);
+
+        // the next delivery after the failure hands every event to the recovered projection
+        flakyProjection.cure("fan_out");
+        Long laterId = createAccount("fan_out_later", 0);
+        await(() -> flakyProjection.getVersions(aggregateId).size() == 3);
+        await(() -> flakyProjection.getVersions(laterId).size() == 1);
+        assertEquals(List.of(0L, 1L, 2L), flakyProjection.getVersions(aggregateId));
+        assertEquals(List.of(0L, 1L, 2L), auditProjection.getVersions(aggregateId));
+        assertEquals(List.of(0L), auditProjection.getVersions(laterId));
+    }
+
+    private ProjectionStats stats(Class<?> projectionClass) {
+        return projectionDispatcher.getProjectionStats().stream()
+            .filter(stats -> stats.getName().equals(projectionClass.getName()))
+            .findFirst()
+            .orElseThrow();
+    }
+}
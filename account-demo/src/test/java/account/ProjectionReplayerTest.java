@@ -0,0 +1,187 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.engine.ApplicationService;
+import com.axer.data.jpa.ProjectionReplayer;
+import com.axer.data.jpa.ReplayCheckpointRepository;
+import com.axer.data.jpa.ReplayConfiguration;
+import com.axer.data.jpa.ReplayProgress;
+import com.axer.data.jpa.entities.ReplayCheckpoint;
+import com.axer.es.account.domain.aggregate.BankAccountAggregate;
+import com.axer.es.account.domain.commands.CreateAccountCommand;
+import com.axer.es.account.domain.commands.DepositMoneyCommand;
+import com.axer.es.account.domain.projection.ReplayLogProjection;
+import com.axer.es.account.domain.repository.NativeSql;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+@Property(name = "eventstore.replay.parallelism", value = "3")
+@Property(name = "eventstore.replay.page-size", value = "4")
+class ProjectionReplayerTest {
+    private static final int ACCOUNTS = 6;
+    private static final int DEPOSITS = 2;
+    private static final int EVENTS = ACCOUNTS * (DEPOSITS + 1);
+
+    @Inject
+    ApplicationService applicationService;
+    @Inject
+    ProjectionReplayer replayer;
+    @Inject
+    ReplayCheckpointRepository checkpointRepository;
+    @Inject
+    ReplayConfiguration configuration;
+    @Inject
+    ReplayLogProjection replayLog;
+    @Inject
+    NativeSql nativeSql;
+
+    @BeforeEach
+    void setUp() {
+        nativeSql.execute("CREATE TABLE IF NOT EXISTS replay_log (aggregate_id bigint, version bigint, "
+            + "PRIMARY KEY (aggregate_id, version))");
+        nativeSql.execute("DELETE FROM replay_log");
+        nativeSql.execute("DELETE FROM event_record");
+        replayer.reset(ReplayLogProjection.class);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            createAccount("replay_" + i, DEPOSITS);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        replayLog.failAfter(-1);
+        configuration.setMaxEventsPerSecond(0);
+    }
+
+    private Long createAccount(String accountName, int deposits) {
+        Long aggregateId = applicationService.executeCommand(new CreateAccountCommand(accountName), BankAccountAggregate.class).getId();
+        for (int i = 0; i < deposits; i++) {
+            applicationService.executeCommand(new DepositMoneyCommand(BigDecimal.ONE), BankAccountAggregate.class, aggregateId);
+        }
+        return aggregateId;
+    }
+
+    private static ReplayProgress await(ReplayProgress progress) throws Exception {
+        return progress.getCompletion().get(30, TimeUnit.SECONDS);
+    }
+
+    private long count(String sql) {
+        return ((Number) nativeSql.query(sql).getFirst()).longValue();
+    }
+
+    /**
+     * Every event of the store was replayed, the primary key of the log rejects duplicates.
+     */
+    private void assertReplayedExactlyOnce() {
+        assertEquals(count("SELECT COUNT(*) FROM event_record"), count("SELECT COUNT(*) FROM replay_log"));
+        assertEquals(0, count("SELECT COUNT(*) FROM event_record e LEFT JOIN replay_log r "
+            + "ON r.aggregate_id = e.aggregate_id AND r.version = e.version WHERE r.version IS NULL"));
+    }
+
+    @Test
+    void eventsAreReplayedInContiguousSegments() throws Exception {
+        ReplayProgress progress = await(replayer.replay(ReplayLogProjection.class));
+
+        assertEquals(EVENTS, progress.getEvents());
+        assertReplayedExactlyOnce();
+        List<ReplayCheckpoint> checkpoints = checkpointRepository.findByNameOrderBySegment(ReplayLogProjection.class.getName());
+        assertEquals(progress.getSegments(), checkpoints.size());
+        assertTrue(checkpoints.size() > 1 && checkpoints.size() <= 3);
+        assertEquals(count("SELECT MIN(aggregate_id) FROM event_record"), checkpoints.getFirst().getFromAggregateId());
+        for (int i = 1; i < checkpoints.size(); i++) {
+            assertEquals(checkpoints.get(i - 1).getToAggregateId(), checkpoints.get(i).getFromAggregateId());
+        }
+        assertEquals(Long.MAX_VALUE, checkpoints.getLast().getToAggregateId());
+        assertTrue(checkpoints.stream().allMatch(ReplayCheckpoint::isDone));
+    }
+
+    @Test
+    void interruptedReplayResumesWithoutDuplicatesOrGaps() throws Exception {
+        replayLog.failAfter(7);
+        ExecutionException failure = assertThrows(ExecutionException.class,
+            () -> await(replayer.replay(ReplayLogProjection.class)));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        // wait for the other segments, which are not stopped by the failure
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        long logged = -1;
+        while (logged != count("SELECT COUNT(*) FROM replay_log") && System.nanoTime() < deadline) {
+            logged = count("SELECT COUNT(*) FROM replay_log");
+            Thread.sleep(200);
+        }
+        assertTrue(logged < EVENTS);
+
+        replayLog.failAfter(-1);
+        ReplayProgress resumed = await(replayer.replay(ReplayLogProjection.class));
+
+        assertEquals(EVENTS - logged, resumed.getEvents());
+        assertReplayedExactlyOnce();
+    }
+
+    @Test
+    void completedReplayRunsAgainOnlyAfterReset() throws Exception {
+        await(replayer.replay(ReplayLogProjection.class));
+
+        ReplayProgress again = await(replayer.replay(ReplayLogProjection.class));
+        assertEquals(0, again.getEvents());
+        assertEquals(again.getSegments(), again.getCompletedSegments());
+
+        replayer.reset(ReplayLogProjection.class);
+        nativeSql.execute("DELETE FROM replay_log");
+        ReplayProgress fromStart = await(replayer.replay(ReplayLogProjection.class));
+        assertEquals(EVENTS, fromStart.getEvents());
+        assertReplayedExactlyOnce();
+    }
+
+    @Test
+    void replayIsThrottled() throws Exception {
+        configuration.setMaxEventsPerSecond(40);
+
+        ReplayProgress progress = await(replayer.replay(ReplayLogProjection.class));
+
+        // 18 events at 40 events per second take at least 450 ms
+        assertTrue(progress.getElapsed().toMillis() >= 400, progress.toString());
+        assertTrue(progress.getEventsPerSecond() <= 45, progress.toString());
+        assertReplayedExactlyOnce();
+    }
+
+    @Test
+    void aggregateCreatedDuringTheReplayIsReplayed() throws Exception {
+        configuration.setMaxEventsPerSecond(10);
+
+        ReplayProgress progress = replayer.replay(ReplayLogProjection.class);
+        Long created = createAccount("created_during_replay", 0);
+        await(progress);
+
+        assertEquals(1, count("SELECT COUNT(*) FROM replay_log WHERE aggregate_id = " + created));
+        assertReplayedExactlyOnce();
+    }
+
+    @Test
+    void cancelledReplayCompletesOnceItsSegmentsStopped() throws Exception {
+        configuration.setMaxEventsPerSecond(10);
+
+        ReplayProgress progress = replayer.replay(ReplayLogProjection.class);
+        progress.cancel();
+
+        assertThrows(CancellationException.class, () -> await(progress));
+        assertTrue(progress.getCompletedSegments() < progress.getSegments());
+
+        configuration.setMaxEventsPerSecond(0);
+        await(replayer.replay(ReplayLogProjection.class));
+        assertReplayedExactlyOnce();
+    }
+}
@@ -0,0 +1,113 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.axer.component.engine.ApplicationService;
+import com.axer.data.jpa.EventAppender;
+import com.axer.data.jpa.EventStore;
+import com.axer.data.jpa.EventTypeRegistry;
+import com.axer.data.jpa.PartitioningConfiguration;
+import com.axer.data.jpa.SchemaPartitioner;
+import com.axer.data.jpa.TsidUtil;
+import com.axer.data.jpa.entities.EventRecord;
+import com.axer.es.account.domain.aggregate.BankAccountAggregate;
+import com.axer.es.account.domain.commands.CreateAccountCommand;
+import com.axer.es.account.domain.commands.DepositMoneyCommand;
+import com.axer.es.account.domain.commands.WithdrawMoneyCommand;
+import com.axer.es.account.domain.events.AccountCreated;
+import com.axer.es.account.domain.repository.NativeSql;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+@Property(name = "datasources.default.url", value = "jdbc:tc:postgresql:14:///range_partitioning")
+@Property(name = "eventstore.partitioning.strategy", value = "RANGE")
+@Property(name = "eventstore.partitioning.ranges-ahead", value = "1")
+class RangePartitioningTest {
+
+    @Inject
+    ApplicationService applicationService;
+    @Inject
+    SchemaPartitioner schemaPartitioner;
+    @Inject
+    PartitioningConfiguration configuration;
+    @Inject
+    EventAppender eventAppender;
+    @Inject
+    EventTypeRegistry eventTypes;
+    @Inject
+    EventStore eventStore;
+    @Inject
+    NativeSql nativeSql;
+
+    @Test
+    void tablesArePartitionedByRange() {
+        for (String table : List.of("event_record", "aggregate_record")) {
+            assertEquals("p", single("SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?1)", table));
+            assertEquals("r", single("SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?1)",
+                table + "_r" + currentPeriod()));
+            // the default partition, the current period and one period ahead
+            assertEquals(3, ((Number) single("SELECT COUNT(*) FROM pg_inherits WHERE inhparent = to_regclass(?1)",
+                table)).intValue());
+        }
+    }
+
+    @Test
+    void commandsReadAndWriteThePartitionOfThePeriod() {
+        Long aggregateId = applicationService.executeCommand(new CreateAccountCommand("range_account"),
+            BankAccountAggregate.class).getId();
+        for (int i = 0; i < 6; i++) {
+            applicationService.executeCommand(new DepositMoneyCommand(BigDecimal.ONE), BankAccountAggregate.class, aggregateId);
+        }
+        assertEquals(7L, applicationService.executeCommand(new WithdrawMoneyCommand(BigDecimal.valueOf(6)),
+            BankAccountAggregate.class, aggregateId).getVersion());
+
+        assertEquals("event_record_r" + currentPeriod(), single(
+            "SELECT DISTINCT tableoid::regclass::text FROM event_record WHERE aggregate_id = ?1", aggregateId));
+        assertEquals("aggregate_record_r" + currentPeriod(), single(
+            "SELECT DISTINCT tableoid::regclass::text FROM aggregate_record WHERE aggregate_id = ?1", aggregateId));
+    }
+
+    @Test
+    void rowsInTheDefaultPartitionAreMovedToTheNewPartition() throws IOException {
+        // an aggregate of a period without a partition, as if the maintenance had fallen behind
+        long period = currentPeriod() + 2;
+        long aggregateId = TsidUtil.lowestIdAt(Instant.ofEpochMilli(TsidUtil.TSID_EPOCH_MILLIS
+            + period * configuration.getRange().toMillis())) + 1;
+        EventTypeRegistry.EventType eventType = eventTypes.get(AccountCreated.class);
+        EventRecord eventRecord = new EventRecord(aggregateId, 0L,
+            eventType.serializer().serialize(new AccountCreated("future_account")), eventType.serializer().getFormat(),
+            eventType.id());
+        nativeSql.transaction(() -> {
+            eventAppender.append(List.of(eventRecord));
+            return null;
+        });
+        assertEquals("event_record_default", single(
+            "SELECT tableoid::regclass::text FROM event_record WHERE aggregate_id = ?1", aggregateId));
+
+        configuration.setRangesAhead(2);
+        schemaPartitioner.createRangePartitions();
+
+        assertEquals("event_record_r" + period, single(
+            "SELECT tableoid::regclass::text FROM event_record WHERE aggregate_id = ?1", aggregateId));
+        assertEquals(0, ((Number) single("SELECT COUNT(*) FROM ONLY event_record_default WHERE aggregate_id = ?1",
+            aggregateId)).intValue());
+        assertEquals(0L, eventStore.readEvents(aggregateId, -1, r -> { }));
+    }
+
+    private long currentPeriod() {
+        return (System.currentTimeMillis() - TsidUtil.TSID_EPOCH_MILLIS) / configuration.getRange().toMillis();
+    }
+
+    private Object single(String sql, Object parameter) {
+        List<?> rows = nativeSql.query(sql, parameter);
+        assertEquals(1, rows.size());
+        return rows.get(0);
+    }
+}
@@ -0,0 +1,62 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.engine.AggregateId;
+import com.axer.component.engine.ApplicationService;
+import com.axer.data.jpa.DefaultApplicationService;
+import com.axer.es.account.domain.aggregate.SerializedAccount;
+import com.axer.es.account.domain.commands.CreateAccountCommand;
+import com.axer.es.account.domain.commands.SlowDepositCommand;
+import com.axer.es.account.domain.projection.AccountRepository;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+class SerializedCommandsTest {
+    private static final int COMMANDS = 8;
+
+    @Inject
+    ApplicationService applicationService;
+    @Inject
+    AccountRepository accountRepository;
+
+    @Test
+    void commandsOfOneAggregateRunOneAtATime() throws Exception {
+        DefaultApplicationService service = (DefaultApplicationService) applicationService;
+        Long aggregateId = applicationService.executeCommand(new CreateAccountCommand("serialized"), SerializedAccount.class).getId();
+        long conflicts = service.getConflicts();
+        long waits = service.getSerializedCommandWaits();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<CompletableFuture<AggregateId>> futures = new ArrayList<>();
+        for (int i = 0; i < COMMANDS; i++) {
+            futures.add(applicationService.executeCommandAsync(
+                new SlowDepositCommand(BigDecimal.ONE, 30, running, maxRunning), SerializedAccount.class, aggregateId));
+        }
+        Set<Long> versions = new TreeSet<>();
+        for (CompletableFuture<AggregateId> future : futures) {
+            versions.add(future.get(30, TimeUnit.SECONDS).getVersion());
+        }
+
+        assertEquals(1, maxRunning.get());
+        // the commands waited for each other instead of failing on the version and retrying
+        assertEquals(conflicts, service.getConflicts());
+        assertTrue(service.getSerializedCommandWaits() > waits);
+        assertEquals(COMMANDS, versions.size());
+        assertEquals(1L, versions.iterator().next());
+        assertEquals(0, accountRepository.findByAggregateId(aggregateId).getCurrentBalance()
+            .compareTo(BigDecimal.valueOf(COMMANDS)));
+    }
+}
@@ -0,0 +1,72 @@
+package account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.axer.data.jpa.EventStore;
+import com.axer.data.jpa.SnapshotConfiguration;
+import com.axer.data.jpa.TsidUtil;
+import com.axer.data.jpa.entities.AggregateRecord;
+import com.axer.es.account.domain.repository.NativeSql;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+class SnapshotPruningTest {
+    private static final int SNAPSHOTS = 6;
+
+    @Inject
+    EventStore eventStore;
+    @Inject
+    SnapshotConfiguration configuration;
+    @Inject
+    NativeSql nativeSql;
+
+    private long createSnapshots() {
+        long aggregateId = TsidUtil.getTsidFactory().create().toLong();
+        nativeSql.transaction(() -> {
+            for (long version = 1; version <= SNAPSHOTS; version++) {
+                eventStore.saveSnapshot(new AggregateRecord(aggregateId, version * 5, new byte[]{1}, (short) 1));
+            }
+            return null;
+        });
+        return aggregateId;
+    }
+
+    private List<Long> snapshotVersions(long aggregateId) {
+        return nativeSql.query("SELECT version FROM aggregate_record WHERE aggregate_id = ?1 ORDER BY version", aggregateId)
+            .stream().map(version -> ((Number) version).longValue()).toList();
+    }
+
+    @Test
+    void allSnapshotsAreKeptByDefault() {
+        assertEquals(0, configuration.getRetain());
+        long aggregateId = createSnapshots();
+
+        assertEquals(0, eventStore.pruneSnapshots(aggregateId, configuration.getRetain()));
+        assertEquals(SNAPSHOTS, snapshotVersions(aggregateId).size());
+    }
+
+    @Test
+    void onlyTheNewestSnapshotsSurvive() {
+        long aggregateId = createSnapshots();
+
+        assertEquals(SNAPSHOTS - 3, eventStore.pruneSnapshots(aggregateId, 3));
+        assertEquals(List.of(20L, 25L, 30L), snapshotVersions(aggregateId));
+
+        assertEquals(2, eventStore.pruneSnapshots(aggregateId, 1));
+        assertEquals(List.of(30L), snapshotVersions(aggregateId));
+        // nothing is left to delete
+        assertEquals(0, eventStore.pruneSnapshots(aggregateId, 1));
+        assertEquals(List.of(30L), snapshotVersions(aggregateId));
+    }
+
+    @Test
+    void aggregateWithFewerSnapshotsIsNotPruned() {
+        long aggregateId = createSnapshots();
+
+        assertEquals(0, eventStore.pruneSnapshots(aggregateId, SNAPSHOTS + 1));
+        assertEquals(SNAPSHOTS, snapshotVersions(aggregateId).size());
+    }
+}
@@ -0,0 +1,33 @@
+package com.axer.es.account.domain.aggregate;
+
+import com.axer.component.anotation.AggregateRoot;
+import com.axer.component.anotation.CommandProcessor;
+import com.axer.component.anotation.EventHandler;
+import com.axer.component.anotation.SnapshotMode;
+import com.axer.es.account.domain.commands.CreateAccountCommand;
+import com.axer.es.account.domain.events.AccountCreated;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micronaut.core.annotation.Introspected;
+import java.util.Collections;
+import java.util.List;
+
+@Introspected
+@AggregateRoot(snapshotAfter = 2, snapshotMode = SnapshotMode.ASYNC)
+public class AsyncSnapshotAccount {
+    @JsonProperty("accountName") private String accountName;
+
+    @EventHandler
+    public void eventHandler(Object event) {
+        if (event instanceof AccountCreated) {
+            accountName = ((AccountCreated) event).accountName();
+        }
+    }
+
+    @CommandProcessor
+    public List<?> commandProcessor(Object command) {
+        if (command instanceof CreateAccountCommand) {
+            return Collections.singletonList(new AccountCreated(((CreateAccountCommand) command).accountName()));
+        }
+        return null;
+    }
+}
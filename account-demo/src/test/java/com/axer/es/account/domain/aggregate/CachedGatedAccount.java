@@ -0,0 +1,47 @@
+package com.axer.es.account.domain.aggregate;
+
+import com.axer.component.anotation.AggregateRoot;
+import com.axer.component.anotation.CommandProcessor;
+import com.axer.component.anotation.EventHandler;
+import com.axer.es.account.domain.commands.CountEventsCommand;
+import com.axer.es.account.domain.commands.GatedCommand;
+import com.axer.es.account.domain.events.AccountCreated;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gated account with a state cache, which counts the events applied to its cached state.
+ */
+@AggregateRoot(cacheSize = 16)
+public class CachedGatedAccount {
+    private int events;
+
+    @EventHandler
+    public void eventHandler(Object event) {
+        if (event instanceof AccountCreated) {
+            events++;
+        }
+    }
+
+    @CommandProcessor
+    public List<?> commandProcessor(Object command) {
+        if (command instanceof GatedCommand gated) {
+            gated.running().incrementAndGet();
+            try {
+                if (!gated.gate().await(10, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("The gate was not opened");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                gated.running().decrementAndGet();
+            }
+            return Collections.singletonList(new AccountCreated(gated.accountName()));
+        } else if (command instanceof CountEventsCommand count) {
+            count.events().set(events);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,45 @@
+package com.axer.es.account.domain.aggregate;
+
+import com.axer.component.anotation.AggregateRoot;
+import com.axer.component.anotation.CommandProcessor;
+import com.axer.component.anotation.EventHandler;
+import com.axer.es.account.domain.commands.GatedCommand;
+import com.axer.es.account.domain.events.AccountCreated;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@AggregateRoot
+public class GatedAccount {
+    private String accountName;
+
+    @EventHandler
+    public void eventHandler(Object event) {
+        if (event instanceof AccountCreated) {
+            accountName = ((AccountCreated) event).accountName();
+        }
+    }
+
+    @CommandProcessor
+    public List<?> commandProcessor(Object command) {
+        if (command instanceof GatedCommand gated) {
+            gated.maxRunning().accumulateAndGet(gated.running().incrementAndGet(), Math::max);
+            try {
+                if (!gated.gate().await(10, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("The gate was not opened");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                gated.running().decrementAndGet();
+            }
+            return Collections.singletonList(new AccountCreated(gated.accountName()));
+        }
+        return null;
+    }
+
+    public String getAccountName() {
+        return accountName;
+    }
+}
@@ -0,0 +1,54 @@
+package com.axer.es.account.domain.aggregate;
+
+import com.axer.component.anotation.AggregateRoot;
+import com.axer.component.anotation.CommandProcessor;
+import com.axer.component.anotation.EventHandler;
+import com.axer.es.account.domain.commands.CreateAccountCommand;
+import com.axer.es.account.domain.commands.SlowDepositCommand;
+import com.axer.es.account.domain.events.AccountCreated;
+import com.axer.es.account.domain.events.MoneyDeposited;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+@AggregateRoot(serializeCommands = true)
+public class SerializedAccount {
+    private String accountName;
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    @EventHandler
+    public void eventHandler(Object event) {
+        if (event instanceof AccountCreated) {
+            accountName = ((AccountCreated) event).accountName();
+        } else if (event instanceof MoneyDeposited) {
+            balance = balance.add(((MoneyDeposited) event).amount());
+        }
+    }
+
+    @CommandProcessor
+    public List<?> commandProcessor(Object command) {
+        if (command instanceof CreateAccountCommand) {
+            return Collections.singletonList(new AccountCreated(((CreateAccountCommand) command).accountName()));
+        } else if (command instanceof SlowDepositCommand slow) {
+            slow.maxRunning().accumulateAndGet(slow.running().incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(slow.millis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                slow.running().decrementAndGet();
+            }
+            return Collections.singletonList(new MoneyDeposited(slow.amount()));
+        }
+        return null;
+    }
+
+    public String getAccountName() {
+        return accountName;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+}
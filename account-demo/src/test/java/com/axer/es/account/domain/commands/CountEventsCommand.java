@@ -0,0 +1,9 @@
+package com.axer.es.account.domain.commands;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reports the number of events applied to the aggregate, without creating an event.
+ */
+public record CountEventsCommand(AtomicInteger events) {
+}
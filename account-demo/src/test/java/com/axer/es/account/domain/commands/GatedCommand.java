@@ -0,0 +1,10 @@
+package com.axer.es.account.domain.commands;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates an account after the gate is opened, counting the commands executed at the same time.
+ */
+public record GatedCommand(String accountName, CountDownLatch gate, AtomicInteger running, AtomicInteger maxRunning) {
+}
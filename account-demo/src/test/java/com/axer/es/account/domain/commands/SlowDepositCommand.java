@@ -0,0 +1,10 @@
+package com.axer.es.account.domain.commands;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deposits money slowly, counting the commands executed at the same time.
+ */
+public record SlowDepositCommand(BigDecimal amount, long millis, AtomicInteger running, AtomicInteger maxRunning) {
+}
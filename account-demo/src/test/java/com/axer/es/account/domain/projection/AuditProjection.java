@@ -0,0 +1,25 @@
+package com.axer.es.account.domain.projection;
+
+import com.axer.component.anotation.EventProcessor;
+import com.axer.component.anotation.ProjectionBuilder;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Asynchronous projection which records the delivered versions of each aggregate, used just for testing.
+ */
+@ProjectionBuilder(async = true)
+public class AuditProjection {
+    private final Map<Long, List<Long>> versions = new ConcurrentHashMap<>();
+
+    @EventProcessor
+    public void process(Object event, Long aggregateId, Long version) {
+        versions.computeIfAbsent(aggregateId, id -> new CopyOnWriteArrayList<>()).add(version);
+    }
+
+    public List<Long> getVersions(Long aggregateId) {
+        return versions.getOrDefault(aggregateId, List.of());
+    }
+}
@@ -0,0 +1,47 @@
+package com.axer.es.account.domain.projection;
+
+import com.axer.component.anotation.EventProcessor;
+import com.axer.component.anotation.ProjectionBuilder;
+import com.axer.es.account.domain.events.AccountCreated;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous projection which fails on the accounts with a poisoned name, used just for testing.
+ */
+@ProjectionBuilder(async = true)
+public class FlakyProjection {
+    private final Set<String> poisoned = ConcurrentHashMap.newKeySet();
+    private final Map<Long, List<Long>> versions = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> failures = new ConcurrentHashMap<>();
+
+    @EventProcessor
+    public void process(Object event, Long aggregateId, Long version) {
+        if (event instanceof AccountCreated accountCreated && poisoned.contains(accountCreated.accountName())) {
+            failures.computeIfAbsent(aggregateId, id -> new AtomicInteger()).incrementAndGet();
+            throw new IllegalStateException("Poisoned account " + accountCreated.accountName());
+        }
+        versions.computeIfAbsent(aggregateId, id -> new CopyOnWriteArrayList<>()).add(version);
+    }
+
+    public void poison(String accountName) {
+        poisoned.add(accountName);
+    }
+
+    public void cure(String accountName) {
+        poisoned.remove(accountName);
+    }
+
+    public List<Long> getVersions(Long aggregateId) {
+        return versions.getOrDefault(aggregateId, List.of());
+    }
+
+    public int getFailures(Long aggregateId) {
+        AtomicInteger count = failures.get(aggregateId);
+        return count != null ? count.get() : 0;
+    }
+}
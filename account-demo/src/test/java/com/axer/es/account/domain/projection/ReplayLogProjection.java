@@ -0,0 +1,37 @@
+package com.axer.es.account.domain.projection;
+
+import com.axer.component.anotation.EventProcessor;
+import com.axer.es.account.domain.repository.NativeSql;
+import jakarta.inject.Singleton;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Projection which is only fed by the replay and logs every replayed event into the replay_log table in the
+ * transaction of the replayed page, used just for testing. A duplicate event fails on the primary key.
+ */
+@Singleton
+public class ReplayLogProjection {
+    private final NativeSql nativeSql;
+    private final AtomicInteger failAfter = new AtomicInteger(-1);
+
+    public ReplayLogProjection(NativeSql nativeSql) {
+        this.nativeSql = nativeSql;
+    }
+
+    @EventProcessor
+    public void process(Object event, Long aggregateId, Long version) {
+        if (failAfter.getAndDecrement() == 0) {
+            throw new IllegalStateException("Replay interrupted at aggregate " + aggregateId + " version " + version);
+        }
+        nativeSql.execute("INSERT INTO replay_log (aggregate_id, version) VALUES (?1, ?2)", aggregateId, version);
+    }
+
+    /**
+     * Fails the replay on the event after the given number of events.
+     *
+     * @param events The number of events processed before the failure, -1 to never fail
+     */
+    public void failAfter(int events) {
+        failAfter.set(events);
+    }
+}
@@ -0,0 +1,43 @@
+package com.axer.es.account.domain.repository;
+
+import io.micronaut.transaction.annotation.Transactional;
+import jakarta.inject.Singleton;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Runs plain SQL statements in a transaction, used just for testing.
+ */
+@Singleton
+public class NativeSql {
+    private final EntityManager entityManager;
+
+    public NativeSql(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Transactional
+    public int execute(String sql, Object... parameters) {
+        return createQuery(sql, parameters).executeUpdate();
+    }
+
+    @Transactional
+    public List<?> query(String sql, Object... parameters) {
+        return createQuery(sql, parameters).getResultList();
+    }
+
+    @Transactional
+    public <T> T transaction(Supplier<T> work) {
+        return work.get();
+    }
+
+    private Query createQuery(String sql, Object... parameters) {
+        Query query = entityManager.createNativeQuery(sql);
+        for (int i = 0; i < parameters.length; i++) {
+            query.setParameter(i + 1, parameters[i]);
+        }
+        return query;
+    }
+}
@@ -10,6 +10,7 @@ import static org.mockito.Mockito.when;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.axer.component.engine.AggregateId;
 import com.axer.component.engine.ApplicationService;
+import com.axer.component.engine.BatchResult;
 import com.axer.component.exceptions.EventStoreException;
 import com.axer.es.bank.domain.aggregates.BankAccount;
 import com.axer.es.bank.domain.aggregates.DefaultAccountNumberGenerator;
@@ -23,6 +24,7 @@ import io.micronaut.test.annotation.MockBean;
 import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
 import jakarta.inject.Inject;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 
@@ -97,6 +99,38 @@ class BankTest {
         assertEquals(2, account.getTransactions().size());
     }
 
+    @Test
+    void batchStopsAtFirstFailure() {
+        when(accountNumberGenerator.generate()).thenReturn("1234567890");
+        AggregateId aggregateId = applicationService.executeCommand(
+            new AccountSaveWithIdCommand("John Savings", "john@test.com"), BankAccount.class);
+        Account account = accountRepository.findByAggregateId(aggregateId.getId())
+            .orElseThrow(() -> new RuntimeException("Account not found"));
+
+        BatchResult result = applicationService.executeCommands(List.of(
+                new DepositCommand(new BigDecimal("100"), account.getAccountNumber()),
+                new WithdrawCommand(new BigDecimal("45"), account.getAccountNumber()),
+                new WithdrawCommand(new BigDecimal("100"), account.getAccountNumber())),
+            BankAccount.class,
+            aggregateId.getId());
+        assertEquals(2, result.getFailedCommandIndex());
+        assertTrue(result.getFailure() instanceof InsufficientFundsException);
+        assertEquals(2, result.getResults().size());
+        assertEquals(result.getResults().getLast().getVersion(), result.getAggregateId().getVersion());
+
+        account = accountRepository.findByAggregateId(aggregateId.getId()).orElse(null);
+        if (account == null) fail();
+        assertEquals(new BigDecimal("55").stripTrailingZeros(), account.getBalance().stripTrailingZeros());
+        assertEquals(2, account.getTransactions().size());
+    }
+
+    @Test
+    void saveAccountAsync() throws Exception {
+        when(accountNumberGenerator.generate()).thenReturn("1234567890");
+        AggregateId aggregateId = applicationService.executeCommandAsync(
+            new AccountSaveWithIdCommand("John Savings", "john@test.com"), BankAccount.class).get();
+        assertTrue(accountRepository.findByAggregateId(aggregateId.getId()).isPresent());
+    }
 
     @MockBean(DefaultAccountNumberGenerator.class)
     DefaultAccountNumberGenerator accountNumberGenerator() {
@@ -0,0 +1,85 @@
+package bank;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.engine.AggregateId;
+import com.axer.component.engine.ApplicationService;
+import com.axer.data.jpa.DefaultApplicationService;
+import com.axer.es.bank.domain.aggregates.CachedAccount;
+import com.axer.es.bank.domain.commands.DepositCommand;
+import com.axer.es.bank.domain.commands.PausedDepositCommand;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(transactional = false)
+class StateCacheTest {
+
+    @Inject
+    ApplicationService applicationService;
+
+    DefaultApplicationService service() {
+        return (DefaultApplicationService) applicationService;
+    }
+
+    AggregateId deposit(Long aggregateId) {
+        return applicationService.executeCommand(new DepositCommand(BigDecimal.ONE, "cached"), CachedAccount.class, aggregateId);
+    }
+
+    @Test
+    void committedStateIsTakenFromTheCache() {
+        AggregateId account = deposit(null);
+        long hits = service().getStateCacheHits();
+        long misses = service().getStateCacheMisses();
+
+        AggregateId next = deposit(account.getId());
+
+        assertEquals(account.getVersion() + 1, next.getVersion());
+        assertEquals(hits + 1, service().getStateCacheHits());
+        assertEquals(misses, service().getStateCacheMisses());
+    }
+
+    @Test
+    void evictedStateIsRestoredFromTheStore() {
+        AggregateId first = deposit(null);
+        // the cache holds one account, the second account evicts the first one
+        deposit(null);
+        long hits = service().getStateCacheHits();
+        long misses = service().getStateCacheMisses();
+
+        AggregateId next = deposit(first.getId());
+
+        assertEquals(first.getVersion() + 1, next.getVersion());
+        assertEquals(hits, service().getStateCacheHits());
+        assertEquals(misses + 1, service().getStateCacheMisses());
+    }
+
+    @Test
+    void staleCachedStateIsRetriedAfterConflict() throws Exception {
+        AggregateId account = deposit(null);
+        CountDownLatch reached = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        long conflicts = service().getConflicts();
+
+        // the paused command takes the cached state of version 0 and waits inside its transaction
+        CompletableFuture<AggregateId> paused = CompletableFuture.supplyAsync(() -> applicationService.executeCommand(
+            new PausedDepositCommand(BigDecimal.TEN, reached, resume), CachedAccount.class, account.getId()));
+        assertTrue(reached.await(10, TimeUnit.SECONDS));
+        AggregateId concurrent = deposit(account.getId());
+        resume.countDown();
+        AggregateId retried = paused.get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, concurrent.getVersion());
+        assertEquals(2, retried.getVersion());
+        assertTrue(service().getConflicts() > conflicts);
+
+        long hits = service().getStateCacheHits();
+        assertEquals(3, deposit(account.getId()).getVersion());
+        assertEquals(hits + 1, service().getStateCacheHits());
+    }
+}
@@ -0,0 +1,54 @@
+package com.axer.es.bank.domain.aggregates;
+
+import com.axer.component.anotation.AggregateRoot;
+import com.axer.component.anotation.CommandProcessor;
+import com.axer.component.anotation.EventHandler;
+import com.axer.es.bank.domain.commands.DepositCommand;
+import com.axer.es.bank.domain.commands.PausedDepositCommand;
+import com.axer.es.bank.domain.events.MoneyDeposited;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account with a state cache of a single aggregate, so every command on another account evicts it.
+ */
+@AggregateRoot(cacheSize = 1)
+public class CachedAccount {
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    @EventHandler
+    public void eventHandler(Object event) {
+        if (event instanceof MoneyDeposited deposited) {
+            balance = balance.add(deposited.money());
+        }
+    }
+
+    @CommandProcessor
+    public List<?> commandProcessor(Object command) {
+        if (command instanceof DepositCommand deposit) {
+            return Collections.singletonList(new MoneyDeposited(deposit.money()));
+        } else if (command instanceof PausedDepositCommand deposit) {
+            deposit.reached().countDown();
+            try {
+                if (!deposit.resume().await(10, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Paused deposit was not resumed");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return Collections.singletonList(new MoneyDeposited(deposit.money()));
+        }
+        return Collections.emptyList();
+    }
+}
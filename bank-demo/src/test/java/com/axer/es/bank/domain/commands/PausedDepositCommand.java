@@ -0,0 +1,14 @@
+package com.axer.es.bank.domain.commands;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Deposit which waits inside the command processor until the test lets it continue.
+ *
+ * @param money   The deposited money
+ * @param reached Counted down when the command processor is reached
+ * @param resume  Awaited by the command processor
+ */
+public record PausedDepositCommand(BigDecimal money, CountDownLatch reached, CountDownLatch resume) {
+}
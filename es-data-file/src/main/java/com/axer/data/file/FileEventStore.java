@@ -0,0 +1,659 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.file;
+
+import com.axer.component.exceptions.ConcurrencyConflictException;
+import com.axer.component.exceptions.EventStoreException;
+import com.axer.data.jpa.EventStore;
+import com.axer.data.jpa.entities.AggregateRecord;
+import com.axer.data.jpa.entities.EventRecord;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.transaction.TransactionOperations;
+import io.micronaut.transaction.TransactionStatus;
+import io.micronaut.transaction.support.TransactionSynchronization;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link EventStore} on append-only, memory mapped segment files, selected with {@code eventstore.store=file}.
+ * Intended for single node deployments, the files must not be shared by several processes.
+ * <p>
+ * Events and snapshots are appended as records to the current segment. A record consists of its length, the
+ * record kind, the aggregate id, the version, the global position, the creation time, the format marker, the
+ * event type id, the payload and a CRC32 checksum of everything after the length. When a record does not fit
+ * into the current segment, the next segment file is created. The versions of an aggregate are checked and
+ * the records are written under one lock, a stale version fails with a {@link ConcurrencyConflictException}
+ * and writes nothing.
+ * <p>
+ * The locations of the events of every aggregate and of its last snapshot are kept in an index in memory,
+ * which is rebuilt by scanning the segments at startup. The scan stops at the first record with a wrong
+ * checksum in a segment, which is the end of the log after a crash during a write. Events are passed to the
+ * deserializer as a view of the mapped segment, without copying them.
+ * <p>
+ * An append in a transaction checks and reserves the versions at once, so a concurrent command fails with a
+ * conflict, but writes the records only in a synchronization of the transaction before it commits. A rollback
+ * before that releases the versions and leaves nothing in the log, a failed write or sync fails the commit.
+ * The log cannot take part in the commit of the database itself: if the database fails to commit after the
+ * records were written, the events stay in the log and the command is reported as failed. Snapshots are written
+ * after the commit. Without a transaction the records are written at once. Asynchronous projections do not
+ * receive the events of this store.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+@Requires(property = EventStore.STORE_PROPERTY, value = "file")
+public class FileEventStore implements EventStore {
+    private static final Logger LOG = LoggerFactory.getLogger(FileEventStore.class);
+
+    static final byte EVENT = 1;
+    static final byte SNAPSHOT = 2;
+    private static final int KIND_OFFSET = 4;
+    private static final int AGGREGATE_ID_OFFSET = 5;
+    private static final int VERSION_OFFSET = 13;
+    private static final int POSITION_OFFSET = 21;
+    private static final int CREATED_OFFSET = 29;
+    private static final int FORMAT_OFFSET = 37;
+    private static final int EVENT_TYPE_OFFSET = 39;
+    static final int HEADER_SIZE = 43;
+    static final int CHECKSUM_SIZE = 4;
+    private static final long NO_SNAPSHOT = -1;
+
+    private final FileStoreConfiguration configuration;
+    private final List<TransactionOperations<?>> transactionOperations;
+    private final int segmentSize;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final Map<Long, AggregateIndex> index = new ConcurrentHashMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition syncDone = syncLock.newCondition();
+    private final LongAdder forces = new LongAdder();
+    private volatile long writeOffset;
+    private long nextPosition;
+    private volatile long syncedOffset;
+    private boolean syncing;
+    private Path directory;
+    private Thread syncThread;
+
+    /**
+     * Constructor.
+     *
+     * @param configuration         FileStoreConfiguration
+     * @param transactionOperations The transaction managers of the application, may be empty
+     */
+    public FileEventStore(FileStoreConfiguration configuration, List<TransactionOperations<?>> transactionOperations) {
+        this.configuration = configuration;
+        this.transactionOperations = transactionOperations;
+        this.segmentSize = configuration.getSegmentSize();
+    }
+
+    /**
+     * Maps the existing segments and rebuilds the index.
+     */
+    @PostConstruct
+    protected void open() {
+        try {
+            directory = Paths.get(configuration.getDirectory());
+            Files.createDirectories(directory);
+            int segmentCount = 0;
+            while (Files.exists(segmentPath(segmentCount))) {
+                segmentCount++;
+            }
+            for (int id = 0; id < Math.max(1, segmentCount); id++) {
+                segments.add(openSegment(id));
+            }
+            recover();
+        } catch (IOException e) {
+            throw new EventStoreException(e);
+        }
+        syncedOffset = writeOffset;
+        if (configuration.getSync() == FileStoreConfiguration.SyncMode.INTERVAL) {
+            syncThread = Thread.ofPlatform().daemon().name("file-store-sync").start(this::syncPeriodically);
+        }
+        LOG.info("Opened event store in {} with {} segments and {} aggregates", directory, segments.size(), index.size());
+    }
+
+    @Override
+    public long readEvents(Long aggregateId, long version, EventRecordConsumer consumer) throws IOException {
+        AggregateIndex aggregateIndex = index.get(aggregateId);
+        if (aggregateIndex == null) {
+            return version;
+        }
+        // read the size before the locations, the locations are replaced before the size is published
+        int size = aggregateIndex.size;
+        long[] locations = aggregateIndex.locations;
+        long lastVersion = version;
+        EventRecord eventRecord = new EventRecord();
+        eventRecord.setAggregateId(aggregateId);
+        for (long v = Math.max(0, version + 1); v < size; v++) {
+            long location = locations[(int) v];
+            ByteBuffer buffer = segments.get(segmentOf(location)).buffer();
+            int offset = offsetOf(location);
+            int length = buffer.getInt(offset);
+            eventRecord.setVersion(buffer.getLong(offset + VERSION_OFFSET));
+            eventRecord.setPosition(buffer.getLong(offset + POSITION_OFFSET));
+            eventRecord.setDateCreated(toDateTime(buffer.getLong(offset + CREATED_OFFSET)));
+            eventRecord.setFormat(buffer.getShort(offset + FORMAT_OFFSET));
+            eventRecord.setEventTypeId(buffer.getInt(offset + EVENT_TYPE_OFFSET));
+            eventRecord.setPayloadBuffer(buffer.slice(offset + HEADER_SIZE, length - HEADER_SIZE - CHECKSUM_SIZE)
+                .asReadOnlyBuffer());
+            consumer.accept(eventRecord);
+            lastVersion = v;
+        }
+        return lastVersion;
+    }
+
+    @Override
+    public void append(List<EventRecord> eventRecords, boolean outbox) {
+        if (eventRecords.isEmpty()) {
+            return;
+        }
+        Map<Long, List<EventRecord>> byAggregate = new LinkedHashMap<>();
+        for (EventRecord eventRecord : eventRecords) {
+            if (eventRecord.getEventTypeId() == null || eventRecord.getPayload() == null) {
+                throw new EventStoreException("Event record without event type id or payload can not be appended");
+            }
+            byAggregate.computeIfAbsent(eventRecord.getAggregateId(), id -> new ArrayList<>()).add(eventRecord);
+        }
+        TransactionStatus<?> transaction = currentTransaction();
+        if (transaction == null) {
+            write(byAggregate, false);
+            return;
+        }
+        reserve(byAggregate);
+        transaction.registerSynchronization(new TransactionSynchronization() {
+            private boolean written;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                write(byAggregate, true);
+                written = true;
+            }
+
+            @Override
+            public void afterCompletion(Status status) {
+                if (!written) {
+                    release(byAggregate);
+                }
+            }
+        });
+    }
+
+    @Override
+    public Optional<AggregateRecord> findLastSnapshot(Long aggregateId) {
+        AggregateIndex aggregateIndex = index.get(aggregateId);
+        long location = aggregateIndex != null ? aggregateIndex.snapshot : NO_SNAPSHOT;
+        if (location == NO_SNAPSHOT) {
+            return Optional.empty();
+        }
+        ByteBuffer buffer = segments.get(segmentOf(location)).buffer();
+        int offset = offsetOf(location);
+        byte[] data = new byte[buffer.getInt(offset) - HEADER_SIZE - CHECKSUM_SIZE];
+        buffer.get(offset + HEADER_SIZE, data);
+        AggregateRecord aggregateRecord = new AggregateRecord(aggregateId, buffer.getLong(offset + VERSION_OFFSET),
+            data, buffer.getShort(offset + FORMAT_OFFSET));
+        aggregateRecord.setDateCreated(toDateTime(buffer.getLong(offset + CREATED_OFFSET)));
+        return Optional.of(aggregateRecord);
+    }
+
+    @Override
+    public void saveSnapshot(AggregateRecord aggregateRecord) {
+        saveSnapshots(List.of(aggregateRecord));
+    }
+
+    /**
+     * Appends the snapshots after the commit. Snapshots are not forced to the disk, a lost snapshot only makes
+     * the restore replay more events.
+     *
+     * @param aggregateRecords The snapshots
+     */
+    @Override
+    public void saveSnapshots(List<AggregateRecord> aggregateRecords) {
+        TransactionStatus<?> transaction = currentTransaction();
+        if (transaction == null) {
+            writeSnapshots(aggregateRecords);
+            return;
+        }
+        transaction.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writeSnapshots(aggregateRecords);
+            }
+        });
+    }
+
+    private void writeSnapshots(List<AggregateRecord> aggregateRecords) {
+        appendLock.lock();
+        try {
+            long createdMillis = System.currentTimeMillis();
+            for (AggregateRecord aggregateRecord : aggregateRecords) {
+                aggregateRecord.setDateCreated(toDateTime(createdMillis));
+                long location = write(SNAPSHOT, aggregateRecord.getAggregateId(), aggregateRecord.getVersion(), -1,
+                    createdMillis, aggregateRecord.getFormat(), -1, aggregateRecord.getData());
+                index.computeIfAbsent(aggregateRecord.getAggregateId(), id -> new AggregateIndex())
+                    .snapshot(aggregateRecord.getVersion(), location);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Checks the versions of the appended events against the reserved versions and reserves them.
+     */
+    private void reserve(Map<Long, List<EventRecord>> byAggregate) {
+        appendLock.lock();
+        try {
+            checkVersions(byAggregate);
+            for (Map.Entry<Long, List<EventRecord>> entry : byAggregate.entrySet()) {
+                index.computeIfAbsent(entry.getKey(), id -> new AggregateIndex()).reserved += entry.getValue().size();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Releases the versions reserved by an append which was not written.
+     */
+    private void release(Map<Long, List<EventRecord>> byAggregate) {
+        appendLock.lock();
+        try {
+            for (Map.Entry<Long, List<EventRecord>> entry : byAggregate.entrySet()) {
+                AggregateIndex aggregateIndex = index.get(entry.getKey());
+                // a write which failed to sync keeps its records in the index
+                aggregateIndex.reserved = Math.max(aggregateIndex.size, entry.getValue().getFirst().getVersion().intValue());
+                if (aggregateIndex.size == 0 && aggregateIndex.snapshot == NO_SNAPSHOT) {
+                    index.remove(entry.getKey());
+                }
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void checkVersions(Map<Long, List<EventRecord>> byAggregate) {
+        for (Map.Entry<Long, List<EventRecord>> entry : byAggregate.entrySet()) {
+            AggregateIndex aggregateIndex = index.get(entry.getKey());
+            long expected = aggregateIndex != null ? aggregateIndex.reserved : 0;
+            long first = entry.getValue().getFirst().getVersion();
+            if (first != expected) {
+                throw new ConcurrencyConflictException(entry.getKey(), first - 1);
+            }
+        }
+    }
+
+    /**
+     * Writes the events to the log and forces them to the disk if configured.
+     *
+     * @param byAggregate The events by aggregate
+     * @param reserved    true if the versions were reserved before
+     */
+    private void write(Map<Long, List<EventRecord>> byAggregate, boolean reserved) {
+        long end;
+        appendLock.lock();
+        try {
+            if (!reserved) {
+                checkVersions(byAggregate);
+            }
+            long start = writeOffset;
+            long firstPosition = nextPosition;
+            long createdMillis = System.currentTimeMillis();
+            LocalDateTime created = toDateTime(createdMillis);
+            List<long[]> locations = new ArrayList<>(byAggregate.size());
+            try {
+                for (List<EventRecord> records : byAggregate.values()) {
+                    long[] aggregateLocations = new long[records.size()];
+                    for (int i = 0; i < records.size(); i++) {
+                        EventRecord eventRecord = records.get(i);
+                        eventRecord.setPosition(nextPosition++);
+                        eventRecord.setDateCreated(created);
+                        aggregateLocations[i] = write(EVENT, eventRecord.getAggregateId(), eventRecord.getVersion(),
+                            eventRecord.getPosition(), createdMillis, eventRecord.getFormat(),
+                            eventRecord.getEventTypeId(), eventRecord.getPayload());
+                    }
+                    locations.add(aggregateLocations);
+                }
+            } catch (RuntimeException e) {
+                nextPosition = firstPosition;
+                discard(start);
+                throw e;
+            }
+            int i = 0;
+            for (Long aggregateId : byAggregate.keySet()) {
+                index.computeIfAbsent(aggregateId, id -> new AggregateIndex()).add(locations.get(i++));
+            }
+            end = writeOffset;
+        } finally {
+            appendLock.unlock();
+        }
+        if (configuration.getSync() == FileStoreConfiguration.SyncMode.GROUP) {
+            awaitSync(end);
+        }
+    }
+
+    private TransactionStatus<?> currentTransaction() {
+        for (TransactionOperations<?> operations : transactionOperations) {
+            TransactionStatus<?> status = operations.findTransactionStatus().orElse(null);
+            if (status != null) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The number of aggregates in the store
+     */
+    public int getAggregates() {
+        return index.size();
+    }
+
+    /**
+     * @return The number of segment files
+     */
+    public int getSegments() {
+        return segments.size();
+    }
+
+    /**
+     * @return The number of bytes written to the log
+     */
+    public long getWrittenBytes() {
+        return writeOffset;
+    }
+
+    /**
+     * @return The number of times the log was forced to the disk
+     */
+    public long getForces() {
+        return forces.sum();
+    }
+
+    /**
+     * Forces the log to the disk and closes the segment files.
+     */
+    @PreDestroy
+    void close() {
+        if (syncThread != null) {
+            syncThread.interrupt();
+        }
+        appendLock.lock();
+        try {
+            if (configuration.getSync() != FileStoreConfiguration.SyncMode.NONE) {
+                force(syncedOffset, writeOffset);
+            }
+            for (Segment segment : segments) {
+                segment.channel().close();
+            }
+        } catch (IOException e) {
+            LOG.warn("Closing the event store in {} failed", directory, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Writes one record at the end of the log, starting the next segment if the record does not fit into the
+     * current one. Called with the append lock held.
+     *
+     * @return The location of the record
+     */
+    private long write(byte kind, long aggregateId, long version, long position, long createdMillis, short format,
+                       int eventTypeId, byte[] payload) {
+        int length = HEADER_SIZE + payload.length + CHECKSUM_SIZE;
+        if (length > segmentSize) {
+            throw new EventStoreException("Record of " + length + " bytes does not fit into a segment of "
+                + segmentSize + " bytes");
+        }
+        long location = writeOffset;
+        if (offsetOf(location) + length > segmentSize) {
+            location = (long) (segmentOf(location) + 1) * segmentSize;
+            if (segmentOf(location) == segments.size()) {
+                try {
+                    segments.add(openSegment(segmentOf(location)));
+                } catch (IOException e) {
+                    throw new EventStoreException(e);
+                }
+            }
+        }
+        ByteBuffer buffer = segments.get(segmentOf(location)).buffer();
+        int offset = offsetOf(location);
+        buffer.put(offset + KIND_OFFSET, kind);
+        buffer.putLong(offset + AGGREGATE_ID_OFFSET, aggregateId);
+        buffer.putLong(offset + VERSION_OFFSET, version);
+        buffer.putLong(offset + POSITION_OFFSET, position);
+        buffer.putLong(offset + CREATED_OFFSET, createdMillis);
+        buffer.putShort(offset + FORMAT_OFFSET, format);
+        buffer.putInt(offset + EVENT_TYPE_OFFSET, eventTypeId);
+        buffer.put(offset + HEADER_SIZE, payload);
+        buffer.putInt(offset + length - CHECKSUM_SIZE, checksum(buffer, offset, length));
+        buffer.putInt(offset, length);
+        writeOffset = location + length;
+        return location;
+    }
+
+    /**
+     * Drops the records written after the given offset by a failed append. The records are cleared, so they are
+     * not found by the recovery behind a shorter record written later.
+     */
+    private void discard(long start) {
+        for (long location = start; location < writeOffset; location++) {
+            segments.get(segmentOf(location)).buffer().put(offsetOf(location), (byte) 0);
+        }
+        writeOffset = start;
+    }
+
+    /**
+     * Rebuilds the index from the records of all segments and moves the write offset behind the last record.
+     */
+    private void recover() {
+        for (Segment segment : segments) {
+            MappedByteBuffer buffer = segment.buffer();
+            int offset = 0;
+            while (offset + HEADER_SIZE + CHECKSUM_SIZE <= segmentSize) {
+                int length = buffer.getInt(offset);
+                if (length < HEADER_SIZE + CHECKSUM_SIZE || offset + length > segmentSize
+                    || buffer.getInt(offset + length - CHECKSUM_SIZE) != checksum(buffer, offset, length)) {
+                    if (length != 0 && segment.id() == segments.size() - 1) {
+                        LOG.warn("Discarding the incomplete record at offset {} of segment {}", offset, segment.id());
+                        for (int i = offset; i < segmentSize; i++) {
+                            buffer.put(i, (byte) 0);
+                        }
+                    }
+                    break;
+                }
+                long location = (long) segment.id() * segmentSize + offset;
+                long aggregateId = buffer.getLong(offset + AGGREGATE_ID_OFFSET);
+                long version = buffer.getLong(offset + VERSION_OFFSET);
+                AggregateIndex aggregateIndex = index.computeIfAbsent(aggregateId, id -> new AggregateIndex());
+                if (buffer.get(offset + KIND_OFFSET) == SNAPSHOT) {
+                    aggregateIndex.snapshot(version, location);
+                } else {
+                    if (version != aggregateIndex.size) {
+                        throw new EventStoreException("Event log is corrupt, aggregate " + aggregateId + " has version "
+                            + version + " at offset " + offset + " of segment " + segment.id());
+                    }
+                    aggregateIndex.add(new long[]{location});
+                    nextPosition = Math.max(nextPosition, buffer.getLong(offset + POSITION_OFFSET) + 1);
+                }
+                offset += length;
+                writeOffset = location + length;
+            }
+        }
+    }
+
+    /**
+     * Waits until the log is forced to the disk up to the given offset. The first waiting appender forces the
+     * log for all appenders which wait at the same time.
+     */
+    private void awaitSync(long end) {
+        syncLock.lock();
+        try {
+            while (syncedOffset < end) {
+                if (syncing) {
+                    syncDone.await();
+                    continue;
+                }
+                syncing = true;
+                long from = syncedOffset;
+                long to = end;
+                syncLock.unlock();
+                try {
+                    long window = configuration.getSyncWindow().toNanos();
+                    if (window > 0) {
+                        TimeUnit.NANOSECONDS.sleep(window);
+                    }
+                    to = writeOffset;
+                    force(from, to);
+                } finally {
+                    syncLock.lock();
+                    syncing = false;
+                    syncDone.signalAll();
+                }
+                syncedOffset = Math.max(syncedOffset, to);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EventStoreException(e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void syncPeriodically() {
+        long interval = Math.max(TimeUnit.MILLISECONDS.toNanos(1), configuration.getSyncWindow().toNanos());
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(interval);
+                long to = writeOffset;
+                if (to > syncedOffset) {
+                    force(syncedOffset, to);
+                    syncedOffset = to;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                LOG.warn("Forcing the event store in {} to the disk failed", directory, e);
+            }
+        }
+    }
+
+    /**
+     * Forces the given range of the log to the disk.
+     */
+    private void force(long from, long to) {
+        if (to <= from) {
+            return;
+        }
+        for (int id = segmentOf(from); id <= segmentOf(to - 1); id++) {
+            int start = id == segmentOf(from) ? offsetOf(from) : 0;
+            int end = id == segmentOf(to - 1) ? offsetOf(to - 1) + 1 : segmentSize;
+            segments.get(id).buffer().force(start, end - start);
+        }
+        forces.increment();
+    }
+
+    private Segment openSegment(int id) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(id),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(id, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+    }
+
+    private Path segmentPath(int id) {
+        return directory.resolve(String.format("segment-%010d.log", id));
+    }
+
+    private int segmentOf(long location) {
+        return (int) (location / segmentSize);
+    }
+
+    private int offsetOf(long location) {
+        return (int) (location % segmentSize);
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset + KIND_OFFSET, length - KIND_OFFSET - CHECKSUM_SIZE));
+        return (int) crc.getValue();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private record Segment(int id, FileChannel channel, MappedByteBuffer buffer) {
+    }
+
+    /**
+     * The locations of the events and of the last snapshot of one aggregate, and the number of events including
+     * the versions reserved by uncommitted appends. Changed only with the append lock held, the locations are read
+     * without a lock.
+     */
+    private static final class AggregateIndex {
+        private volatile long[] locations = new long[8];
+        private volatile int size;
+        private int reserved;
+        private volatile long snapshot = NO_SNAPSHOT;
+        private long snapshotVersion = -1;
+
+        void add(long[] appended) {
+            long[] current = locations;
+            int newSize = size + appended.length;
+            if (newSize > current.length) {
+                current = Arrays.copyOf(current, Math.max(newSize, current.length * 2));
+            }
+            System.arraycopy(appended, 0, current, size, appended.length);
+            locations = current;
+            size = newSize;
+            reserved = Math.max(reserved, newSize);
+        }
+
+        void snapshot(long version, long location) {
+            if (version > snapshotVersion) {
+                snapshotVersion = version;
+                snapshot = location;
+            }
+        }
+    }
+}
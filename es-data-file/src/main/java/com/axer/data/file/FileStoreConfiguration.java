@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.file;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link FileEventStore}.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@ConfigurationProperties("eventstore.file")
+public class FileStoreConfiguration {
+    private String directory = "eventstore";
+    private int segmentSize = 64 * 1024 * 1024;
+    private SyncMode sync = SyncMode.GROUP;
+    private Duration syncWindow = Duration.ZERO;
+
+    /**
+     * Gets the directory of the segment files.
+     *
+     * @return The directory
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Sets the directory of the segment files.
+     *
+     * @param directory The directory
+     */
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the size of one segment file in bytes. A single event or snapshot must fit into a segment.
+     *
+     * @return The segment size
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Sets the size of one segment file in bytes. Must not change for an existing directory.
+     *
+     * @param segmentSize The segment size
+     */
+    public void setSegmentSize(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Gets when the appended events are forced to the disk.
+     *
+     * @return The sync mode
+     */
+    public SyncMode getSync() {
+        return sync;
+    }
+
+    /**
+     * Sets when the appended events are forced to the disk.
+     *
+     * @param sync The sync mode
+     */
+    public void setSync(SyncMode sync) {
+        this.sync = sync;
+    }
+
+    /**
+     * Gets how long the first appender of a group waits for others before forcing with {@link SyncMode#GROUP},
+     * or the interval of the background force with {@link SyncMode#INTERVAL}.
+     *
+     * @return The sync window
+     */
+    public Duration getSyncWindow() {
+        return syncWindow;
+    }
+
+    /**
+     * Sets how long the first appender of a group waits for others before forcing with {@link SyncMode#GROUP},
+     * or the interval of the background force with {@link SyncMode#INTERVAL}.
+     *
+     * @param syncWindow The sync window
+     */
+    public void setSyncWindow(Duration syncWindow) {
+        this.syncWindow = syncWindow;
+    }
+
+    /**
+     * Durability of the appended events.
+     */
+    public enum SyncMode {
+        /**
+         * The events are written to the disk by the operating system, a crash of the machine may lose them.
+         */
+        NONE,
+        /**
+         * An append returns after its events are forced to the disk. Appends which wait at the same time share
+         * one force.
+         */
+        GROUP,
+        /**
+         * The events are forced to the disk by a background thread every sync window, an append does not wait.
+         */
+        INTERVAL
+    }
+}
@@ -0,0 +1,152 @@
+package com.axer.data.file;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.exceptions.ConcurrencyConflictException;
+import com.axer.data.jpa.entities.AggregateRecord;
+import com.axer.data.jpa.entities.EventRecord;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileEventStoreTest {
+    private static final int SEGMENT_SIZE = 1024;
+    private static final int PAYLOAD_SIZE = 100;
+    private static final int RECORD_SIZE = FileEventStore.HEADER_SIZE + PAYLOAD_SIZE + FileEventStore.CHECKSUM_SIZE;
+
+    @TempDir
+    Path directory;
+
+    private FileEventStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    void recordsRollOverToTheNextSegment() throws IOException {
+        store = open();
+        int events = 3 * (SEGMENT_SIZE / RECORD_SIZE);
+        store.append(events(1L, 0, events), false);
+
+        assertTrue(store.getSegments() >= 3);
+        List<byte[]> payloads = read(store, 1L);
+        assertEquals(events, payloads.size());
+        for (int version = 0; version < events; version++) {
+            assertArrayEquals(payload(version), payloads.get(version));
+        }
+    }
+
+    @Test
+    void indexIsRebuiltOnRestart() throws IOException {
+        store = open();
+        store.append(events(1L, 0, 5), false);
+        store.append(events(2L, 0, 3), false);
+        store.saveSnapshot(new AggregateRecord(1L, 3L, new byte[]{7}, (short) 1));
+        store.append(events(2L, 3, 12), false);
+        long written = store.getWrittenBytes();
+        store.close();
+
+        store = open();
+
+        assertEquals(2, store.getAggregates());
+        assertEquals(written, store.getWrittenBytes());
+        assertEquals(5, read(store, 1L).size());
+        assertEquals(15, read(store, 2L).size());
+        AggregateRecord snapshot = store.findLastSnapshot(1L).orElseThrow();
+        assertEquals(3L, snapshot.getVersion());
+        assertArrayEquals(new byte[]{7}, snapshot.getData());
+        // the positions continue after the recovered events
+        List<EventRecord> appended = events(1L, 5, 1);
+        store.append(appended, false);
+        assertEquals(20L, appended.getFirst().getPosition());
+    }
+
+    @Test
+    void tornTailIsDiscardedOnRestart() throws IOException {
+        store = open();
+        store.append(events(1L, 0, 4), false);
+        long written = store.getWrittenBytes();
+        store.close();
+        // a crash in the middle of the last record leaves a wrong checksum behind
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("segment-0000000000.log").toFile(), "rw")) {
+            file.seek(written - FileEventStore.CHECKSUM_SIZE - 1);
+            file.write(0xFF);
+        }
+
+        store = open();
+
+        assertEquals(3, read(store, 1L).size());
+        assertEquals(written - RECORD_SIZE, store.getWrittenBytes());
+        // the lost version is appended again at the end of the log
+        store.append(events(1L, 3, 1), false);
+        assertEquals(4, read(store, 1L).size());
+        store.close();
+        store = open();
+        assertEquals(4, read(store, 1L).size());
+    }
+
+    @Test
+    void staleVersionFailsWithoutWriting() throws IOException {
+        store = open();
+        store.append(events(1L, 0, 2), false);
+        long written = store.getWrittenBytes();
+
+        assertThrows(ConcurrencyConflictException.class, () -> store.append(events(1L, 1, 1), false));
+        // an append of several aggregates writes nothing if one of them conflicts
+        List<EventRecord> mixed = new ArrayList<>(events(2L, 0, 1));
+        mixed.addAll(events(1L, 0, 1));
+        assertThrows(ConcurrencyConflictException.class, () -> store.append(mixed, false));
+
+        assertEquals(written, store.getWrittenBytes());
+        assertEquals(2, read(store, 1L).size());
+        assertTrue(read(store, 2L).isEmpty());
+    }
+
+    private FileEventStore open() {
+        FileStoreConfiguration configuration = new FileStoreConfiguration();
+        configuration.setDirectory(directory.toString());
+        configuration.setSegmentSize(SEGMENT_SIZE);
+        FileEventStore fileEventStore = new FileEventStore(configuration, List.of());
+        fileEventStore.open();
+        return fileEventStore;
+    }
+
+    private static List<EventRecord> events(long aggregateId, int fromVersion, int count) {
+        List<EventRecord> eventRecords = new ArrayList<>(count);
+        for (int version = fromVersion; version < fromVersion + count; version++) {
+            eventRecords.add(new EventRecord(aggregateId, (long) version, payload(version), (short) 1, 1));
+        }
+        return eventRecords;
+    }
+
+    private static byte[] payload(int version) {
+        byte[] payload = new byte[PAYLOAD_SIZE];
+        payload[0] = (byte) version;
+        payload[PAYLOAD_SIZE - 1] = (byte) (version >> 8);
+        return payload;
+    }
+
+    private static List<byte[]> read(FileEventStore store, long aggregateId) throws IOException {
+        List<byte[]> payloads = new ArrayList<>();
+        store.readEvents(aggregateId, -1, eventRecord -> {
+            ByteBuffer buffer = eventRecord.getPayloadBuffer();
+            byte[] payload = new byte[buffer.remaining()];
+            buffer.get(payload);
+            payloads.add(payload);
+        });
+        return payloads;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jdbc;
+
+import com.axer.component.exceptions.EventStoreException;
+import com.axer.data.jpa.AppendConfiguration;
+import com.axer.data.jpa.EventRecordWriter;
+import com.axer.data.jpa.EventStore;
+import com.axer.data.jpa.PositionBlocks;
+import com.axer.data.jpa.entities.EventRecord;
+import com.axer.data.jpa.entities.PositionBlock;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.transaction.TransactionDefinition;
+import io.micronaut.transaction.annotation.Transactional;
+import jakarta.inject.Singleton;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import javax.sql.DataSource;
+
+/**
+ * Appends the event records of the {@link JdbcEventStore} with the JDBC batches of the {@link EventRecordWriter}.
+ * <p>
+ * The statements run on the connection of the current transaction, which the transaction aware
+ * {@link DataSource} of Micronaut JDBC returns. The global positions are handed out by {@link PositionBlocks}
+ * from blocks reserved in a separate transaction, like with the {@link com.axer.data.jpa.PositionAllocator}, so
+ * the event_position row is not locked until the append commits. When asynchronous projections are registered,
+ * an outbox record is inserted for every event in the same transaction.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+@Requires(property = EventStore.STORE_PROPERTY, value = "jdbc")
+public class JdbcEventAppender {
+    static final String LOCK_POSITION_SQL = "SELECT next_position FROM event_position WHERE name = ? FOR UPDATE";
+    static final String UPDATE_POSITION_SQL = "UPDATE event_position SET next_position = ? WHERE name = ?";
+    static final String CREATE_POSITION_SQL = "INSERT INTO event_position (name, next_position) VALUES (?, ?)";
+
+    private final DataSource dataSource;
+    private final EventRecordWriter writer;
+    private final PositionBlocks blocks;
+
+    /**
+     * Constructor.
+     *
+     * @param dataSource    DataSource which returns the connection of the current transaction
+     * @param configuration AppendConfiguration
+     */
+    public JdbcEventAppender(DataSource dataSource, AppendConfiguration configuration) {
+        this.dataSource = dataSource;
+        this.writer = new EventRecordWriter(configuration);
+        this.blocks = new PositionBlocks(configuration, this::reserveBlock);
+    }
+
+    /**
+     * Inserts the event records in the current transaction, together with their outbox records for the
+     * asynchronous projections if requested.
+     * A duplicate version of an aggregate fails the insert with a constraint violation.
+     *
+     * @param eventRecords The event records to insert
+     * @param outbox       true if the outbox records are inserted as well
+     */
+    @Transactional(propagation = TransactionDefinition.Propagation.MANDATORY)
+    public void append(List<EventRecord> eventRecords, boolean outbox) {
+        if (eventRecords.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        blocks.assign(eventRecords);
+        try (Connection connection = dataSource.getConnection()) {
+            writer.write(connection, eventRecords, outbox, now);
+        } catch (SQLException e) {
+            throw new EventStoreException(e);
+        }
+    }
+
+    /**
+     * Moves the next position of the store forward by the block size, in its own transaction so the row lock is
+     * released before the events are committed. The row is created by the first reservation of the store.
+     *
+     * @param blockSize The number of positions to reserve
+     * @return The first reserved position
+     */
+    @Transactional(propagation = TransactionDefinition.Propagation.REQUIRES_NEW)
+    protected long reserveBlock(int blockSize) {
+        try (Connection connection = dataSource.getConnection()) {
+            Long first = lockPosition(connection);
+            if (first == null) {
+                try (PreparedStatement statement = connection.prepareStatement(CREATE_POSITION_SQL)) {
+                    statement.setString(1, PositionBlock.EVENT_RECORD);
+                    statement.setLong(2, blockSize);
+                    statement.executeUpdate();
+                }
+                return 0;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_POSITION_SQL)) {
+                statement.setLong(1, first + blockSize);
+                statement.setString(2, PositionBlock.EVENT_RECORD);
+                statement.executeUpdate();
+            }
+            return first;
+        } catch (SQLException e) {
+            throw new EventStoreException(e);
+        }
+    }
+
+    private static Long lockPosition(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(LOCK_POSITION_SQL)) {
+            statement.setString(1, PositionBlock.EVENT_RECORD);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : null;
+            }
+        }
+    }
+}
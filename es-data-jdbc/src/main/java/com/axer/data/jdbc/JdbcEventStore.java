@@ -0,0 +1,219 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jdbc;
+
+import com.axer.component.exceptions.EventStoreException;
+import com.axer.component.serialization.JsonSnapshotSerializer;
+import com.axer.data.jpa.EventArchive;
+import com.axer.data.jpa.EventStore;
+import com.axer.data.jpa.ReadConfiguration;
+import com.axer.data.jpa.entities.AggregateRecord;
+import com.axer.data.jpa.entities.EventRecord;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.transaction.annotation.Transactional;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import javax.sql.DataSource;
+
+/**
+ * {@link EventStore} on plain JDBC, selected with {@code eventstore.store=jdbc}.
+ * <p>
+ * Events and snapshots are read with forward only result sets straight into plain objects, without the
+ * persistence context, HQL translation and entity hydration. One event record is reused for the whole
+ * stream of an aggregate. The statements use the connection of the current transaction and constant SQL
+ * texts, so the statement cache of the JDBC driver serves them after the first execution on a connection.
+ * The connection is taken from the {@link DataSource} of Micronaut JDBC, which is transaction aware, so the
+ * store needs neither JPA nor Hibernate and joins the transaction of the command whichever transaction manager
+ * started it. Event records are appended with the JDBC batches of the {@link JdbcEventAppender}. Events moved to the
+ * {@link EventArchive} are read from the archive when the stream of an aggregate starts after a gap.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+@Requires(property = EventStore.STORE_PROPERTY, value = "jdbc")
+public class JdbcEventStore implements EventStore {
+    static final String READ_EVENTS_SQL = "SELECT version, date_created, payload, format, event_type_id, json, event_name, position "
+        + "FROM event_record WHERE aggregate_id = ? AND version > ? ORDER BY version";
+    static final String LAST_SNAPSHOT_SQL = "SELECT version, date_created, data, format FROM aggregate_record "
+        + "WHERE aggregate_id = ? ORDER BY version DESC FETCH FIRST 1 ROWS ONLY";
+    static final String INSERT_SNAPSHOT_SQL = "INSERT INTO aggregate_record "
+        + "(aggregate_id, version, date_created, data, format) VALUES (?, ?, ?, ?, ?)";
+    static final String PRUNE_SNAPSHOTS_SQL = "DELETE FROM aggregate_record WHERE aggregate_id = ? AND version < "
+        + "(SELECT version FROM aggregate_record WHERE aggregate_id = ? ORDER BY version DESC OFFSET ? ROWS FETCH FIRST 1 ROWS ONLY)";
+
+    private final DataSource dataSource;
+    private final JdbcEventAppender eventAppender;
+    private final ReadConfiguration configuration;
+    private final EventArchive eventArchive;
+
+    /**
+     * Constructor.
+     *
+     * @param dataSource    DataSource which returns the connection of the current transaction
+     * @param eventAppender JdbcEventAppender
+     * @param configuration ReadConfiguration
+     * @param eventArchive  EventArchive
+     */
+    public JdbcEventStore(DataSource dataSource,
+                          JdbcEventAppender eventAppender,
+                          ReadConfiguration configuration,
+                          EventArchive eventArchive) {
+        this.dataSource = dataSource;
+        this.eventAppender = eventAppender;
+        this.configuration = configuration;
+        this.eventArchive = eventArchive;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long readEvents(Long aggregateId, long version, EventRecordConsumer consumer) throws IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            return readEvents(connection, aggregateId, version, eventArchive.withArchive(aggregateId, version, consumer));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (SQLException e) {
+            throw new EventStoreException(e);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void append(List<EventRecord> eventRecords, boolean outbox) {
+        eventAppender.append(eventRecords, outbox);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<AggregateRecord> findLastSnapshot(Long aggregateId) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(LAST_SNAPSHOT_SQL)) {
+            statement.setLong(1, aggregateId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return Optional.empty();
+                }
+                long version = resultSet.getLong(1);
+                Timestamp dateCreated = resultSet.getTimestamp(2);
+                byte[] data = resultSet.getBytes(3);
+                short format = resultSet.getShort(4);
+                AggregateRecord aggregateRecord = new AggregateRecord(aggregateId, version, data,
+                    resultSet.wasNull() ? JsonSnapshotSerializer.FORMAT : format);
+                aggregateRecord.setDateCreated(dateCreated != null ? dateCreated.toLocalDateTime() : null);
+                return Optional.of(aggregateRecord);
+            }
+        } catch (SQLException e) {
+            throw new EventStoreException(e);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void saveSnapshot(AggregateRecord aggregateRecord) {
+        saveSnapshots(List.of(aggregateRecord));
+    }
+
+    @Override
+    @Transactional
+    public void saveSnapshots(List<AggregateRecord> aggregateRecords) {
+        if (aggregateRecords.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT_SNAPSHOT_SQL)) {
+            for (AggregateRecord aggregateRecord : aggregateRecords) {
+                aggregateRecord.setDateCreated(now);
+                statement.setLong(1, aggregateRecord.getAggregateId());
+                statement.setLong(2, aggregateRecord.getVersion());
+                statement.setTimestamp(3, Timestamp.valueOf(now));
+                statement.setBytes(4, aggregateRecord.getData());
+                statement.setShort(5, aggregateRecord.getFormat());
+                if (aggregateRecords.size() == 1) {
+                    statement.executeUpdate();
+                } else {
+                    statement.addBatch();
+                }
+            }
+            if (aggregateRecords.size() > 1) {
+                statement.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new EventStoreException(e);
+        }
+    }
+
+    @Override
+    @Transactional
+    public int pruneSnapshots(Long aggregateId, int retain) {
+        if (retain <= 0) {
+            return 0;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(PRUNE_SNAPSHOTS_SQL)) {
+            statement.setLong(1, aggregateId);
+            statement.setLong(2, aggregateId);
+            statement.setInt(3, retain - 1);
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new EventStoreException(e);
+        }
+    }
+
+    private long readEvents(Connection connection, Long aggregateId, long version, EventRecordConsumer consumer) throws SQLException {
+        long lastVersion = version;
+        try (PreparedStatement statement = connection.prepareStatement(READ_EVENTS_SQL,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(Math.max(1, configuration.getFetchSize()));
+            statement.setLong(1, aggregateId);
+            statement.setLong(2, version);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                EventRecord eventRecord = new EventRecord();
+                eventRecord.setAggregateId(aggregateId);
+                while (resultSet.next()) {
+                    // columns are read from left to right, as required by some drivers for streamed rows
+                    lastVersion = resultSet.getLong(1);
+                    eventRecord.setVersion(lastVersion);
+                    Timestamp dateCreated = resultSet.getTimestamp(2);
+                    eventRecord.setDateCreated(dateCreated != null ? dateCreated.toLocalDateTime() : null);
+                    eventRecord.setPayload(resultSet.getBytes(3));
+                    eventRecord.setFormat(resultSet.getShort(4));
+                    int eventTypeId = resultSet.getInt(5);
+                    eventRecord.setEventTypeId(resultSet.wasNull() ? null : eventTypeId);
+                    eventRecord.setJson(resultSet.getString(6));
+                    eventRecord.setEventName(resultSet.getString(7));
+                    long position = resultSet.getLong(8);
+                    eventRecord.setPosition(resultSet.wasNull() ? null : position);
+                    try {
+                        consumer.accept(eventRecord);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+        }
+        return lastVersion;
+    }
+}
@@ -15,6 +15,10 @@
  */
 package com.axer.component.anotation;
 
+import com.axer.component.engine.SnapshotPolicy;
+import com.axer.component.engine.SnapshotSerializer;
+import com.axer.component.serialization.JsonSnapshotSerializer;
+import com.axer.component.snapshot.ModuloSnapshotPolicy;
 import io.micronaut.context.annotation.Prototype;
 import io.micronaut.core.annotation.Introspected;
 import jakarta.inject.Qualifier;
@@ -27,7 +31,16 @@ import static java.lang.annotation.ElementType.TYPE;
 /**
  * The annotation marks the class as Aggregate Root.
  * The snapshotAfter attribute specifies the number of events that are persisted before the snapshot of
- * the aggregate root is serialized to the database.
+ * the aggregate root is serialized to the database. The snapshotMode attribute specifies if the snapshot is
+ * written in the transaction of the command or by a background writer after the commit.
+ * The snapshotPolicy attribute selects the {@link SnapshotPolicy} which decides when the snapshot is due, the
+ * default policy writes the snapshot when the version is a multiple of snapshotAfter. The snapshotAfterBytes,
+ * snapshotAfterMillis and snapshotMaxAge attributes are thresholds for replay cost based policies.
+ * The snapshotSerializer attribute selects the {@link SnapshotSerializer} used to write the snapshot.
+ * The cacheSize attribute enables an in-memory cache of the last committed state of up to cacheSize aggregates,
+ * evicting the least recently used ones. Entries older than cacheTtl seconds are not used.
+ * The serializeCommands attribute runs the commands of one aggregate one after another within the node,
+ * instead of letting concurrent commands fail on the version conflict.
  *
  * @author Roman Naglic
  * @since 1.0.0
@@ -39,4 +52,50 @@ import static java.lang.annotation.ElementType.TYPE;
 @Introspected
 public @interface AggregateRoot {
     long snapshotAfter() default 0;
+
+    /**
+     * @return The way the snapshot is written, see {@link SnapshotMode}.
+     */
+    SnapshotMode snapshotMode() default SnapshotMode.SYNC;
+
+    /**
+     * @return The policy which decides when the snapshot is written.
+     */
+    Class<? extends SnapshotPolicy> snapshotPolicy() default ModuloSnapshotPolicy.class;
+
+    /**
+     * @return The size of the events after the last snapshot which triggers a snapshot, 0 disables the threshold.
+     */
+    long snapshotAfterBytes() default 0;
+
+    /**
+     * @return The replay time in milliseconds of the events after the last snapshot which triggers a snapshot,
+     * 0 disables the threshold.
+     */
+    long snapshotAfterMillis() default 0;
+
+    /**
+     * @return The age in seconds of the last snapshot which triggers a snapshot, 0 disables the threshold.
+     */
+    long snapshotMaxAge() default 0;
+
+    /**
+     * @return The serializer used to write the snapshot.
+     */
+    Class<? extends SnapshotSerializer> snapshotSerializer() default JsonSnapshotSerializer.class;
+
+    /**
+     * @return The maximum number of aggregates of this type kept in the state cache, 0 disables the cache.
+     */
+    int cacheSize() default 0;
+
+    /**
+     * @return The number of seconds a cached aggregate state stays valid, 0 means no expiration.
+     */
+    long cacheTtl() default 0;
+
+    /**
+     * @return true if the commands of one aggregate are executed one after another within the node.
+     */
+    boolean serializeCommands() default false;
 }
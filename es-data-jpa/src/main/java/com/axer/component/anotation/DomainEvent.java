@@ -15,6 +15,8 @@
  */
 package com.axer.component.anotation;
 
+import com.axer.component.engine.EventSerializer;
+import com.axer.component.serialization.JsonEventSerializer;
 import io.micronaut.core.annotation.Introspected;
 import jakarta.inject.Qualifier;
 
@@ -28,6 +30,7 @@ import static java.lang.annotation.ElementType.TYPE;
  * The annotation marks the class as domain event class.
  * The value attribute define the logical name of the Event. The logical name is than mapped to the package+class name
  * for deserialization of the event.
+ * The serializer attribute selects the {@link EventSerializer} used to write the events of this type.
  *
  * @author Roman Naglic
  * @since 1.0.0
@@ -38,4 +41,9 @@ import static java.lang.annotation.ElementType.TYPE;
 @Introspected
 public @interface DomainEvent {
     String value() default "";
+
+    /**
+     * @return The serializer used to write the events of this type.
+     */
+    Class<? extends EventSerializer> serializer() default JsonEventSerializer.class;
 }
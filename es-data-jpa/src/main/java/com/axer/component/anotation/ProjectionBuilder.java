@@ -27,7 +27,9 @@ import static java.lang.annotation.ElementType.TYPE;
 
 /**
  * The annotation marks the class as Perspective builder.
- * The Perspective methods participates in the same transaction as event sourcing engine
+ * The Perspective methods participates in the same transaction as event sourcing engine, unless the async
+ * attribute is set. Asynchronous perspectives get the events after the commit from a background dispatcher,
+ * at least once and in the order of the events of each aggregate.
  *
  * @author Roman Naglic
  * @since 1.0.0
@@ -37,4 +39,10 @@ import static java.lang.annotation.ElementType.TYPE;
 @Target(TYPE)
 @Executable
 @Singleton
-public @interface ProjectionBuilder { }
+public @interface ProjectionBuilder {
+
+    /**
+     * @return true if the events are delivered after the commit of the command.
+     */
+    boolean async() default false;
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.component.anotation;
+
+/**
+ * Defines how the snapshot of the aggregate root is written to the database.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+public enum SnapshotMode {
+    /**
+     * The snapshot is written in the transaction of the command.
+     */
+    SYNC,
+    /**
+     * The committed state is handed to a bounded background writer when the transaction of the command, or of
+     * the caller which the command joined, is committed. Snapshots are dropped when the writer can not keep up,
+     * the aggregate root is then restored from an older snapshot and the events.
+     */
+    ASYNC
+}
@@ -16,6 +16,9 @@
 package com.axer.component.engine;
 
 import io.micronaut.core.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Main Event sourcing logic.
@@ -48,4 +51,66 @@ public interface ApplicationService {
     default AggregateId executeCommand(@NonNull Object command, @NonNull Class<?> aggregateRootClass) {
         return executeCommand(command, aggregateRootClass, null);
     }
+
+    /**
+     * Executes the commands in sequence against one aggregate.
+     * The aggregate is restored once, the events of each command are applied in memory before the next
+     * command is executed, and the events of all commands are persisted in one transaction.
+     * The batch stops at the first failing command, the events of the commands before it are persisted.
+     * <p>
+     * The default implementation executes the commands one after another with
+     * {@link #executeCommand(Object, Class, Long)}, so each command is restored and committed on its own.
+     *
+     * @param commands           The commands to execute, in order.
+     * @param aggregateRootClass The class of the aggregate root object.
+     * @param aggregateRootId    if null, new aggregate is wil be created.
+     * @return The result of each executed command and the failure, if any.
+     */
+    default BatchResult executeCommands(@NonNull List<?> commands,
+                                        @NonNull Class<?> aggregateRootClass,
+                                        Long aggregateRootId
+    ) {
+        List<AggregateId> results = new ArrayList<>(commands.size());
+        AggregateId aggregateId = null;
+        Long rootId = aggregateRootId;
+        for (int i = 0; i < commands.size(); i++) {
+            try {
+                aggregateId = executeCommand(commands.get(i), aggregateRootClass, rootId);
+            } catch (RuntimeException e) {
+                return new BatchResult(aggregateId, results, i, e);
+            }
+            results.add(aggregateId);
+            rootId = aggregateId.getId();
+        }
+        return new BatchResult(aggregateId, results, -1, null);
+    }
+
+    /**
+     * Executes a command without blocking the calling thread.
+     * The command is executed with the same semantics as {@link #executeCommand(Object, Class, Long)}.
+     * <p>
+     * The default implementation executes the command on the common fork join pool.
+     *
+     * @param command            The command object to execute.
+     * @param aggregateRootClass The class of the aggregate root object.
+     * @param aggregateRootId    if null, new aggregate is wil be created.
+     * @return The future of the aggregate ID, completed exceptionally with the failure of the command.
+     */
+    default CompletableFuture<AggregateId> executeCommandAsync(@NonNull Object command,
+                                                               @NonNull Class<?> aggregateRootClass,
+                                                               Long aggregateRootId
+    ) {
+        return CompletableFuture.supplyAsync(() -> executeCommand(command, aggregateRootClass, aggregateRootId));
+    }
+
+    /**
+     * Executes a command without blocking the calling thread.
+     *
+     * @param command            The command object to execute.
+     * @param aggregateRootClass The class of the aggregate root object.
+     * @return The future of the aggregate ID of the executed command.
+     */
+    default CompletableFuture<AggregateId> executeCommandAsync(@NonNull Object command, @NonNull Class<?> aggregateRootClass) {
+        return executeCommandAsync(command, aggregateRootClass, null);
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.component.engine;
+
+import java.util.List;
+
+/**
+ * The result of a batch of commands executed against one aggregate.
+ * The batch stops at the first failing command. The events of the commands before the failure are committed,
+ * the failing command and the commands after it are not executed.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+public final class BatchResult {
+    private final AggregateId aggregateId;
+    private final List<AggregateId> results;
+    private final int failedCommandIndex;
+    private final Throwable failure;
+
+    /**
+     * Constructor.
+     *
+     * @param aggregateId        The aggregate id and version after the last executed command
+     * @param results            The aggregate id and version after each executed command
+     * @param failedCommandIndex The index of the failed command, -1 if all commands were executed
+     * @param failure            The failure of the failed command, null if all commands were executed
+     */
+    public BatchResult(AggregateId aggregateId, List<AggregateId> results, int failedCommandIndex, Throwable failure) {
+        this.aggregateId = aggregateId;
+        this.results = results;
+        this.failedCommandIndex = failedCommandIndex;
+        this.failure = failure;
+    }
+
+    public AggregateId getAggregateId() {
+        return aggregateId;
+    }
+
+    /**
+     * @return The aggregate id and version after each executed command, in the order of the commands.
+     */
+    public List<AggregateId> getResults() {
+        return results;
+    }
+
+    public int getFailedCommandIndex() {
+        return failedCommandIndex;
+    }
+
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return true if all commands of the batch were executed.
+     */
+    public boolean isSuccessful() {
+        return failure == null;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.component.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Serializes domain events to the payload of the event record.
+ * Every serializer has a unique format marker which is stored with each event, so events written with a
+ * different serializer stay readable. Implementations must be beans, the serializer of an event type is
+ * selected with {@link com.axer.component.anotation.DomainEvent#serializer()}.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+public interface EventSerializer {
+
+    /**
+     * @return The unique format marker stored with the event.
+     */
+    short getFormat();
+
+    /**
+     * Serializes the event.
+     *
+     * @param event The domain event
+     * @return The serialized event
+     * @throws IOException If the event can not be serialized
+     */
+    byte[] serialize(Object event) throws IOException;
+
+    /**
+     * Deserializes the event.
+     *
+     * @param data      The serialized event
+     * @param eventType The class of the domain event
+     * @return The domain event
+     * @throws IOException If the event can not be deserialized
+     */
+    Object deserialize(byte[] data, Class<?> eventType) throws IOException;
+
+    /**
+     * Deserializes the event directly from a stream, without copying it to an array first.
+     *
+     * @param in        The serialized event
+     * @param eventType The class of the domain event
+     * @return The domain event
+     * @throws IOException If the event can not be deserialized
+     */
+    Object deserialize(InputStream in, Class<?> eventType) throws IOException;
+}
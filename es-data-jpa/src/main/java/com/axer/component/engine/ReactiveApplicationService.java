@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.component.engine;
+
+import io.micronaut.core.annotation.NonNull;
+import org.reactivestreams.Publisher;
+
+/**
+ * Reactive variant of the {@link ApplicationService}.
+ * The command is executed when the returned publisher is subscribed, and the publisher emits the aggregate id
+ * of the executed command or the failure of the command.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+public interface ReactiveApplicationService {
+
+    /**
+     * Executes a command and handles the event sourcing logic.
+     *
+     * @param command            The command object to execute.
+     * @param aggregateRootClass The class of the aggregate root object.
+     * @param aggregateRootId    if null, new aggregate is wil be created.
+     * @return The publisher of the aggregate ID of the executed command.
+     */
+    Publisher<AggregateId> executeCommand(@NonNull Object command,
+                                          @NonNull Class<?> aggregateRootClass,
+                                          Long aggregateRootId
+    );
+
+    /**
+     * Executes a command and handles the event sourcing logic.
+     *
+     * @param command            The command object to execute.
+     * @param aggregateRootClass The class of the aggregate root object.
+     * @return The publisher of the aggregate ID of the executed command.
+     */
+    default Publisher<AggregateId> executeCommand(@NonNull Object command, @NonNull Class<?> aggregateRootClass) {
+        return executeCommand(command, aggregateRootClass, null);
+    }
+}
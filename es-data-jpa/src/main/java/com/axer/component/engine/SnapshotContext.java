@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.component.engine;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * The information passed to the {@link SnapshotPolicy}.
+ * It describes the cost of restoring the aggregate root from its last snapshot, including the events of the
+ * current command, and the snapshot thresholds declared on the aggregate root.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+public final class SnapshotContext {
+    private final Long aggregateId;
+    private final long version;
+    private final long snapshotVersion;
+    private final LocalDateTime snapshotCreated;
+    private final LocalDateTime firstEventCreated;
+    private final long replayedBytes;
+    private final long replayNanos;
+    private final long snapshotAfter;
+    private final long snapshotAfterBytes;
+    private final long snapshotAfterMillis;
+    private final long snapshotMaxAge;
+
+    /**
+     * Constructor.
+     *
+     * @param aggregateId         The aggregate id
+     * @param version             The version of the last event of the current command
+     * @param snapshotVersion     The version of the last snapshot, -1 if there is none
+     * @param snapshotCreated     The time the last snapshot was created, null if there is none
+     * @param firstEventCreated   The time the first event after the last snapshot was created, null if unknown
+     * @param replayedBytes       The size of the events after the last snapshot
+     * @param replayNanos         The time needed to replay the events after the last snapshot
+     * @param snapshotAfter       The snapshotAfter threshold of the aggregate root
+     * @param snapshotAfterBytes  The snapshotAfterBytes threshold of the aggregate root
+     * @param snapshotAfterMillis The snapshotAfterMillis threshold of the aggregate root
+     * @param snapshotMaxAge      The snapshotMaxAge threshold of the aggregate root
+     */
+    public SnapshotContext(Long aggregateId,
+                           long version,
+                           long snapshotVersion,
+                           LocalDateTime snapshotCreated,
+                           LocalDateTime firstEventCreated,
+                           long replayedBytes,
+                           long replayNanos,
+                           long snapshotAfter,
+                           long snapshotAfterBytes,
+                           long snapshotAfterMillis,
+                           long snapshotMaxAge) {
+        this.aggregateId = aggregateId;
+        this.version = version;
+        this.snapshotVersion = snapshotVersion;
+        this.snapshotCreated = snapshotCreated;
+        this.firstEventCreated = firstEventCreated;
+        this.replayedBytes = replayedBytes;
+        this.replayNanos = replayNanos;
+        this.snapshotAfter = snapshotAfter;
+        this.snapshotAfterBytes = snapshotAfterBytes;
+        this.snapshotAfterMillis = snapshotAfterMillis;
+        this.snapshotMaxAge = snapshotMaxAge;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    public LocalDateTime getSnapshotCreated() {
+        return snapshotCreated;
+    }
+
+    public LocalDateTime getFirstEventCreated() {
+        return firstEventCreated;
+    }
+
+    /**
+     * @return The number of events a restore has to replay after the last snapshot.
+     */
+    public long getEventsSinceSnapshot() {
+        return version - snapshotVersion;
+    }
+
+    public long getReplayedBytes() {
+        return replayedBytes;
+    }
+
+    public long getReplayNanos() {
+        return replayNanos;
+    }
+
+    /**
+     * @return The age of the last snapshot, or of the first event if there is no snapshot, so an aggregate which
+     * was never snapshotted ages as well. Null if neither is known.
+     */
+    public Duration getSnapshotAge() {
+        LocalDateTime since = snapshotCreated != null ? snapshotCreated : firstEventCreated;
+        return since == null ? null : Duration.between(since, LocalDateTime.now());
+    }
+
+    public long getSnapshotAfter() {
+        return snapshotAfter;
+    }
+
+    public long getSnapshotAfterBytes() {
+        return snapshotAfterBytes;
+    }
+
+    public long getSnapshotAfterMillis() {
+        return snapshotAfterMillis;
+    }
+
+    public long getSnapshotMaxAge() {
+        return snapshotMaxAge;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.component.engine;
+
+/**
+ * Decides when the snapshot of an aggregate root is written.
+ * The policy is evaluated after every command with the replay cost the next restore of the aggregate root
+ * would have to pay. Implementations must be beans, the policy of an aggregate root is selected with
+ * {@link com.axer.component.anotation.AggregateRoot#snapshotPolicy()}.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+public interface SnapshotPolicy {
+
+    /**
+     * Decides if the snapshot of the aggregate root should be written.
+     *
+     * @param context The replay cost of the aggregate root and the thresholds of the aggregate root
+     * @return true if the snapshot should be written, false otherwise
+     */
+    boolean isSnapshotDue(SnapshotContext context);
+}
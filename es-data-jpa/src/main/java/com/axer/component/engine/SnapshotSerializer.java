@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.component.engine;
+
+import java.io.IOException;
+
+/**
+ * Serializes the state of aggregate roots to snapshots.
+ * Every serializer has a unique format marker which is stored with the snapshot, so snapshots stay readable
+ * when the serializer of an aggregate root changes. Implementations must be beans, the serializer of an
+ * aggregate root is selected with {@link com.axer.component.anotation.AggregateRoot#snapshotSerializer()}.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+public interface SnapshotSerializer {
+
+    /**
+     * @return The unique format marker stored with the snapshot.
+     */
+    short getFormat();
+
+    /**
+     * Serializes the state of the aggregate root.
+     *
+     * @param aggregateRoot The aggregate root
+     * @return The serialized state
+     * @throws IOException If the aggregate root can not be serialized
+     */
+    byte[] serialize(Object aggregateRoot) throws IOException;
+
+    /**
+     * Restores the serialized state into the given aggregate root instance.
+     *
+     * @param data          The serialized state
+     * @param aggregateRoot The aggregate root instance created by the application context
+     * @throws IOException If the state can not be deserialized
+     */
+    void deserialize(byte[] data, Object aggregateRoot) throws IOException;
+}
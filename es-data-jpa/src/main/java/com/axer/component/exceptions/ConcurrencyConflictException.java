@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.component.exceptions;
+
+/**
+ * Thrown when the events of a command could not be appended, because another command appended events to the
+ * same aggregate after the state seen by the command was restored.
+ * The exception is expected under contention, so it does not capture a stack trace.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+public class ConcurrencyConflictException extends EventStoreException {
+    private final Long aggregateId;
+    private final long expectedVersion;
+
+    public ConcurrencyConflictException(Long aggregateId, long expectedVersion) {
+        super("Concurrency conflict on aggregate " + aggregateId + " at version " + expectedVersion, null, false, false);
+        this.aggregateId = aggregateId;
+        this.expectedVersion = expectedVersion;
+    }
+
+    /**
+     * @return The id of the aggregate.
+     */
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    /**
+     * @return The version of the aggregate seen by the command.
+     */
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+}
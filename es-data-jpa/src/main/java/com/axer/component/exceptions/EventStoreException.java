@@ -30,4 +30,8 @@ public class EventStoreException extends RuntimeException {
     public EventStoreException(Throwable cause) {
         super(cause);
     }
+
+    protected EventStoreException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.component.serialization;
+
+import com.axer.component.engine.SnapshotSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.inject.Singleton;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Stores the aggregate root in the binary Smile format compressed with deflate.
+ * Useful for large aggregate roots, where the smaller row outweighs the cost of the compression.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+public class DeflateSnapshotSerializer implements SnapshotSerializer {
+    public static final short FORMAT = 3;
+
+    private final ObjectMapper smileMapper;
+
+    public DeflateSnapshotSerializer(ObjectMapper om) {
+        this.smileMapper = om.copyWith(new SmileFactory());
+    }
+
+    @Override
+    public short getFormat() {
+        return FORMAT;
+    }
+
+    @Override
+    public byte[] serialize(Object aggregateRoot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (OutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+            smileMapper.writeValue(out, aggregateRoot);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public void deserialize(byte[] data, Object aggregateRoot) throws IOException {
+        Inflater inflater = new Inflater();
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(data), inflater)) {
+            smileMapper.readerForUpdating(aggregateRoot).readValue(in);
+        } finally {
+            inflater.end();
+        }
+    }
+}
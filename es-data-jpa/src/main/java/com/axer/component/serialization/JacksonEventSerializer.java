@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.component.serialization;
+
+import com.axer.component.engine.EventSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Base class of the Jackson based event serializers.
+ * The {@link ObjectReader} and {@link ObjectWriter} are resolved once per event class and reused, so the
+ * serializers and deserializers of the event class are not looked up for every event.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+public abstract class JacksonEventSerializer implements EventSerializer {
+    private final ClassValue<ObjectReader> readers;
+    private final ClassValue<ObjectWriter> writers;
+
+    /**
+     * Constructor.
+     *
+     * @param mapper The object mapper of the format
+     */
+    protected JacksonEventSerializer(ObjectMapper mapper) {
+        this.readers = new ClassValue<>() {
+            @Override
+            protected ObjectReader computeValue(Class<?> type) {
+                return mapper.readerFor(type);
+            }
+        };
+        this.writers = new ClassValue<>() {
+            @Override
+            protected ObjectWriter computeValue(Class<?> type) {
+                return mapper.writerFor(type);
+            }
+        };
+    }
+
+    @Override
+    public byte[] serialize(Object event) throws IOException {
+        return writers.get(event.getClass()).writeValueAsBytes(event);
+    }
+
+    @Override
+    public Object deserialize(byte[] data, Class<?> eventType) throws IOException {
+        return readers.get(eventType).readValue(data);
+    }
+
+    @Override
+    public Object deserialize(InputStream in, Class<?> eventType) throws IOException {
+        return readers.get(eventType).readValue(in);
+    }
+}
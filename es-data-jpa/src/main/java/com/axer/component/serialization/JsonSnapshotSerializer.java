@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.component.serialization;
+
+import com.axer.component.engine.SnapshotSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+
+/**
+ * The default snapshot serializer, stores the aggregate root as UTF-8 encoded JSON.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+public class JsonSnapshotSerializer implements SnapshotSerializer {
+    public static final short FORMAT = 1;
+
+    private final ObjectMapper om;
+
+    public JsonSnapshotSerializer(ObjectMapper om) {
+        this.om = om;
+    }
+
+    @Override
+    public short getFormat() {
+        return FORMAT;
+    }
+
+    @Override
+    public byte[] serialize(Object aggregateRoot) throws IOException {
+        return om.writeValueAsBytes(aggregateRoot);
+    }
+
+    @Override
+    public void deserialize(byte[] data, Object aggregateRoot) throws IOException {
+        om.readerForUpdating(aggregateRoot).readValue(data);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.component.serialization;
+
+import com.axer.component.engine.SnapshotSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+
+/**
+ * Stores the aggregate root in the binary Smile format.
+ * Smile uses the same data model as JSON, so the aggregate root needs no additional mapping, but it is
+ * smaller and faster to parse. The mapper is a copy of the application mapper, so the configured modules apply.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+public class SmileSnapshotSerializer implements SnapshotSerializer {
+    public static final short FORMAT = 2;
+
+    private final ObjectMapper smileMapper;
+
+    public SmileSnapshotSerializer(ObjectMapper om) {
+        this.smileMapper = om.copyWith(new SmileFactory());
+    }
+
+    @Override
+    public short getFormat() {
+        return FORMAT;
+    }
+
+    @Override
+    public byte[] serialize(Object aggregateRoot) throws IOException {
+        return smileMapper.writeValueAsBytes(aggregateRoot);
+    }
+
+    @Override
+    public void deserialize(byte[] data, Object aggregateRoot) throws IOException {
+        smileMapper.readerForUpdating(aggregateRoot).readValue(data);
+    }
+}
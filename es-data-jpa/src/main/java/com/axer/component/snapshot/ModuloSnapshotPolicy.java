@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.component.snapshot;
+
+import com.axer.component.engine.SnapshotContext;
+import com.axer.component.engine.SnapshotPolicy;
+import jakarta.inject.Singleton;
+
+/**
+ * The default snapshot policy.
+ * The snapshot is written when the version of the aggregate root is a multiple of the snapshotAfter value.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+public class ModuloSnapshotPolicy implements SnapshotPolicy {
+
+    @Override
+    public boolean isSnapshotDue(SnapshotContext context) {
+        long snapshotAfter = context.getSnapshotAfter();
+        if (snapshotAfter <= 0 || context.getVersion() == 0) {
+            return false;
+        }
+        return context.getVersion() % snapshotAfter == 0;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.component.snapshot;
+
+import com.axer.component.engine.SnapshotContext;
+import com.axer.component.engine.SnapshotPolicy;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+
+/**
+ * Snapshot policy based on the cost of the replay.
+ * The snapshot is written as soon as any of the thresholds declared on the aggregate root is reached:
+ * <ul>
+ *     <li>snapshotAfter - the number of events after the last snapshot</li>
+ *     <li>snapshotAfterBytes - the size of the events after the last snapshot</li>
+ *     <li>snapshotAfterMillis - the time needed to replay the events after the last snapshot</li>
+ *     <li>snapshotMaxAge - the age of the last snapshot in seconds, or of the first event if there is none</li>
+ * </ul>
+ * A threshold of 0 is ignored.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+public class ReplayCostSnapshotPolicy implements SnapshotPolicy {
+
+    @Override
+    public boolean isSnapshotDue(SnapshotContext context) {
+        if (context.getEventsSinceSnapshot() <= 0 || context.getVersion() == 0) {
+            return false;
+        }
+        if (context.getSnapshotAfter() > 0 && context.getEventsSinceSnapshot() >= context.getSnapshotAfter()) {
+            return true;
+        }
+        if (context.getSnapshotAfterBytes() > 0 && context.getReplayedBytes() >= context.getSnapshotAfterBytes()) {
+            return true;
+        }
+        if (context.getSnapshotAfterMillis() > 0
+            && context.getReplayNanos() >= Duration.ofMillis(context.getSnapshotAfterMillis()).toNanos()) {
+            return true;
+        }
+        Duration snapshotAge = context.getSnapshotAge();
+        return context.getSnapshotMaxAge() > 0 && snapshotAge != null
+            && snapshotAge.getSeconds() >= context.getSnapshotMaxAge();
+    }
+}
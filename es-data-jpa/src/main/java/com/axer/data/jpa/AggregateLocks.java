@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes the commands of one aggregate type per aggregate id within this node.
+ * <p>
+ * Each aggregate id with a running or waiting command has a fair lock, so the commands of one aggregate run one
+ * after another in arrival order, while commands of different aggregates run in parallel. The lock entry is
+ * created on demand and removed when the last command of the aggregate releases it, so the map only holds
+ * aggregates with commands in flight.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+final class AggregateLocks {
+    private final Map<Long, Entry> locks = new ConcurrentHashMap<>();
+    private final LongAdder contended = new LongAdder();
+
+    /**
+     * Waits until no other command of the aggregate is running.
+     *
+     * @param aggregateId The aggregate id
+     * @return The permit which has to be closed when the command is finished
+     */
+    Permit acquire(Long aggregateId) {
+        Entry entry = locks.compute(aggregateId, (id, current) -> {
+            Entry next = current != null ? current : new Entry();
+            if (++next.holders > 1) {
+                contended.increment();
+            }
+            return next;
+        });
+        // no tryLock, it would barge ahead of the commands already waiting on the fair lock
+        entry.lock.lock();
+        return new Permit(aggregateId, entry);
+    }
+
+    /**
+     * @return The number of commands which had to wait for another command of the same aggregate
+     */
+    long getContended() {
+        return contended.sum();
+    }
+
+    private void release(Long aggregateId, Entry entry) {
+        entry.lock.unlock();
+        locks.compute(aggregateId, (id, current) -> --current.holders == 0 ? null : current);
+    }
+
+    private static final class Entry {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private int holders;
+    }
+
+    /**
+     * Exclusive right to execute a command of one aggregate.
+     */
+    final class Permit implements AutoCloseable {
+        private final Long aggregateId;
+        private final Entry entry;
+
+        private Permit(Long aggregateId, Entry entry) {
+            this.aggregateId = aggregateId;
+            this.entry = entry;
+        }
+
+        @Override
+        public void close() {
+            release(aggregateId, entry);
+        }
+    }
+}
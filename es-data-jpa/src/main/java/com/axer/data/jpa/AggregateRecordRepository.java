@@ -20,9 +20,11 @@ import com.axer.data.jpa.entities.EntityId;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.data.annotation.Query;
 import io.micronaut.data.annotation.Repository;
+import io.micronaut.data.model.Pageable;
 import io.micronaut.data.repository.GenericRepository;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -41,12 +43,51 @@ public interface AggregateRecordRepository extends GenericRepository<AggregateRe
     @NonNull
     AggregateRecord save(@Valid @NotNull @NonNull AggregateRecord entity);
 
+    /**
+     * Saves all given entities, possibly returning new instances representing the saved state.
+     *
+     * @param entities The entities to save. Must not be {@literal null}.
+     * @return The saved entities objects. will never be {@literal null}.
+     */
+    @NonNull
+    Iterable<AggregateRecord> saveAll(@Valid @NotNull @NonNull Iterable<AggregateRecord> entities);
+
     /**
      * This method returns last snapshot.
      *
      * @param aggregateId Aggregate id
-     * @return Aggregate record with JSON representation of the AggregateRoot.
+     * @return Aggregate record with the serialized state of the AggregateRoot.
+     */
+    default Optional<AggregateRecord> findLastSnapshotFor(@NonNull Long aggregateId) {
+        return findFirstByAggregateIdOrderByVersionDesc(aggregateId);
+    }
+
+    /**
+     * Returns the snapshot with the highest version, read with a limit of one row from the backward scan of
+     * the primary key.
+     *
+     * @param aggregateId Aggregate id
+     * @return Aggregate record with the serialized state of the AggregateRoot.
+     */
+    Optional<AggregateRecord> findFirstByAggregateIdOrderByVersionDesc(@NonNull Long aggregateId);
+
+    /**
+     * Returns the versions of the snapshots of the aggregate, from the newest.
+     *
+     * @param aggregateId Aggregate id
+     * @param pageable    The page of the versions
+     * @return The versions of the snapshots
+     */
+    @Query("SELECT ag.version FROM AggregateRecord ag WHERE ag.aggregateId = :aggregateId order by ag.version desc")
+    List<Long> findSnapshotVersions(@NonNull Long aggregateId, Pageable pageable);
+
+    /**
+     * Deletes the snapshots of the aggregate older than the given version.
+     *
+     * @param aggregateId Aggregate id
+     * @param version     The version of the oldest kept snapshot
+     * @return The number of deleted snapshots
      */
-    @Query("FROM AggregateRecord ag WHERE ag.aggregateId = :aggregateId order by ag.version desc")
-    Optional<AggregateRecord> findLastSnapshotFor(@NonNull Long aggregateId);
+    @Query("DELETE FROM AggregateRecord ag WHERE ag.aggregateId = :aggregateId and ag.version < :version")
+    int deleteSnapshotsBefore(@NonNull Long aggregateId, long version);
 }
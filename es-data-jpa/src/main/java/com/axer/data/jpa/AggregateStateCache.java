@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of the last committed aggregate states, keyed by aggregate id.
+ * <p>
+ * A cached state is handed out to exactly one command: {@link #checkout(Long)} removes the entry, so the
+ * aggregate root instance is never shared between threads. After the command is committed the new state is
+ * put back with {@link #checkin(Long, Object, long, ReplayStats)}. The least recently used entries are evicted when the
+ * cache is full, and entries older than the time to live are discarded on checkout.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+final class AggregateStateCache {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, CachedState> states;
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize    The maximum number of cached aggregates
+     * @param ttlSeconds The number of seconds an entry stays valid, 0 means no expiration
+     */
+    AggregateStateCache(int maxSize, long ttlSeconds) {
+        this.ttlNanos = ttlSeconds > 0 ? TimeUnit.SECONDS.toNanos(ttlSeconds) : 0;
+        this.states = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedState> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Removes and returns the cached state of the aggregate.
+     *
+     * @param aggregateId The aggregate id
+     * @return The cached state, or null if the aggregate is not cached or the entry has expired
+     */
+    CachedState checkout(Long aggregateId) {
+        CachedState state;
+        lock.lock();
+        try {
+            state = states.remove(aggregateId);
+        } finally {
+            lock.unlock();
+        }
+        if (state == null || (ttlNanos > 0 && System.nanoTime() - state.cachedAt > ttlNanos)) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return state;
+    }
+
+    /**
+     * Puts the committed state of the aggregate to the cache, unless a newer state is already cached.
+     *
+     * @param aggregateId   The aggregate id
+     * @param aggregateRoot The aggregate root with all committed events applied
+     * @param version       The version of the last applied event
+     * @param replayStats   The replay cost of the aggregate root since its last snapshot
+     */
+    void checkin(Long aggregateId, Object aggregateRoot, long version, ReplayStats replayStats) {
+        CachedState state = new CachedState(aggregateRoot, version, replayStats, System.nanoTime());
+        lock.lock();
+        try {
+            states.merge(aggregateId, state, (current, next) -> current.version >= next.version ? current : next);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of checkouts that found a valid cached state
+     */
+    long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of checkouts that had to fall back to a full restore
+     */
+    long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Committed state of one aggregate.
+     *
+     * @param aggregateRoot The aggregate root instance
+     * @param version       The version of the last applied event
+     * @param replayStats   The replay cost of the aggregate root since its last snapshot
+     * @param cachedAt      The {@link System#nanoTime()} when the state was cached
+     */
+    record CachedState(Object aggregateRoot, long version, ReplayStats replayStats, long cachedAt) {
+    }
+}
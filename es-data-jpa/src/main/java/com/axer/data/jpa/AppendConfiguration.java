@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+/**
+ * Configuration of the append path of the event records.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@ConfigurationProperties("eventstore.append")
+public class AppendConfiguration {
+    private boolean jdbcBatch = true;
+    private int batchSize = 50;
+    private int positionBlockSize = 100;
+
+    /**
+     * Gets if the event records are inserted with JDBC batches instead of the persistence context.
+     *
+     * @return true if the event records are inserted with JDBC batches
+     */
+    public boolean isJdbcBatch() {
+        return jdbcBatch;
+    }
+
+    /**
+     * Sets if the event records are inserted with JDBC batches instead of the persistence context.
+     *
+     * @param jdbcBatch true if the event records are inserted with JDBC batches
+     */
+    public void setJdbcBatch(boolean jdbcBatch) {
+        this.jdbcBatch = jdbcBatch;
+    }
+
+    /**
+     * Gets the maximum number of event records sent to the database in one JDBC batch.
+     *
+     * @return The batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the maximum number of event records sent to the database in one JDBC batch.
+     *
+     * @param batchSize The batch size
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gets the number of global positions a node reserves at once.
+     *
+     * @return The position block size
+     */
+    public int getPositionBlockSize() {
+        return positionBlockSize;
+    }
+
+    /**
+     * Sets the number of global positions a node reserves at once.
+     *
+     * @param positionBlockSize The position block size
+     */
+    public void setPositionBlockSize(int positionBlockSize) {
+        this.positionBlockSize = positionBlockSize;
+    }
+}
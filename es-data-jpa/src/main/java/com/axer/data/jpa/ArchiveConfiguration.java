@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+
+/**
+ * Configuration of the archival of old events.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@ConfigurationProperties("eventstore.archive")
+public class ArchiveConfiguration {
+    private boolean enabled;
+    private Duration minAge = Duration.ofDays(30);
+    private int batchSize = 100;
+
+    /**
+     * Gets if old events are moved to the archive.
+     *
+     * @return true if the archival is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets if old events are moved to the archive.
+     *
+     * @param enabled true if the archival is enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the age after which an event covered by a snapshot is archived.
+     *
+     * @return The minimum age of the archived events
+     */
+    public Duration getMinAge() {
+        return minAge;
+    }
+
+    /**
+     * Sets the age after which an event covered by a snapshot is archived.
+     *
+     * @param minAge The minimum age of the archived events
+     */
+    public void setMinAge(Duration minAge) {
+        this.minAge = minAge;
+    }
+
+    /**
+     * Gets the maximum number of aggregates archived in one run.
+     *
+     * @return The batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the maximum number of aggregates archived in one run.
+     *
+     * @param batchSize The batch size
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.data.jpa.entities.ArchivedEvents;
+import com.axer.data.jpa.entities.EntityId;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.annotation.Repository;
+import io.micronaut.data.repository.GenericRepository;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * ArchivedEventsRepository.
+ */
+@Repository
+public interface ArchivedEventsRepository extends GenericRepository<ArchivedEvents, EntityId> {
+
+    /**
+     * Returns the archived chunks of the given aggregate which contain events with a version higher than the
+     * given version, ordered by version.
+     *
+     * @param aggregateId The id of the aggregate
+     * @param version     The version after which the events are needed
+     * @return The archived chunks
+     */
+    @Query("SELECT ae FROM ArchivedEvents ae WHERE ae.aggregateId = :aggregateId and ae.version > :version ORDER BY ae.version")
+    List<ArchivedEvents> findChunksAfter(Long aggregateId, long version);
+
+    /**
+     * Saves the given valid entity.
+     *
+     * @param entity The entity to save. Must not be {@literal null}.
+     * @return The saved entity will never be {@literal null}.
+     */
+    @NonNull
+    ArchivedEvents save(@Valid @NotNull @NonNull ArchivedEvents entity);
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.scheduling.TaskExecutors;
+
+/**
+ * Configuration of the asynchronous command execution.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@ConfigurationProperties("eventstore.async")
+public class AsyncConfiguration {
+    private String executor = TaskExecutors.VIRTUAL;
+    private int maxConcurrency = 10;
+
+    /**
+     * Gets the name of the executor which runs the asynchronous commands.
+     *
+     * @return The executor name
+     */
+    public String getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the name of the executor which runs the asynchronous commands.
+     *
+     * @param executor The executor name
+     */
+    public void setExecutor(String executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the maximum number of asynchronous commands executed at the same time. Should not be higher than the
+     * size of the connection pool, the default matches the default Hikari pool size.
+     *
+     * @return The maximum number of concurrent commands
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of asynchronous commands executed at the same time.
+     *
+     * @param maxConcurrency The maximum number of concurrent commands
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+}
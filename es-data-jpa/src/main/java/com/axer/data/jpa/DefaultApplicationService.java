@@ -16,32 +16,57 @@
 package com.axer.data.jpa;
 
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.axer.component.anotation.AggregateRoot;
 import com.axer.component.anotation.CommandProcessor;
-import com.axer.component.anotation.DomainEvent;
 import com.axer.component.anotation.EventHandler;
 import com.axer.component.anotation.EventProcessor;
 import com.axer.component.anotation.ProjectionBuilder;
+import com.axer.component.anotation.SnapshotMode;
 import com.axer.component.engine.AggregateId;
 import com.axer.component.engine.ApplicationService;
+import com.axer.component.engine.BatchResult;
+import com.axer.component.engine.EventSerializer;
+import com.axer.component.engine.SnapshotContext;
+import com.axer.component.engine.SnapshotPolicy;
+import com.axer.component.engine.SnapshotSerializer;
+import com.axer.component.exceptions.ConcurrencyConflictException;
 import com.axer.component.exceptions.EventStoreException;
 import com.axer.component.exceptions.MissingEventHandlerAnnotationException;
 import com.axer.component.exceptions.MissingSyncHandlerAnnotationException;
+import com.axer.component.serialization.JsonSnapshotSerializer;
+import com.axer.component.snapshot.ModuloSnapshotPolicy;
 import com.axer.data.jpa.entities.AggregateRecord;
 import com.axer.data.jpa.entities.EntityId;
 import com.axer.data.jpa.entities.EventRecord;
 import io.micronaut.context.ApplicationContext;
-import io.micronaut.core.annotation.AnnotationValue;
+import io.micronaut.context.exceptions.ConfigurationException;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.inject.BeanDefinition;
 import io.micronaut.inject.ExecutableMethod;
 import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.transaction.TransactionOperations;
+import io.micronaut.transaction.TransactionStatus;
 import io.micronaut.transaction.annotation.Transactional;
+import io.micronaut.transaction.support.TransactionSynchronization;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
 
 /**
  * Default implementation of the Application Service.
@@ -51,12 +76,33 @@ import java.util.*;
  */
 @Singleton
 public class DefaultApplicationService implements ApplicationService {
-    final Map<String, Class<?>> events = new HashMap<>();
+    private static final String UNIQUE_VIOLATION = "23505";
+    /**
+     * The primary key of event_record, aggregate_record and their partitions as named by PostgreSQL
+     * ("event_record_pkey", "event_record_h3_pkey") or H2 ("PUBLIC.PRIMARY_KEY_8 ON PUBLIC.EVENT_RECORD(...)").
+     */
+    private static final Pattern VERSION_KEY =
+        Pattern.compile("\\b(?:event_record|aggregate_record)\\w*_pkey\\b|primary[ _]key\\w* on [\\w.]*\\b(?:event_record|aggregate_record)\\(");
+    final Map<Class<?>, AggregateInfo> aggregates = new ConcurrentHashMap<>();
+    final Map<Short, SnapshotSerializer> snapshotSerializers = new HashMap<>();
     private final EventRecordRepository repository;
     private final ObjectMapper om;
     private final ApplicationContext beanContext;
-    private final AggregateRecordRepository aggregateRecordRepository;
-    private SyncProjectionInfo syncProjectionInfo;
+    private final EventStore eventStore;
+    private final SnapshotWriter snapshotWriter;
+    private final EventTypeRegistry eventTypes;
+    private final AsyncConfiguration asyncConfiguration;
+    private final Semaphore asyncPermits;
+    private final RetryConfiguration retryConfiguration;
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder retriesExhausted = new LongAdder();
+    private final LongAdder groupIsolated = new LongAdder();
+    private final GroupCommitter groupCommitter;
+    private final ProjectionDispatcher projectionDispatcher;
+    private final List<TransactionOperations<?>> transactionOperations;
+    private volatile ExecutorService asyncExecutor;
+    private final List<SyncProjectionInfo> syncProjections = new ArrayList<>();
 
     /**
      * Constructor.
@@ -64,16 +110,39 @@ public class DefaultApplicationService implements ApplicationService {
      * @param repository          EventRecordRepository
      * @param om                  ObjectMapper
      * @param beanContext         ApplicationContext
-     * @param aggregateRecordRepository AggregateRecordRepository
+     * @param eventStore          EventStore
+     * @param snapshotWriter      SnapshotWriter
+     * @param eventTypes          EventTypeRegistry
+     * @param asyncConfiguration  AsyncConfiguration
+     * @param retryConfiguration  RetryConfiguration
+     * @param groupCommitConfiguration GroupCommitConfiguration
+     * @param projectionDispatcher ProjectionDispatcher
+     * @param transactionOperations The transaction managers
      */
     public DefaultApplicationService(EventRecordRepository repository,
                                      ObjectMapper om,
                                      ApplicationContext beanContext,
-                                     AggregateRecordRepository aggregateRecordRepository) {
+                                     EventStore eventStore,
+                                     SnapshotWriter snapshotWriter,
+                                     EventTypeRegistry eventTypes,
+                                     AsyncConfiguration asyncConfiguration,
+                                     RetryConfiguration retryConfiguration,
+                                     GroupCommitConfiguration groupCommitConfiguration,
+                                     ProjectionDispatcher projectionDispatcher,
+                                     List<TransactionOperations<?>> transactionOperations) {
         this.repository = repository;
         this.om = om;
         this.beanContext = beanContext;
-        this.aggregateRecordRepository = aggregateRecordRepository;
+        this.eventStore = eventStore;
+        this.snapshotWriter = snapshotWriter;
+        this.eventTypes = eventTypes;
+        this.asyncConfiguration = asyncConfiguration;
+        this.asyncPermits = new Semaphore(Math.max(1, asyncConfiguration.getMaxConcurrency()), true);
+        this.retryConfiguration = retryConfiguration;
+        this.groupCommitter = groupCommitConfiguration.isEnabled()
+            ? new GroupCommitter(groupCommitConfiguration, this::commitGroup) : null;
+        this.projectionDispatcher = projectionDispatcher;
+        this.transactionOperations = transactionOperations;
     }
 
     /**
@@ -83,199 +152,927 @@ public class DefaultApplicationService implements ApplicationService {
      * @param aggregateRootClass What object has to be restored from the events to be able to execute business logic and create new event(s).
      * @param aggregateRootId    if null, new aggregate is wil be created.
      * @return Existing or new aggregate id.
+     * @throws ConcurrencyConflictException if the command failed on a concurrency conflict in every attempt
      * @throws EventStoreException EventStoreException
      */
     @Override
     public AggregateId executeCommand(@NonNull Object command, @NonNull Class<?> aggregateRootClass, Long aggregateRootId) throws EventStoreException {
-        try {
-            return executeCommandInternal(command, aggregateRootClass, aggregateRootId);
-        } catch (Throwable e) {
-            if (e.getMessage() != null && e.getMessage().contains("ConstraintViolationException")) {
-                throw new EventStoreException("OptimisticLockingException");
+        AggregateInfo aggregateInfo = getAggregateInfo(aggregateRootClass);
+        try (AggregateLocks.Permit ignored = acquireAggregate(aggregateInfo, aggregateRootId)) {
+            AggregateStateCache.CachedState cachedState = checkoutState(aggregateInfo, aggregateRootId);
+            boolean joined = currentTransaction() != null;
+            int maxAttempts = getMaxAttempts(joined);
+            // a command in the transaction of the caller can not be committed in the transaction of a group
+            if (groupCommitter != null && !joined) {
+                AttemptInfo attemptInfo = new AttemptInfo();
+                CommitInfo commitInfo = executeInGroup(command, aggregateInfo, cachedState, aggregateRootId, attemptInfo);
+                if (commitInfo != null) {
+                    afterCommit(aggregateInfo, commitInfo);
+                    return commitInfo.getAggregateId();
+                }
+                if (attemptInfo.stateInfo != null) {
+                    cachedState = toCachedState(attemptInfo.stateInfo);
+                }
+            }
+            for (int attempt = 1; ; attempt++) {
+                AttemptInfo attemptInfo = new AttemptInfo();
+                CommitInfo commitInfo;
+                try {
+                    commitInfo = executeCommandInternal(command, aggregateInfo, cachedState, aggregateRootId, attemptInfo);
+                } catch (Throwable e) {
+                    cachedState = prepareRetry(e, aggregateRootId, attemptInfo, attempt, maxAttempts, true);
+                    continue;
+                }
+                return commitInfo.getAggregateId();
+            }
+        }
+    }
+
+    /**
+     * Executes the command on the configured executor, virtual threads by default.
+     * The number of commands executed at the same time is limited by {@code eventstore.async.max-concurrency},
+     * so that waiting commands park on the executor instead of exhausting the connection pool.
+     * The command path blocks only on {@link java.util.concurrent.locks.Lock} implementations and JDBC, so the
+     * virtual threads are not pinned to their carrier threads by the event store itself. Pinning in the JDBC
+     * driver can be checked with {@code -Djdk.tracePinnedThreads=short}.
+     *
+     * @param command            Command object.
+     * @param aggregateRootClass What object has to be restored from the events to be able to execute business logic and create new event(s).
+     * @param aggregateRootId    if null, new aggregate is wil be created.
+     * @return The future of the existing or new aggregate id.
+     */
+    @Override
+    public CompletableFuture<AggregateId> executeCommandAsync(@NonNull Object command,
+                                                              @NonNull Class<?> aggregateRootClass,
+                                                              Long aggregateRootId) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                asyncPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new EventStoreException(e);
+            }
+            try {
+                return executeCommand(command, aggregateRootClass, aggregateRootId);
+            } finally {
+                asyncPermits.release();
+            }
+        }, getAsyncExecutor());
+    }
+
+    /**
+     * Resolves the executor of the asynchronous commands by its name on first use.
+     * Without a bean for the virtual executor a virtual thread per task executor is created.
+     *
+     * @return The executor of the asynchronous commands
+     */
+    private ExecutorService getAsyncExecutor() {
+        ExecutorService executor = asyncExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = asyncExecutor;
+                if (executor == null) {
+                    String name = asyncConfiguration.getExecutor();
+                    executor = beanContext.findBean(ExecutorService.class, Qualifiers.byName(name))
+                        .orElseGet(() -> {
+                            if (TaskExecutors.VIRTUAL.equals(name)) {
+                                return Executors.newVirtualThreadPerTaskExecutor();
+                            }
+                            throw new ConfigurationException("No executor named " + name);
+                        });
+                    asyncExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Executes the commands in sequence against one aggregate in a single transaction.
+     *
+     * @param commands           Command objects, in order.
+     * @param aggregateRootClass What object has to be restored from the events to be able to execute business logic and create new event(s).
+     * @param aggregateRootId    if null, new aggregate is wil be created.
+     * @return The result of each executed command and the failure, if any.
+     * @throws EventStoreException EventStoreException
+     */
+    @Override
+    public BatchResult executeCommands(@NonNull List<?> commands, @NonNull Class<?> aggregateRootClass, Long aggregateRootId) throws EventStoreException {
+        AggregateInfo aggregateInfo = getAggregateInfo(aggregateRootClass);
+        try (AggregateLocks.Permit ignored = acquireAggregate(aggregateInfo, aggregateRootId)) {
+            AggregateStateCache.CachedState cachedState = checkoutState(aggregateInfo, aggregateRootId);
+            int maxAttempts = getMaxAttempts(currentTransaction() != null);
+            for (int attempt = 1; ; attempt++) {
+                AttemptInfo attemptInfo = new AttemptInfo();
+                BatchCommitInfo commitInfo;
+                try {
+                    commitInfo = executeCommandsInternal(commands, aggregateInfo, cachedState, aggregateRootId, attemptInfo);
+                } catch (Throwable e) {
+                    cachedState = prepareRetry(e, aggregateRootId, attemptInfo, attempt, maxAttempts, false);
+                    continue;
+                }
+                return commitInfo.getBatchResult();
             }
-            throw new EventStoreException(e);
         }
     }
 
     /**
-     * Initialization method, annotated with {@link PostConstruct}, which retrieves domain event
+     * Initialization method, annotated with {@link PostConstruct}, which retrieves aggregate root
      * definitions and synchronous projection definitions from the application context.
+     * Domain event definitions are resolved by the {@link EventTypeRegistry}.
+     * <p>
+     * Snapshot serializers are stored in a map by their format marker.
      * <p>
-     * For each domain event definition, the event name is retrieved from the {@link DomainEvent}
-     * annotation and stored in a map.
+     * For each aggregate root definition, the {@link EventHandler} and {@link CommandProcessor} methods
+     * and the snapshot settings are resolved once and stored in a map, so that the command path only
+     * does a single lookup.
      * <p>
      * For each synchronous projection definition, the projection object is retrieved from the
-     * application context and stored in a map. The event processor method is retrieved from the
-     * projection bean definition and stored in the map as well.
+     * application context and stored in a list. The event processor method is retrieved from the
+     * projection bean definition and stored in the list as well. Asynchronous projections are registered
+     * with the {@link ProjectionDispatcher}.
      */
     @PostConstruct
     protected void init() {
-        // Retrieve domain event definitions
-        Collection<BeanDefinition<?>> domainEventDefinitions = beanContext.getBeanDefinitions(Qualifiers.byStereotype(DomainEvent.class));
-        domainEventDefinitions.forEach(definition -> {
-            AnnotationValue<DomainEvent> domainEventAnnotation = definition.getAnnotationMetadata().getAnnotation(DomainEvent.class);
-            if (domainEventAnnotation != null) {
-                String eventName = domainEventAnnotation.stringValue("value")
-                        .orElse(definition.getBeanType().getSimpleName());
-                events.put(eventName, definition.getBeanType());
-            }
-        });
+        // Retrieve snapshot serializers
+        beanContext.getBeansOfType(SnapshotSerializer.class)
+            .forEach(serializer -> snapshotSerializers.put(serializer.getFormat(), serializer));
 
-        // Retrieve synchronous projection definitions
-        Collection<BeanDefinition<?>> projectionDefinitions = beanContext.getBeanDefinitions(Qualifiers.byStereotype(ProjectionBuilder.class));
-        if (projectionDefinitions.size() > 1) {
-            throw new RuntimeException("Multiple synchronous projection classes found");
-        }
+        // Retrieve aggregate root definitions
+        Collection<BeanDefinition<?>> aggregateDefinitions = beanContext.getBeanDefinitions(Qualifiers.byStereotype(AggregateRoot.class));
+        aggregateDefinitions.forEach(definition -> aggregates.put(definition.getBeanType(), prepareAggregateInfo(definition)));
 
-        // Initialize synchronous projection information
+        // Retrieve projection definitions
+        Collection<BeanDefinition<?>> projectionDefinitions = beanContext.getBeanDefinitions(Qualifiers.byStereotype(ProjectionBuilder.class));
         for (BeanDefinition<?> projectionDefinition : projectionDefinitions) {
             Object projectionObject = beanContext.getBean(projectionDefinition);
             BeanDefinition<?> projectionBeanDefinition = beanContext.getBeanDefinition(projectionDefinition.getBeanType());
             Collection<? extends ExecutableMethod<?, ?>> projectionMethods = projectionBeanDefinition.getExecutableMethods();
             ExecutableMethod<Object, Object> eventProcessorMethod = getEventProcessorMethod(projectionMethods);
-            syncProjectionInfo = new SyncProjectionInfo(projectionObject, eventProcessorMethod);
+            String name = projectionDefinition.getBeanType().getName();
+            if (projectionDefinition.booleanValue(ProjectionBuilder.class, "async").orElse(false)) {
+                projectionDispatcher.register(name, projectionObject, eventProcessorMethod);
+            } else {
+                // Initialize synchronous projection information
+                syncProjections.add(new SyncProjectionInfo(projectionObject, eventProcessorMethod, new ProjectionStats(name, false)));
+            }
+        }
+    }
+
+    /**
+     * Decides if a failed command is retried. Only concurrency conflicts on existing aggregate roots are retried,
+     * up to the configured number of attempts and after a randomized exponential backoff.
+     * The retry continues from the state seen by the failed attempt, so only the events appended by the
+     * conflicting commands are loaded. The state can not be reused if the events of the failed attempt were
+     * already applied to it, the retry then restores the state from the event store.
+     *
+     * @param failure         The failure of the attempt
+     * @param aggregateRootId The ID of the aggregate root, or null for a new aggregate root
+     * @param attemptInfo     The state seen by the failed attempt
+     * @param attempt         The number of the failed attempt, starting with 1
+     * @param maxAttempts     The maximum number of attempts of the command
+     * @param stateReusable   true if the state seen by the failed attempt is unchanged
+     * @return The state to continue from, or null if the state has to be restored
+     * @throws EventStoreException if the command is not retried
+     */
+    private AggregateStateCache.CachedState prepareRetry(Throwable failure,
+                                                         Long aggregateRootId,
+                                                         AttemptInfo attemptInfo,
+                                                         int attempt,
+                                                         int maxAttempts,
+                                                         boolean stateReusable) {
+        if (!isConcurrencyConflict(failure)) {
+            throw new EventStoreException(failure);
+        }
+        conflicts.increment();
+        StateInfo stateInfo = attemptInfo.stateInfo;
+        long expectedVersion = stateInfo != null ? stateInfo.getEventEntityId().getVersion() : -1;
+        if (aggregateRootId == null || attempt >= maxAttempts) {
+            if (aggregateRootId != null && maxAttempts > 1) {
+                retriesExhausted.increment();
+            }
+            throw new ConcurrencyConflictException(aggregateRootId, expectedVersion);
+        }
+        long backoff = Math.min(retryConfiguration.getMaxBackoff().toNanos(),
+            retryConfiguration.getBackoff().toNanos() << Math.min(attempt - 1, 20));
+        if (backoff > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConcurrencyConflictException(aggregateRootId, expectedVersion);
+            }
+        }
+        retries.increment();
+        if (!stateReusable || stateInfo == null) {
+            return null;
+        }
+        return toCachedState(stateInfo);
+    }
+
+    /**
+     * Gets the maximum number of attempts of a command. A command which joins the transaction of its caller is
+     * not retried, because the conflict rolls back the transaction of the caller.
+     *
+     * @param joined true if the command joins the transaction of its caller
+     * @return The maximum number of attempts
+     */
+    private int getMaxAttempts(boolean joined) {
+        return joined ? 1 : retryConfiguration.getMaxAttempts();
+    }
+
+    /**
+     * @return The status of the current transaction, or null if there is no transaction
+     */
+    private TransactionStatus<?> currentTransaction() {
+        for (TransactionOperations<?> operations : transactionOperations) {
+            TransactionStatus<?> status = operations.findTransactionStatus().orElse(null);
+            if (status != null) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs {@link #afterCommit(AggregateInfo, CommitInfo)} when the current transaction is committed. The
+     * transaction is the transaction of the caller if the command joined it, so nothing of a command which is
+     * rolled back with its caller reaches the state cache, the snapshot writer or the projections.
+     *
+     * @param aggregateInfo The aggregate root information
+     * @param commitInfo    The state and the events of the command
+     */
+    private void afterCommitOf(AggregateInfo aggregateInfo, CommitInfo commitInfo) {
+        TransactionStatus<?> status = currentTransaction();
+        if (status == null) {
+            afterCommit(aggregateInfo, commitInfo);
+            return;
+        }
+        status.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                DefaultApplicationService.this.afterCommit(aggregateInfo, commitInfo);
+            }
+        });
+    }
+
+    private static AggregateStateCache.CachedState toCachedState(StateInfo stateInfo) {
+        return new AggregateStateCache.CachedState(stateInfo.getAggregateRoot(), stateInfo.getEventEntityId().getVersion(),
+            stateInfo.getReplayStats(), System.nanoTime());
+    }
+
+    /**
+     * Checks if the failure is caused by a duplicate version of an event or a snapshot, which means that another
+     * command appended events to the aggregate root in the meantime. Only a unique violation (SQLState 23505) of
+     * the (aggregate_id, version) primary key of event_record or aggregate_record, or of one of their partitions,
+     * is a conflict. Other constraint violations are failures of the command and are not retried. Stores without
+     * a database report the duplicate version with a {@link ConcurrencyConflictException}.
+     *
+     * @param failure The failure of the command
+     * @return true if the failure is a concurrency conflict
+     */
+    static boolean isConcurrencyConflict(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConcurrencyConflictException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException) {
+                for (SQLException e = sqlException; e != null; e = e.getNextException()) {
+                    if (UNIQUE_VIOLATION.equals(e.getSQLState()) && e.getMessage() != null
+                        && VERSION_KEY.matcher(e.getMessage().toLowerCase(Locale.ROOT)).find()) {
+                        return true;
+                    }
+                }
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
         }
+        return false;
     }
 
     /**
      * Internal method to execute command.
      *
-     * @param command            Command object to process
-     * @param aggregateRootClass Class of the aggregate root object
-     * @param aggregateRootId    ID of the aggregate root, if null create a new one
-     * @return Aggregate ID of the processed command
-     * @throws JsonProcessingException If there is an error serializing the event to JSON
+     * @param command         Command object to process
+     * @param aggregateInfo   The aggregate root information
+     * @param cachedState     The cached state of the aggregate root, or null if the state has to be restored
+     * @param aggregateRootId ID of the aggregate root, if null create a new one
+     * @param attemptInfo     Receives the state seen by the command, for the retry after a concurrency conflict
+     * @return The restored state and the events of the processed command
+     * @throws IOException If there is an error serializing or deserializing the events and snapshots
      */
     @Transactional
-    protected AggregateId executeCommandInternal(@NonNull Object command,
-                                                 @NonNull Class<?> aggregateRootClass,
-                                                 Long aggregateRootId) throws JsonProcessingException {
-        AggregateInfo aggregateInfo = prepareAggregateInfo(aggregateRootClass);
-        StateInfo stateInfo = restoreAggregateState(aggregateInfo, aggregateRootId);
-        List<?> events = (List<?>) aggregateInfo.executeCommandMethod.invoke(aggregateInfo.aggregateRoot, command);
+    protected CommitInfo executeCommandInternal(@NonNull Object command,
+                                                @NonNull AggregateInfo aggregateInfo,
+                                                AggregateStateCache.CachedState cachedState,
+                                                Long aggregateRootId,
+                                                AttemptInfo attemptInfo) throws IOException {
+        StateInfo stateInfo = cachedState != null
+            ? catchUpAggregateState(aggregateInfo, aggregateRootId, cachedState)
+            : restoreAggregateState(aggregateInfo, aggregateRootId);
+        attemptInfo.stateInfo = stateInfo;
+        List<?> events = (List<?>) aggregateInfo.executeCommandMethod.invoke(stateInfo.getAggregateRoot(), command);
+        List<EventRecord> eventRecords = new ArrayList<>();
+        CommitInfo commitInfo = prepareCommit(aggregateInfo, stateInfo, events, eventRecords);
+        eventStore.append(eventRecords, projectionDispatcher.isEnabled());
+        afterCommitOf(aggregateInfo, commitInfo);
+        return commitInfo;
+    }
+
+    /**
+     * Internal method to execute the commands of a group in one transaction.
+     * The commands of the group belong to different aggregate roots. A command which throws an exception is
+     * recorded as failed and the other commands are committed, any other failure rolls back the whole group.
+     * The state seen by each command is recorded, so a conflicting command can be found after the rollback.
+     * The events of all commands are persisted with a single batched insert.
+     *
+     * @param group The commands of the group
+     * @return The restored state and the events of each command, null for the failed commands
+     * @throws IOException If there is an error serializing or deserializing the events and snapshots
+     */
+    @Transactional
+    protected List<CommitInfo> executeGroupInternal(@NonNull List<GroupCommitter.GroupMember> group) throws IOException {
+        List<CommitInfo> commits = new ArrayList<>(group.size());
+        List<EventRecord> eventRecords = new ArrayList<>();
+        for (GroupCommitter.GroupMember member : group) {
+            AggregateInfo aggregateInfo = member.getAggregateInfo();
+            StateInfo stateInfo;
+            List<?> events;
+            try {
+                stateInfo = member.getCachedState() != null
+                    ? catchUpAggregateState(aggregateInfo, member.getAggregateRootId(), member.getCachedState())
+                    : restoreAggregateState(aggregateInfo, member.getAggregateRootId());
+                member.getAttemptInfo().stateInfo = stateInfo;
+                events = (List<?>) aggregateInfo.executeCommandMethod.invoke(stateInfo.getAggregateRoot(), member.getCommand());
+            } catch (RuntimeException e) {
+                member.fail(e);
+                commits.add(null);
+                continue;
+            }
+            commits.add(prepareCommit(aggregateInfo, stateInfo, events, eventRecords));
+        }
+        eventStore.append(eventRecords, projectionDispatcher.isEnabled());
+        return commits;
+    }
+
+    /**
+     * Prepares the commit of the events of one command: serializes the events, saves the snapshot if it is due
+     * and syncs the events to the projection.
+     *
+     * @param aggregateInfo The aggregate root information
+     * @param stateInfo     The state of the aggregate root seen by the command
+     * @param events        The events of the command, or null
+     * @param eventRecords  Receives the event records to insert
+     * @return The restored state and the events of the command
+     * @throws IOException If there is an error serializing the events and snapshots
+     */
+    private CommitInfo prepareCommit(AggregateInfo aggregateInfo,
+                                     StateInfo stateInfo,
+                                     List<?> events,
+                                     List<EventRecord> eventRecords) throws IOException {
         if (events == null) {
             events = Collections.emptyList();
         }
+        List<EventRecord> records = prepareEventRecords(events, stateInfo);
+        EntityId entityId = stateInfo.getEventEntityId();
+        long version = entityId.getVersion() + records.size();
+        long appendedBytes = 0;
+        for (EventRecord eventRecord : records) {
+            appendedBytes += eventRecord.getPayloadSize();
+        }
+        boolean snapshotDue = !records.isEmpty() && isSnapshotDue(aggregateInfo, stateInfo, version, appendedBytes);
+        long snapshotVersion = snapshotDue
+            && saveSnapshot(aggregateInfo, entityId.getAggregateId(), entityId.getVersion(), stateInfo.getAggregateRoot())
+            ? entityId.getVersion() : -1;
+        syncEvents(events, stateInfo);
+        eventRecords.addAll(records);
+        return new CommitInfo(stateInfo, events, new AggregateId(entityId.getAggregateId(), version),
+            appendedBytes, snapshotDue, snapshotVersion, false);
+    }
+
+    /**
+     * Commits a group of commands and hands the result to the waiting callers.
+     * If the group fails on a concurrency conflict, the commands whose aggregate root got new events in the
+     * meantime are committed alone by their callers and the other commands are executed again in a smaller group.
+     * If the failure can not be assigned to a command, every command of the group is committed alone.
+     * The committed group is counted before the callers are woken up.
+     *
+     * @param group The commands of the group
+     */
+    private void commitGroup(List<GroupCommitter.GroupMember> group) {
+        List<GroupCommitter.GroupMember> members = group;
+        while (true) {
+            List<CommitInfo> commits;
+            try {
+                commits = executeGroupInternal(members);
+            } catch (Throwable e) {
+                List<GroupCommitter.GroupMember> conflicting = isConcurrencyConflict(e)
+                    ? findConflictingMembers(members) : Collections.emptyList();
+                if (conflicting.isEmpty()) {
+                    members.forEach(GroupCommitter.GroupMember::isolate);
+                    return;
+                }
+                groupIsolated.add(conflicting.size());
+                conflicting.forEach(GroupCommitter.GroupMember::isolate);
+                List<GroupCommitter.GroupMember> remaining = new ArrayList<>(members.size());
+                for (GroupCommitter.GroupMember member : members) {
+                    if (conflicting.contains(member)) {
+                        continue;
+                    }
+                    if (member.getFailure() != null) {
+                        member.getResult().completeExceptionally(new EventStoreException(member.getFailure()));
+                    } else {
+                        // the rolled back attempt applied the newer events to the cached aggregate root in place
+                        StateInfo stateInfo = member.getAttemptInfo().stateInfo;
+                        member.reset(stateInfo != null ? toCachedState(stateInfo) : member.getCachedState());
+                        remaining.add(member);
+                    }
+                }
+                if (remaining.isEmpty()) {
+                    return;
+                }
+                members = remaining;
+                continue;
+            }
+            int committed = 0;
+            for (GroupCommitter.GroupMember member : members) {
+                if (member.getFailure() == null) {
+                    committed++;
+                }
+            }
+            groupCommitter.committed(committed);
+            for (int i = 0; i < members.size(); i++) {
+                GroupCommitter.GroupMember member = members.get(i);
+                if (member.getFailure() != null) {
+                    member.getResult().completeExceptionally(new EventStoreException(member.getFailure()));
+                } else {
+                    member.getResult().complete(commits.get(i));
+                }
+            }
+            return;
+        }
+    }
+
+    /**
+     * Finds the commands of a rolled back group whose aggregate root got events after the state seen by the
+     * command, so their events conflict with the committed ones.
+     *
+     * @param group The commands of the rolled back group
+     * @return The conflicting commands, empty if no command could be identified
+     */
+    @Transactional(readOnly = true)
+    protected List<GroupCommitter.GroupMember> findConflictingMembers(@NonNull List<GroupCommitter.GroupMember> group) {
+        List<GroupCommitter.GroupMember> conflicting = new ArrayList<>();
+        for (GroupCommitter.GroupMember member : group) {
+            StateInfo stateInfo = member.getAttemptInfo().stateInfo;
+            if (member.getAggregateRootId() == null || stateInfo == null) {
+                continue;
+            }
+            long version = stateInfo.getEventEntityId().getVersion();
+            try {
+                if (eventStore.readEvents(member.getAggregateRootId(), version, eventRecord -> { }) > version) {
+                    conflicting.add(member);
+                }
+            } catch (IOException e) {
+                return Collections.emptyList();
+            }
+        }
+        return conflicting;
+    }
+
+    /**
+     * Executes the command in the next group, if the group commit is enabled.
+     *
+     * @param command         Command object
+     * @param aggregateInfo   The aggregate root information
+     * @param cachedState     The cached state of the aggregate root, or null if the state has to be restored
+     * @param aggregateRootId ID of the aggregate root, or null for a new aggregate root
+     * @param attemptInfo     Receives the state seen by the command, if the command has to be committed alone
+     * @return The committed state, or null if the command has to be committed alone
+     */
+    private CommitInfo executeInGroup(Object command,
+                                      AggregateInfo aggregateInfo,
+                                      AggregateStateCache.CachedState cachedState,
+                                      Long aggregateRootId,
+                                      AttemptInfo attemptInfo) {
+        GroupCommitter.GroupMember member = new GroupCommitter.GroupMember(command, aggregateInfo, cachedState, aggregateRootId);
+        if (!groupCommitter.submit(member)) {
+            return null;
+        }
+        try {
+            CommitInfo commitInfo = member.getResult().join();
+            attemptInfo.stateInfo = member.getAttemptInfo().stateInfo;
+            return commitInfo;
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof EventStoreException eventStoreException
+                ? eventStoreException : new EventStoreException(e.getCause());
+        }
+    }
+
+    /**
+     * Internal method to execute a batch of commands.
+     * The aggregate root is restored once and the events of each command are applied to it before the next
+     * command is executed. The batch stops at the first command which throws an exception, the events of the
+     * commands before it are persisted with a single insert.
+     * Exceptions of the event handlers are not command failures and roll back the whole batch.
+     *
+     * @param commands        Command objects to process, in order
+     * @param aggregateInfo   The aggregate root information
+     * @param cachedState     The cached state of the aggregate root, or null if the state has to be restored
+     * @param aggregateRootId ID of the aggregate root, if null create a new one
+     * @param attemptInfo     Receives the state seen by the commands, for the retry after a concurrency conflict
+     * @return The state after the last executed command, the events and the result of each executed command
+     * @throws IOException If there is an error serializing or deserializing the events and snapshots
+     */
+    @Transactional
+    protected BatchCommitInfo executeCommandsInternal(@NonNull List<?> commands,
+                                                      @NonNull AggregateInfo aggregateInfo,
+                                                      AggregateStateCache.CachedState cachedState,
+                                                      Long aggregateRootId,
+                                                      AttemptInfo attemptInfo) throws IOException {
+        StateInfo stateInfo = cachedState != null
+            ? catchUpAggregateState(aggregateInfo, aggregateRootId, cachedState)
+            : restoreAggregateState(aggregateInfo, aggregateRootId);
+        attemptInfo.stateInfo = stateInfo;
+        Object aggregateRoot = stateInfo.getAggregateRoot();
+        Long aggregateId = stateInfo.getEventEntityId().getAggregateId();
+        long version = stateInfo.getEventEntityId().getVersion();
+        List<Object> events = new ArrayList<>();
+        List<AggregateId> results = new ArrayList<>(commands.size());
+        int failedIndex = -1;
+        Throwable failure = null;
+        for (int i = 0; i < commands.size(); i++) {
+            List<?> commandEvents;
+            try {
+                commandEvents = (List<?>) aggregateInfo.executeCommandMethod.invoke(aggregateRoot, commands.get(i));
+            } catch (Exception e) {
+                failedIndex = i;
+                failure = e;
+                break;
+            }
+            if (commandEvents != null) {
+                for (Object event : commandEvents) {
+                    aggregateInfo.handlerMethod.invoke(aggregateRoot, event);
+                    events.add(event);
+                }
+                version += commandEvents.size();
+            }
+            results.add(new AggregateId(aggregateId, version));
+        }
         List<EventRecord> eventRecords = prepareEventRecords(events, stateInfo);
-        Long version = eventRecords.getLast().getVersion();
-        saveSnapshot(aggregateInfo, stateInfo, version);
-        if (syncProjectionInfo != null) {
-            syncEvents(syncProjectionInfo, events, stateInfo);
+        long appendedBytes = 0;
+        for (EventRecord eventRecord : eventRecords) {
+            appendedBytes += eventRecord.getPayloadSize();
         }
-        repository.saveAll(eventRecords);
-        return new AggregateId(stateInfo.getEventEntityId().getAggregateId(), version);
+        boolean snapshotDue = !events.isEmpty() && isSnapshotDue(aggregateInfo, stateInfo, version, appendedBytes);
+        long snapshotVersion = snapshotDue && saveSnapshot(aggregateInfo, aggregateId, version, aggregateRoot)
+            ? version : -1;
+        syncEvents(events, stateInfo);
+        eventStore.append(eventRecords, projectionDispatcher.isEnabled());
+        AggregateId lastId = new AggregateId(aggregateId, version);
+        BatchCommitInfo commitInfo = new BatchCommitInfo(stateInfo, events, lastId, appendedBytes, snapshotDue,
+            snapshotVersion, new BatchResult(lastId, results, failedIndex, failure));
+        afterCommitOf(aggregateInfo, commitInfo);
+        return commitInfo;
     }
 
     /**
-     * Save the snapshot of the aggregate root when the condition is met.
-     * The condition is when the number of events since the last snapshot is greater than or equal to the
-     * snapshotAfter value.
+     * @return The number of groups committed by the group commit
+     */
+    public long getGroupCommits() {
+        return groupCommitter != null ? groupCommitter.getGroups() : 0;
+    }
+
+    /**
+     * @return The number of commands committed by the group commit
+     */
+    public long getGroupCommittedCommands() {
+        return groupCommitter != null ? groupCommitter.getMembers() : 0;
+    }
+
+    /**
+     * @return The number of commands taken out of their group because of a concurrency conflict
+     */
+    public long getGroupIsolatedCommands() {
+        return groupIsolated.sum();
+    }
+
+    /**
+     * Stops the group commit. The commands which are still waiting for a group are committed alone.
+     */
+    @PreDestroy
+    void close() {
+        if (groupCommitter != null) {
+            groupCommitter.stop();
+        }
+    }
+
+    /**
+     * @return The number of command attempts which failed on a concurrency conflict
+     */
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    /**
+     * @return The number of retries after a concurrency conflict
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * @return The number of commands which failed on a concurrency conflict in every attempt
+     */
+    public long getRetriesExhausted() {
+        return retriesExhausted.sum();
+    }
+
+    /**
+     * @return The number of commands which continued from the state cache of their aggregate root
+     */
+    public long getStateCacheHits() {
+        long hits = 0;
+        for (AggregateInfo aggregateInfo : aggregates.values()) {
+            if (aggregateInfo.stateCache != null) {
+                hits += aggregateInfo.stateCache.getHits();
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * @return The number of commands which had to restore the state of a cached aggregate root from the store
+     */
+    public long getStateCacheMisses() {
+        long misses = 0;
+        for (AggregateInfo aggregateInfo : aggregates.values()) {
+            if (aggregateInfo.stateCache != null) {
+                misses += aggregateInfo.stateCache.getMisses();
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * @return The number of commands which waited for another command of the same serialized aggregate root
+     */
+    public long getSerializedCommandWaits() {
+        long waits = 0;
+        for (AggregateInfo aggregateInfo : aggregates.values()) {
+            if (aggregateInfo.commandLocks != null) {
+                waits += aggregateInfo.commandLocks.getContended();
+            }
+        }
+        return waits;
+    }
+
+    /**
+     * Gets the aggregate root information from the registry, resolving it on first use if the aggregate root
+     * was not discovered at startup.
+     *
+     * @param aggregateRootClass The class of the aggregate root
+     * @return The aggregate root information
+     */
+    private AggregateInfo getAggregateInfo(Class<?> aggregateRootClass) {
+        return aggregates.computeIfAbsent(aggregateRootClass,
+            clazz -> prepareAggregateInfo(beanContext.getBeanDefinition(clazz)));
+    }
+
+    /**
+     * Waits until no other command of the aggregate root is running on this node, if the aggregate root
+     * serializes its commands. The permit covers the transaction and the update of the state cache, so the next
+     * command of the aggregate root continues from the cached state.
+     *
+     * @param aggregateInfo   The aggregate root information
+     * @param aggregateRootId The ID of the aggregate root, or null for a new aggregate root
+     * @return The permit to close after the command, or null if the command does not have to wait
+     */
+    private AggregateLocks.Permit acquireAggregate(AggregateInfo aggregateInfo, Long aggregateRootId) {
+        if (aggregateRootId == null || aggregateInfo.commandLocks == null) {
+            return null;
+        }
+        return aggregateInfo.commandLocks.acquire(aggregateRootId);
+    }
+
+    /**
+     * Takes the committed state of an existing aggregate root from the state cache, if the cache is enabled.
+     *
+     * @param aggregateInfo   The aggregate root information
+     * @param aggregateRootId The ID of the aggregate root, or null for a new aggregate root
+     * @return The cached state, or null if the state has to be restored from the event store
+     */
+    private AggregateStateCache.CachedState checkoutState(AggregateInfo aggregateInfo, Long aggregateRootId) {
+        if (aggregateRootId == null || aggregateInfo.stateCache == null) {
+            return null;
+        }
+        return aggregateInfo.stateCache.checkout(aggregateRootId);
+    }
+
+    /**
+     * Wakes up the dispatcher of the asynchronous projections, applies the committed events to the aggregate
+     * root, hands the committed state to the snapshot writer
+     * when an asynchronous snapshot is due and puts the new state to the state cache.
+     * Called only after the transaction of the command, or of the caller which the command joined, has been
+     * committed.
      *
      * @param aggregateInfo The aggregate root information
-     * @param stateInfo      The current state of the aggregate root
-     * @param currentVersion The current version of the aggregate root
-     * @throws JsonProcessingException If there is an error serializing the aggregate root to JSON
+     * @param commitInfo    The state and the events of the committed command
+     */
+    private void afterCommit(AggregateInfo aggregateInfo, CommitInfo commitInfo) {
+        if (!commitInfo.getEvents().isEmpty() && projectionDispatcher.isEnabled()) {
+            projectionDispatcher.signal();
+        }
+        Long aggregateId = commitInfo.getAggregateId().getId();
+        long version = commitInfo.getAggregateId().getVersion();
+        boolean snapshotDue = aggregateInfo.snapshotMode == SnapshotMode.ASYNC && commitInfo.isSnapshotDue();
+        if (aggregateInfo.stateCache == null && !snapshotDue) {
+            return;
+        }
+        StateInfo stateInfo = commitInfo.getStateInfo();
+        Object aggregateRoot = stateInfo.getAggregateRoot();
+        if (!commitInfo.isEventsApplied()) {
+            for (Object event : commitInfo.getEvents()) {
+                aggregateInfo.handlerMethod.invoke(aggregateRoot, event);
+            }
+        }
+        if (snapshotDue && snapshotWriter.submit(aggregateId, version, aggregateRoot,
+            aggregateInfo.snapshotSerializer, aggregateInfo.stateCache)) {
+            return;
+        }
+        if (aggregateInfo.stateCache != null) {
+            long snapshotVersion = commitInfo.getSnapshotVersion();
+            ReplayStats replayStats = snapshotVersion >= 0
+                ? new ReplayStats(snapshotVersion, LocalDateTime.now())
+                : stateInfo.getReplayStats();
+            if (snapshotVersion < version) {
+                replayStats.appended(commitInfo.getEvents().size(), commitInfo.getAppendedBytes());
+            }
+            aggregateInfo.stateCache.checkin(aggregateId, aggregateRoot, version, replayStats);
+        }
+    }
+
+    /**
+     * Saves the snapshot of the aggregate root in the transaction of the command.
+     * A single command saves the state before its events, a batch of commands saves the state after the
+     * events of the last executed command.
+     * Aggregates with {@link SnapshotMode#ASYNC} snapshot mode are written after the commit.
+     *
+     * @param aggregateInfo The aggregate root information
+     * @param aggregateId   The ID of the aggregate root
+     * @param version       The version of the state of the aggregate root
+     * @param aggregateRoot The aggregate root in the state of the given version
+     * @return true if the snapshot was saved, false otherwise
+     * @throws IOException If there is an error serializing the aggregate root
      */
-    private void saveSnapshot(AggregateInfo aggregateInfo,
-                              StateInfo stateInfo,
-                              Long currentVersion) throws JsonProcessingException {
-        if (currentVersion != 0 && isItTimeForSnapshot(currentVersion, aggregateInfo.snapshotAfter)) {
-            aggregateRecordRepository.save(
-                new AggregateRecord(
-                    stateInfo.getEventEntityId().getAggregateId(),
-                    stateInfo.getEventEntityId().getVersion(),
-                    om.writeValueAsString(stateInfo.getAggregateRoot()))
-            );
+    private boolean saveSnapshot(AggregateInfo aggregateInfo,
+                                 Long aggregateId,
+                                 long version,
+                                 Object aggregateRoot) throws IOException {
+        if (aggregateInfo.snapshotMode != SnapshotMode.SYNC) {
+            return false;
         }
+        SnapshotSerializer serializer = aggregateInfo.snapshotSerializer;
+        eventStore.saveSnapshot(
+            new AggregateRecord(aggregateId, version, serializer.serialize(aggregateRoot), serializer.getFormat())
+        );
+        snapshotWriter.pruneLater(aggregateId);
+        return true;
     }
 
     /**
      * Decides if it is time to save the snapshot of the aggregate root.
-     * The condition is when the number of events since the last snapshot is greater than or equal to the
-     * snapshotAfter value.
+     * The decision is delegated to the {@link SnapshotPolicy} of the aggregate root, which gets the replay
+     * cost of the aggregate root including the events of the current command.
      *
-     * @param currentVersion The current version of the aggregate root
-     * @param snapshotAfter  The number of events since the last snapshot when the snapshot should be saved
+     * @param aggregateInfo  The aggregate root information
+     * @param stateInfo      The current state of the aggregate root
+     * @param currentVersion The version of the last event of the current command
+     * @param appendedBytes  The size of the events of the current command
      * @return true if it is time to save the snapshot, false otherwise
      */
-    private boolean isItTimeForSnapshot(Long currentVersion, Long snapshotAfter) {
-        if (snapshotAfter == null || snapshotAfter == 0) {
+    private boolean isSnapshotDue(AggregateInfo aggregateInfo,
+                                  StateInfo stateInfo,
+                                  long currentVersion,
+                                  long appendedBytes) {
+        if (aggregateInfo.snapshotAfter == null) {
             return false;
         }
-        return currentVersion % snapshotAfter == 0;
+        ReplayStats replayStats = stateInfo.getReplayStats();
+        long appendedEvents = currentVersion - stateInfo.getEventEntityId().getVersion();
+        SnapshotContext context = new SnapshotContext(
+            stateInfo.getEventEntityId().getAggregateId(),
+            currentVersion,
+            replayStats.getSnapshotVersion(),
+            replayStats.getSnapshotCreated(),
+            replayStats.getFirstEventCreated(),
+            replayStats.getBytes() + appendedBytes,
+            replayStats.getNanos() + replayStats.estimateNanos(appendedEvents),
+            aggregateInfo.snapshotAfter,
+            aggregateInfo.snapshotAfterBytes,
+            aggregateInfo.snapshotAfterMillis,
+            aggregateInfo.snapshotMaxAge);
+        return aggregateInfo.snapshotPolicy.isSnapshotDue(context);
     }
 
     /**
-     * Syncs the events to the projection.
+     * Syncs the events to the synchronous projections, one projection after another.
+     * The projections share the transaction of the command, so a failing projection fails the command.
      *
-     * @param syncProjectionInfo The information about the projection to be synced
      * @param events The list of events to be synced
      * @param stateInfo The current state of the aggregate root
      */
-    private void syncEvents(SyncProjectionInfo syncProjectionInfo, List<?> events, StateInfo stateInfo)  {
+    private void syncEvents(List<?> events, StateInfo stateInfo)  {
+        if (events.isEmpty()) {
+            return;
+        }
         Long aggregateId = stateInfo.getEventEntityId().getAggregateId();
         EntityId entityId = stateInfo.getEventEntityId();
-        long version = entityId.getVersion();
-        for (Object event : events) {
-            version++;
-            syncProjectionInfo.getSyncMethod().invoke(syncProjectionInfo.getSyncObject(), event, aggregateId, version);
+        for (SyncProjectionInfo syncProjectionInfo : syncProjections) {
+            long start = System.nanoTime();
+            long version = entityId.getVersion();
+            try {
+                for (Object event : events) {
+                    version++;
+                    syncProjectionInfo.getSyncMethod().invoke(syncProjectionInfo.getSyncObject(), event, aggregateId, version);
+                }
+            } catch (RuntimeException e) {
+                syncProjectionInfo.getStats().failed(System.nanoTime() - start);
+                throw e;
+            }
+            syncProjectionInfo.getStats().processed(events.size(), System.nanoTime() - start);
         }
     }
 
+    /**
+     * @return The statistics of the synchronous and asynchronous projections
+     */
+    public List<ProjectionStats> getProjectionStats() {
+        List<ProjectionStats> stats = new ArrayList<>();
+        syncProjections.forEach(projection -> stats.add(projection.getStats()));
+        stats.addAll(projectionDispatcher.getProjectionStats());
+        return stats;
+    }
+
     /**
      * Prepares the list of EventRecord objects from the list of events.
      *
      * @param events   The list of events
      * @param stateInfo The current state of the aggregate root
      * @return The list of EventRecord objects
-     * @throws JsonProcessingException If there is an error serializing the event to JSON
+     * @throws IOException If there is an error serializing the event
      */
-    private List<EventRecord> prepareEventRecords(List<?> events, StateInfo stateInfo) throws JsonProcessingException {
+    private List<EventRecord> prepareEventRecords(List<?> events, StateInfo stateInfo) throws IOException {
         List<EventRecord> records = new ArrayList<>();
         EntityId entityId = stateInfo.getEventEntityId();
         long version = entityId.getVersion();
         for (Object event : events) {
             version++;
-            records.add(new EventRecord(entityId.getAggregateId(), version, om.writeValueAsString(event), getNameForEvent(event)));
+            EventTypeRegistry.EventType eventType = eventTypes.get(event.getClass());
+            EventSerializer serializer = eventType.serializer();
+            records.add(new EventRecord(entityId.getAggregateId(), version, serializer.serialize(event),
+                serializer.getFormat(), eventType.id()));
         }
         return records;
     }
 
-    /**
-     * Gets the name of the event.
-     * The name of the event is determined by the value of the DomainEvent annotation of the event class.
-     * If the value of the DomainEvent annotation is null or empty, the name of the event is set to the name of the event class.
-     *
-     * @param event The event for which to get the name.
-     * @return The name of the event.
-     */
-    private String getNameForEvent(Object event) {
-        DomainEvent annotation = event.getClass().getDeclaredAnnotation(DomainEvent.class);
-        String domainName = annotation.value();
-        if (domainName == null || domainName.isEmpty()) {
-            domainName = event.getClass().getSimpleName();
-        }
-        return domainName;
-    }
-
     /**
      * Prepares the aggregate root information.
+     * The information is resolved once per aggregate root class and reused for every command.
      *
-     * @param aggregateRootClass The class of the aggregate root
+     * @param beanDefinition The bean definition of the aggregate root
      * @return The aggregate root information
      */
-    private AggregateInfo prepareAggregateInfo(Class<?> aggregateRootClass) {
-        AggregateRoot rootAnnotation = aggregateRootClass.getDeclaredAnnotation(AggregateRoot.class);
+    private AggregateInfo prepareAggregateInfo(BeanDefinition<?> beanDefinition) {
         Long snapshotAfter = null;
-        if (rootAnnotation != null) {
-            snapshotAfter = rootAnnotation.snapshotAfter();
+        if (beanDefinition.hasDeclaredAnnotation(AggregateRoot.class)) {
+            snapshotAfter = beanDefinition.longValue(AggregateRoot.class, "snapshotAfter").orElse(0);
+        }
+        SnapshotMode snapshotMode = beanDefinition.enumValue(AggregateRoot.class, "snapshotMode", SnapshotMode.class)
+            .orElse(SnapshotMode.SYNC);
+        Class<?> policyClass = beanDefinition.classValue(AggregateRoot.class, "snapshotPolicy")
+            .orElse(ModuloSnapshotPolicy.class);
+        SnapshotPolicy snapshotPolicy = (SnapshotPolicy) beanContext.getBean(policyClass);
+        Class<?> serializerClass = beanDefinition.classValue(AggregateRoot.class, "snapshotSerializer")
+            .orElse(JsonSnapshotSerializer.class);
+        SnapshotSerializer snapshotSerializer = (SnapshotSerializer) beanContext.getBean(serializerClass);
+        AggregateStateCache stateCache = null;
+        int cacheSize = beanDefinition.intValue(AggregateRoot.class, "cacheSize").orElse(0);
+        if (cacheSize > 0) {
+            stateCache = new AggregateStateCache(cacheSize, beanDefinition.longValue(AggregateRoot.class, "cacheTtl").orElse(0));
         }
-        Object aggregateRoot = beanContext.getBean(aggregateRootClass);
-        BeanDefinition<?> beanDefinition = beanContext.getBeanDefinition(aggregateRootClass);
+        AggregateLocks commandLocks = beanDefinition.booleanValue(AggregateRoot.class, "serializeCommands").orElse(false)
+            ? new AggregateLocks() : null;
         Collection<? extends ExecutableMethod<?, ?>> executableMethods = beanDefinition.getExecutableMethods();
         ExecutableMethod<Object, Object> handleMethod = getHandleMethod(executableMethods);
         ExecutableMethod<Object, Object> executeCommandMethod = getExecuteCommandMethod(executableMethods);
-        return new AggregateInfo(aggregateRoot, handleMethod, executeCommandMethod, snapshotAfter);
+        return new AggregateInfo((BeanDefinition<Object>) beanDefinition, handleMethod, executeCommandMethod,
+            snapshotAfter, snapshotMode, snapshotPolicy, snapshotSerializer,
+            beanDefinition.longValue(AggregateRoot.class, "snapshotAfterBytes").orElse(0),
+            beanDefinition.longValue(AggregateRoot.class, "snapshotAfterMillis").orElse(0),
+            beanDefinition.longValue(AggregateRoot.class, "snapshotMaxAge").orElse(0),
+            stateCache, commandLocks);
     }
 
     /**
@@ -299,47 +1096,92 @@ public class DefaultApplicationService implements ApplicationService {
      * @param aggregateInfo The aggregate root information
      * @param aggregateRootId The ID of the aggregate root, or null if a new aggregate root should be created
      * @return The current state of the aggregate root
-     * @throws JsonProcessingException If there is an error deserializing the snapshot and events
+     * @throws IOException If there is an error deserializing the snapshot and events
      */
-    private StateInfo restoreAggregateState(AggregateInfo aggregateInfo, final Long aggregateRootId) throws JsonProcessingException {
+    private StateInfo restoreAggregateState(AggregateInfo aggregateInfo, final Long aggregateRootId) throws IOException {
         Long rootId = aggregateRootId;
         if (rootId == null) {
             rootId = TsidUtil.getTsidFactory().create().toLong();
         }
-        Object aggregateRoot;
+        Object aggregateRoot = null;
         long lastVersion = -1;
+        ReplayStats replayStats = null;
         if (aggregateRootId != null && aggregateInfo.snapshotAfter != null) {
-            Optional<AggregateRecord> aggregateRecords = aggregateRecordRepository.findLastSnapshotFor(rootId);
-            if (aggregateRecords.isPresent()) {
+            Optional<AggregateRecord> aggregateRecords = eventStore.findLastSnapshot(rootId);
+            if (aggregateRecords.isPresent() && aggregateRecords.get().getData() != null) {
                 AggregateRecord aggregateRecord = aggregateRecords.get();
-                aggregateRoot = om.readValue(aggregateRecord.getJson(), aggregateInfo.getAggregateRoot().getClass());
+                SnapshotSerializer serializer = snapshotSerializers.get(aggregateRecord.getFormat());
+                if (serializer == null) {
+                    throw new EventStoreException("Unknown snapshot format " + aggregateRecord.getFormat());
+                }
+                aggregateRoot = beanContext.getBean(aggregateInfo.getBeanDefinition());
+                serializer.deserialize(aggregateRecord.getData(), aggregateRoot);
                 lastVersion = aggregateRecord.getVersion();
-            } else {
-                aggregateRoot = aggregateInfo.aggregateRoot;
+                replayStats = new ReplayStats(lastVersion, aggregateRecord.getDateCreated());
             }
-        } else {
-            aggregateRoot = aggregateInfo.aggregateRoot;
         }
-        List<EventRecord> eventRecords = repository.loadEventsFromVersion(rootId, lastVersion);
-        for (EventRecord eventRecord : eventRecords) {
-            Object event = createDomainEvent(eventRecord, events);
+        if (aggregateRoot == null) {
+            aggregateRoot = beanContext.getBean(aggregateInfo.getBeanDefinition());
+            replayStats = new ReplayStats(-1, null);
+        }
+        return applyEventsFromVersion(aggregateInfo, rootId, aggregateRoot, lastVersion, replayStats);
+    }
+
+    /**
+     * Brings the cached state of the aggregate root up to date by applying only the events persisted after the
+     * cached version.
+     *
+     * @param aggregateInfo   The aggregate root information
+     * @param aggregateRootId The ID of the aggregate root
+     * @param cachedState     The cached state of the aggregate root
+     * @return The current state of the aggregate root
+     * @throws IOException If there is an error deserializing the events
+     */
+    private StateInfo catchUpAggregateState(AggregateInfo aggregateInfo,
+                                            Long aggregateRootId,
+                                            AggregateStateCache.CachedState cachedState) throws IOException {
+        return applyEventsFromVersion(aggregateInfo, aggregateRootId, cachedState.aggregateRoot(), cachedState.version(),
+            cachedState.replayStats());
+    }
+
+    /**
+     * Streams the events with a version higher than the given version and applies them to the aggregate root
+     * in version order.
+     *
+     * @param aggregateInfo The aggregate root information
+     * @param rootId        The ID of the aggregate root
+     * @param aggregateRoot The aggregate root in the state of the given version
+     * @param lastVersion   The version of the last event already applied to the aggregate root
+     * @param replayStats   The replay cost of the aggregate root, updated with the applied events
+     * @return The current state of the aggregate root
+     * @throws IOException If there is an error deserializing the events
+     */
+    private StateInfo applyEventsFromVersion(AggregateInfo aggregateInfo,
+                                             Long rootId,
+                                             Object aggregateRoot,
+                                             long lastVersion,
+                                             ReplayStats replayStats) throws IOException {
+        long replayStart = System.nanoTime();
+        long version = eventStore.readEvents(rootId, lastVersion, eventRecord -> {
+            Object event = createDomainEvent(eventRecord);
             aggregateInfo.handlerMethod.invoke(aggregateRoot, event);
-            lastVersion = eventRecord.getVersion();
+            replayStats.replayed(eventRecord.getPayloadSize(), eventRecord.getDateCreated());
+        });
+        if (version != lastVersion) {
+            replayStats.replayTime(System.nanoTime() - replayStart);
         }
-        return new StateInfo(new EntityId(rootId, lastVersion), aggregateRoot);
+        return new StateInfo(new EntityId(rootId, version), aggregateRoot, replayStats);
     }
 
     /**
      * Deserializes the given event record to an event object.
      *
      * @param eventRecord The event record to deserialize
-     * @param events The map of event class names to their respective classes
      * @return The deserialized event object
-     * @throws JsonProcessingException If there is an error deserializing the event
+     * @throws IOException If there is an error deserializing the event
      */
-    private Object createDomainEvent(EventRecord eventRecord, Map<String, Class<?>> events) throws JsonProcessingException {
-        Class<?> eventClazz = events.get(eventRecord.getEventName());
-        return om.readValue(eventRecord.getJson(), eventClazz);
+    private Object createDomainEvent(EventRecord eventRecord) throws IOException {
+        return eventTypes.deserialize(eventRecord);
     }
 
     /**
@@ -372,35 +1214,70 @@ public class DefaultApplicationService implements ApplicationService {
         throw new MissingSyncHandlerAnnotationException();
     }
 
-    private static class AggregateInfo {
-        private final Object aggregateRoot;
+    static class AggregateInfo {
+        private final BeanDefinition<Object> beanDefinition;
         private final ExecutableMethod<Object, Object> handlerMethod;
         private final ExecutableMethod<Object, Object> executeCommandMethod;
         private final Long snapshotAfter;
+        private final SnapshotMode snapshotMode;
+        private final SnapshotPolicy snapshotPolicy;
+        private final SnapshotSerializer snapshotSerializer;
+        private final long snapshotAfterBytes;
+        private final long snapshotAfterMillis;
+        private final long snapshotMaxAge;
+        private final AggregateStateCache stateCache;
+        private final AggregateLocks commandLocks;
 
-        public AggregateInfo(Object aggregateRoot,
+        public AggregateInfo(BeanDefinition<Object> beanDefinition,
                              ExecutableMethod<Object, Object> handlerMethod,
                              ExecutableMethod<Object, Object> executeCommandMethod,
-                             Long snapshotAfter) {
-            this.aggregateRoot = aggregateRoot;
+                             Long snapshotAfter,
+                             SnapshotMode snapshotMode,
+                             SnapshotPolicy snapshotPolicy,
+                             SnapshotSerializer snapshotSerializer,
+                             long snapshotAfterBytes,
+                             long snapshotAfterMillis,
+                             long snapshotMaxAge,
+                             AggregateStateCache stateCache,
+                             AggregateLocks commandLocks) {
+            this.beanDefinition = beanDefinition;
             this.handlerMethod = handlerMethod;
             this.executeCommandMethod = executeCommandMethod;
             this.snapshotAfter = snapshotAfter;
+            this.snapshotMode = snapshotMode;
+            this.snapshotPolicy = snapshotPolicy;
+            this.snapshotSerializer = snapshotSerializer;
+            this.snapshotAfterBytes = snapshotAfterBytes;
+            this.snapshotAfterMillis = snapshotAfterMillis;
+            this.snapshotMaxAge = snapshotMaxAge;
+            this.stateCache = stateCache;
+            this.commandLocks = commandLocks;
         }
 
-        public Object getAggregateRoot() {
-            return aggregateRoot;
+        public BeanDefinition<Object> getBeanDefinition() {
+            return beanDefinition;
+        }
+
+        public Class<Object> getAggregateRootClass() {
+            return beanDefinition.getBeanType();
         }
     }
 
     private static class SyncProjectionInfo {
         private final Object syncObject;
         private final ExecutableMethod<Object, Object> syncMethod;
+        private final ProjectionStats stats;
 
         public SyncProjectionInfo(Object syncObject,
-                                  ExecutableMethod<Object, Object> syncMethod) {
+                                  ExecutableMethod<Object, Object> syncMethod,
+                                  ProjectionStats stats) {
             this.syncObject = syncObject;
             this.syncMethod = syncMethod;
+            this.stats = stats;
+        }
+
+        public ProjectionStats getStats() {
+            return stats;
         }
 
         public Object getSyncObject() {
@@ -412,13 +1289,23 @@ public class DefaultApplicationService implements ApplicationService {
         }
     }
 
-    private static class StateInfo {
+    static class AttemptInfo {
+        private StateInfo stateInfo;
+    }
+
+    static class StateInfo {
         private final EntityId entityId;
         private final Object aggregateRoot;
+        private final ReplayStats replayStats;
 
-        public StateInfo(EntityId entityId, Object aggregateRoot) {
+        public StateInfo(EntityId entityId, Object aggregateRoot, ReplayStats replayStats) {
             this.entityId = entityId;
             this.aggregateRoot = aggregateRoot;
+            this.replayStats = replayStats;
+        }
+
+        public ReplayStats getReplayStats() {
+            return replayStats;
         }
 
         public EntityId getEventEntityId() {
@@ -429,4 +1316,83 @@ public class DefaultApplicationService implements ApplicationService {
             return aggregateRoot;
         }
     }
+
+    static class CommitInfo {
+        private final StateInfo stateInfo;
+        private final List<?> events;
+        private final AggregateId aggregateId;
+        private final long appendedBytes;
+        private final boolean snapshotDue;
+        private final long snapshotVersion;
+        private final boolean eventsApplied;
+
+        public CommitInfo(StateInfo stateInfo,
+                          List<?> events,
+                          AggregateId aggregateId,
+                          long appendedBytes,
+                          boolean snapshotDue,
+                          long snapshotVersion,
+                          boolean eventsApplied) {
+            this.stateInfo = stateInfo;
+            this.events = events;
+            this.aggregateId = aggregateId;
+            this.appendedBytes = appendedBytes;
+            this.snapshotDue = snapshotDue;
+            this.snapshotVersion = snapshotVersion;
+            this.eventsApplied = eventsApplied;
+        }
+
+        public long getAppendedBytes() {
+            return appendedBytes;
+        }
+
+        public boolean isSnapshotDue() {
+            return snapshotDue;
+        }
+
+        /**
+         * @return The version of the snapshot saved in the transaction of the command, -1 if none was saved.
+         */
+        public long getSnapshotVersion() {
+            return snapshotVersion;
+        }
+
+        /**
+         * @return true if the events were already applied to the aggregate root of the state.
+         */
+        public boolean isEventsApplied() {
+            return eventsApplied;
+        }
+
+        public StateInfo getStateInfo() {
+            return stateInfo;
+        }
+
+        public List<?> getEvents() {
+            return events;
+        }
+
+        public AggregateId getAggregateId() {
+            return aggregateId;
+        }
+    }
+
+    static class BatchCommitInfo extends CommitInfo {
+        private final BatchResult batchResult;
+
+        public BatchCommitInfo(StateInfo stateInfo,
+                               List<?> events,
+                               AggregateId aggregateId,
+                               long appendedBytes,
+                               boolean snapshotDue,
+                               long snapshotVersion,
+                               BatchResult batchResult) {
+            super(stateInfo, events, aggregateId, appendedBytes, snapshotDue, snapshotVersion, true);
+            this.batchResult = batchResult;
+        }
+
+        public BatchResult getBatchResult() {
+            return batchResult;
+        }
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.component.engine.AggregateId;
+import com.axer.component.engine.ApplicationService;
+import com.axer.component.engine.ReactiveApplicationService;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.async.publisher.Publishers;
+import jakarta.inject.Singleton;
+import org.reactivestreams.Publisher;
+
+/**
+ * Default implementation of the {@link ReactiveApplicationService}.
+ * The JPA event store is blocking, so the command is offloaded with
+ * {@link ApplicationService#executeCommandAsync(Object, Class, Long)} to the executor of the asynchronous commands,
+ * which keeps the event loop free and bounds the number of commands using database connections.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+public class DefaultReactiveApplicationService implements ReactiveApplicationService {
+    private final ApplicationService applicationService;
+
+    /**
+     * Constructor.
+     *
+     * @param applicationService ApplicationService
+     */
+    public DefaultReactiveApplicationService(ApplicationService applicationService) {
+        this.applicationService = applicationService;
+    }
+
+    @Override
+    public Publisher<AggregateId> executeCommand(@NonNull Object command,
+                                                 @NonNull Class<?> aggregateRootClass,
+                                                 Long aggregateRootId) {
+        return Publishers.fromCompletableFuture(
+            () -> applicationService.executeCommandAsync(command, aggregateRootClass, aggregateRootId));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.data.jpa.entities.EventRecord;
+import com.axer.data.jpa.entities.OutboxRecord;
+import jakarta.inject.Singleton;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.Session;
+
+/**
+ * Appends the event records of a command to the event store.
+ * <p>
+ * Event records are never updated, so they are inserted with the JDBC batches of the {@link EventRecordWriter} on
+ * the connection of the current transaction, bypassing the persistence context and its dirty checking.
+ * The JDBC batch can be disabled with {@code eventstore.append.jdbc-batch}, the event records are then saved
+ * with {@link EventRecordRepository#saveAll(Iterable)}.
+ * When asynchronous projections are registered, an outbox record is inserted for every event in the same
+ * transaction.
+ * Every event record gets the next global position from the {@link PositionAllocator} before it is inserted. The
+ * positions are reserved in blocks outside of the current transaction, so appends do not wait for each other, and
+ * the id of the current transaction is stored with the events for the {@link EventReader} to follow them in commit
+ * order.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+public class EventAppender {
+    private final EntityManager entityManager;
+    private final EventRecordRepository repository;
+    private final OutboxRecordRepository outboxRepository;
+    private final AppendConfiguration configuration;
+    private final PositionAllocator positionAllocator;
+    private final EventRecordWriter writer;
+
+    /**
+     * Constructor.
+     *
+     * @param entityManager EntityManager of the current transaction
+     * @param repository    EventRecordRepository
+     * @param outboxRepository OutboxRecordRepository
+     * @param configuration AppendConfiguration
+     * @param positionAllocator PositionAllocator
+     */
+    public EventAppender(EntityManager entityManager,
+                         EventRecordRepository repository,
+                         OutboxRecordRepository outboxRepository,
+                         AppendConfiguration configuration,
+                         PositionAllocator positionAllocator) {
+        this.entityManager = entityManager;
+        this.repository = repository;
+        this.outboxRepository = outboxRepository;
+        this.configuration = configuration;
+        this.positionAllocator = positionAllocator;
+        this.writer = new EventRecordWriter(configuration);
+    }
+
+    /**
+     * Inserts the event records in the current transaction.
+     * A duplicate version of an aggregate fails the insert with a constraint violation.
+     *
+     * @param eventRecords The event records to insert
+     */
+    public void append(List<EventRecord> eventRecords) {
+        append(eventRecords, false);
+    }
+
+    /**
+     * Inserts the event records in the current transaction, together with their outbox records for the
+     * asynchronous projections if requested.
+     * A duplicate version of an aggregate fails the insert with a constraint violation.
+     *
+     * @param eventRecords The event records to insert
+     * @param outbox       true if the outbox records are inserted as well
+     */
+    public void append(List<EventRecord> eventRecords, boolean outbox) {
+        if (eventRecords.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        positionAllocator.assign(eventRecords);
+        if (!configuration.isJdbcBatch()) {
+            Long transactionId = entityManager.unwrap(Session.class).doReturningWork(writer::transactionId);
+            for (EventRecord eventRecord : eventRecords) {
+                eventRecord.setTransactionId(transactionId);
+            }
+            repository.saveAll(eventRecords);
+            if (outbox) {
+                List<OutboxRecord> outboxRecords = new ArrayList<>(eventRecords.size());
+                for (EventRecord eventRecord : eventRecords) {
+                    outboxRecords.add(new OutboxRecord(eventRecord.getAggregateId(), eventRecord.getVersion(), now));
+                }
+                outboxRepository.saveAll(outboxRecords);
+            }
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> writer.write(connection, eventRecords, outbox, now));
+    }
+}
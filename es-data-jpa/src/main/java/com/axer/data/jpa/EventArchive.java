@@ -0,0 +1,280 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.data.jpa.entities.ArchivedEvents;
+import com.axer.data.jpa.entities.EventRecord;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.micronaut.transaction.annotation.Transactional;
+import jakarta.inject.Singleton;
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Archive of the old events which are covered by a snapshot.
+ * <p>
+ * When enabled with {@code eventstore.archive.enabled}, a scheduled job moves the events older than
+ * {@code eventstore.archive.min-age} below the last snapshot of their aggregate from the event_record table
+ * into compressed chunks of the event_archive table, so the hot table and its indexes keep only the events
+ * which are still read by the restore. The event at the version of the snapshot always stays in the hot table,
+ * so a reader which needs older events finds a gap before the first hot event and reads the missing events from
+ * the archive. Aggregates with events waiting for the asynchronous projections are not archived.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+public class EventArchive {
+    private static final Logger LOG = LoggerFactory.getLogger(EventArchive.class);
+    static final String ARCHIVABLE_QUERY = "SELECT er.aggregateId, MAX(er.version) FROM EventRecord er "
+        + "WHERE er.dateCreated < :cutoff "
+        + "and er.version < (SELECT MAX(ar.version) FROM AggregateRecord ar WHERE ar.aggregateId = er.aggregateId) "
+        + "and NOT EXISTS (SELECT o FROM OutboxRecord o WHERE o.aggregateId = er.aggregateId) "
+        + "GROUP BY er.aggregateId";
+    private static final long NONE = -1;
+
+    private final EntityManager entityManager;
+    private final EventRecordRepository eventRecordRepository;
+    private final ArchivedEventsRepository archivedEventsRepository;
+    private final ArchiveConfiguration configuration;
+    private final LongAdder archivedEvents = new LongAdder();
+    private final LongAdder archivedAggregates = new LongAdder();
+    private final LongAdder archiveReads = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param entityManager            EntityManager
+     * @param eventRecordRepository    EventRecordRepository
+     * @param archivedEventsRepository ArchivedEventsRepository
+     * @param configuration            ArchiveConfiguration
+     */
+    public EventArchive(EntityManager entityManager,
+                        EventRecordRepository eventRecordRepository,
+                        ArchivedEventsRepository archivedEventsRepository,
+                        ArchiveConfiguration configuration) {
+        this.entityManager = entityManager;
+        this.eventRecordRepository = eventRecordRepository;
+        this.archivedEventsRepository = archivedEventsRepository;
+        this.configuration = configuration;
+    }
+
+    /**
+     * Wraps the consumer of the events read from the event_record table, so the archived events missing before
+     * the first event read are passed to the consumer first.
+     *
+     * @param aggregateId The id of the aggregate
+     * @param version     The version after which the events are read
+     * @param consumer    The consumer of the event records
+     * @return The consumer which fills the gap from the archive
+     */
+    public EventStore.EventRecordConsumer withArchive(Long aggregateId, long version, EventStore.EventRecordConsumer consumer) {
+        return new EventStore.EventRecordConsumer() {
+            private long expected = version + 1;
+
+            @Override
+            public void accept(EventRecord eventRecord) throws IOException {
+                if (eventRecord.getVersion() > expected) {
+                    readEvents(aggregateId, expected - 1, eventRecord.getVersion() - 1, consumer);
+                }
+                consumer.accept(eventRecord);
+                expected = eventRecord.getVersion() + 1;
+            }
+        };
+    }
+
+    /**
+     * Passes the archived events of the given aggregate in the given version range to the consumer, ordered by
+     * version.
+     *
+     * @param aggregateId The id of the aggregate
+     * @param version     The version after which the events are read
+     * @param toVersion   The version of the last event read
+     * @param consumer    The consumer of the event records
+     * @return The version of the last consumed event, or the given version if there are no archived events
+     * @throws IOException If the archive can not be read or the consumer fails to process an event
+     */
+    public long readEvents(Long aggregateId, long version, long toVersion, EventStore.EventRecordConsumer consumer) throws IOException {
+        archiveReads.increment();
+        long lastVersion = version;
+        for (ArchivedEvents chunk : archivedEventsRepository.findChunksAfter(aggregateId, version)) {
+            if (chunk.getFromVersion() > toVersion) {
+                break;
+            }
+            for (EventRecord eventRecord : decode(aggregateId, chunk.getData())) {
+                if (eventRecord.getVersion() > version && eventRecord.getVersion() <= toVersion) {
+                    consumer.accept(eventRecord);
+                    lastVersion = eventRecord.getVersion();
+                }
+            }
+        }
+        return lastVersion;
+    }
+
+    /**
+     * Archives the old events of a batch of aggregates, if the archival is enabled.
+     */
+    @Scheduled(fixedDelay = "${eventstore.archive.interval:1h}")
+    void archiveOldEvents() {
+        if (!configuration.isEnabled()) {
+            return;
+        }
+        List<Object[]> candidates = findArchivable(LocalDateTime.now().minus(configuration.getMinAge()));
+        for (Object[] candidate : candidates) {
+            Long aggregateId = (Long) candidate[0];
+            try {
+                int archived = archive(aggregateId, (Long) candidate[1]);
+                archivedEvents.add(archived);
+                archivedAggregates.increment();
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Archiving the events of aggregate {} failed", aggregateId, e);
+            }
+        }
+        if (!candidates.isEmpty()) {
+            LOG.debug("Archived the old events of {} aggregates", candidates.size());
+        }
+    }
+
+    /**
+     * Finds the aggregates with archivable events.
+     *
+     * @param cutoff The creation time before which events are archived
+     * @return The aggregate id and the version of the last archivable event of each aggregate
+     */
+    @Transactional(readOnly = true)
+    protected List<Object[]> findArchivable(LocalDateTime cutoff) {
+        return entityManager.createQuery(ARCHIVABLE_QUERY, Object[].class)
+            .setParameter("cutoff", cutoff)
+            .setMaxResults(Math.max(1, configuration.getBatchSize()))
+            .getResultList();
+    }
+
+    /**
+     * Moves the events of the given aggregate up to the given version into one archived chunk.
+     *
+     * @param aggregateId The id of the aggregate
+     * @param toVersion   The version of the last archived event
+     * @return The number of archived events
+     * @throws IOException If the events can not be compressed
+     */
+    @Transactional
+    protected int archive(Long aggregateId, long toVersion) throws IOException {
+        List<EventRecord> events = eventRecordRepository.loadEventsBetween(aggregateId, NONE, toVersion);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        archivedEventsRepository.save(new ArchivedEvents(aggregateId, events.getFirst().getVersion(), toVersion,
+            events.size(), encode(events), LocalDateTime.now()));
+        eventRecordRepository.deleteEventsUpTo(aggregateId, toVersion);
+        return events.size();
+    }
+
+    /**
+     * @return The number of events moved to the archive
+     */
+    public long getArchivedEvents() {
+        return archivedEvents.sum();
+    }
+
+    /**
+     * @return The number of times the events of an aggregate were moved to the archive
+     */
+    public long getArchivedAggregates() {
+        return archivedAggregates.sum();
+    }
+
+    /**
+     * @return The number of reads which fell back to the archive
+     */
+    public long getArchiveReads() {
+        return archiveReads.sum();
+    }
+
+    static byte[] encode(List<EventRecord> events) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            out.writeInt(events.size());
+            for (EventRecord eventRecord : events) {
+                out.writeLong(eventRecord.getVersion());
+                LocalDateTime dateCreated = eventRecord.getDateCreated();
+                out.writeLong(dateCreated != null ? dateCreated.toInstant(ZoneOffset.UTC).toEpochMilli() : Long.MIN_VALUE);
+                out.writeLong(eventRecord.getPosition() != null ? eventRecord.getPosition() : NONE);
+                out.writeShort(eventRecord.getFormat());
+                out.writeInt(eventRecord.getEventTypeId() != null ? eventRecord.getEventTypeId() : (int) NONE);
+                out.writeUTF(eventRecord.getEventName() != null ? eventRecord.getEventName() : "");
+                byte[] payload = eventRecord.getFormat() == EventRecord.LEGACY_JSON_FORMAT
+                    ? eventRecord.getJson().getBytes(StandardCharsets.UTF_8) : eventRecord.getPayload();
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<EventRecord> decode(Long aggregateId, byte[] data) throws IOException {
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data), inflater))) {
+            int count = in.readInt();
+            List<EventRecord> events = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                EventRecord eventRecord = new EventRecord();
+                eventRecord.setAggregateId(aggregateId);
+                eventRecord.setVersion(in.readLong());
+                long created = in.readLong();
+                eventRecord.setDateCreated(created != Long.MIN_VALUE
+                    ? LocalDateTime.ofInstant(Instant.ofEpochMilli(created), ZoneOffset.UTC) : null);
+                long position = in.readLong();
+                eventRecord.setPosition(position != NONE ? position : null);
+                eventRecord.setFormat(in.readShort());
+                int eventTypeId = in.readInt();
+                eventRecord.setEventTypeId(eventTypeId != NONE ? eventTypeId : null);
+                String eventName = in.readUTF();
+                eventRecord.setEventName(eventName.isEmpty() ? null : eventName);
+                byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+                if (eventRecord.getFormat() == EventRecord.LEGACY_JSON_FORMAT) {
+                    eventRecord.setJson(new String(payload, StandardCharsets.UTF_8));
+                } else {
+                    eventRecord.setPayload(payload);
+                }
+                events.add(eventRecord);
+            }
+            return events;
+        } finally {
+            inflater.end();
+        }
+    }
+}
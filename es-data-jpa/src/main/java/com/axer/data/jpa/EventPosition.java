@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+/**
+ * The place of an event in the commit order of the store, used by the {@link EventReader} to continue reading
+ * after the last event it has returned.
+ * <p>
+ * Events are ordered by the id of the transaction which inserted them and then by their global position. Events
+ * without a transaction id, written before it was introduced or on databases other than PostgreSQL, have the
+ * transaction id 0 and come first.
+ *
+ * @param transactionId The id of the inserting transaction, 0 if the event has none
+ * @param position      The global position of the event
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+public record EventPosition(long transactionId, long position) {
+    /**
+     * The place before the first event of the store.
+     */
+    public static final EventPosition START = new EventPosition(0, -1);
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.data.jpa.entities.EventRecord;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.transaction.annotation.Transactional;
+import jakarta.inject.Singleton;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.util.List;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+/**
+ * Streams the event records of an aggregate in version order.
+ * <p>
+ * The events are read with a forward only cursor and the configured fetch size. Every event record is loaded
+ * read-only and detached from the persistence context as soon as it has been consumed, so the memory used by
+ * the replay of an aggregate does not depend on the number of its events. Used by the {@link JpaEventStore}.
+ * <p>
+ * The events of all aggregates can be followed in commit order. Positions are reserved in blocks per node, see
+ * {@link PositionAllocator}, so a lower position may be committed after a higher one. On PostgreSQL the events are
+ * therefore ordered by the id of the inserting transaction and only the events of transactions below the xmin of
+ * the current snapshot are returned. All of those transactions have completed, so a reader which continues after
+ * the last {@link EventPosition} it has read does not miss events committed later. A long running transaction
+ * holds the readers back until it completes. On other databases the events are read in position order, which
+ * matches the commit order only while a single node appends.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+public class EventReader {
+    static final String EVENTS_FROM_VERSION_QUERY = "SELECT er FROM EventRecord er "
+        + "WHERE er.aggregateId = :aggregateId and er.version > :version ORDER BY er.version";
+    static final String COMMITTED_FROM_POSITION_QUERY = "SELECT * FROM event_record "
+        + "WHERE transaction_id < CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint) "
+        + "and (transaction_id > ?1 or (transaction_id = ?1 and position > ?2)) ORDER BY transaction_id, position";
+
+    private final EntityManager entityManager;
+    private final EventRecordRepository repository;
+    private final ReadConfiguration configuration;
+    private volatile Boolean postgres;
+
+    /**
+     * Constructor.
+     *
+     * @param entityManager EntityManager of the current transaction
+     * @param repository    EventRecordRepository
+     * @param configuration ReadConfiguration
+     */
+    public EventReader(EntityManager entityManager, EventRecordRepository repository, ReadConfiguration configuration) {
+        this.entityManager = entityManager;
+        this.repository = repository;
+        this.configuration = configuration;
+    }
+
+    /**
+     * Passes the events of the given aggregate with a version higher than the given version to the consumer,
+     * ordered by version.
+     *
+     * @param aggregateId The id of the aggregate
+     * @param version     The version after which the events are read
+     * @param consumer    The consumer of the event records
+     * @return The version of the last consumed event, or the given version if there are no newer events
+     * @throws IOException If the consumer fails to process an event
+     */
+    @Transactional(readOnly = true)
+    public long readEventsFromVersion(Long aggregateId, long version, EventStore.EventRecordConsumer consumer) throws IOException {
+        Session session = entityManager.unwrap(Session.class);
+        long lastVersion = version;
+        try (ScrollableResults<EventRecord> results = session.createSelectionQuery(EVENTS_FROM_VERSION_QUERY, EventRecord.class)
+                .setParameter("aggregateId", aggregateId)
+                .setParameter("version", version)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .setFetchSize(Math.max(1, configuration.getFetchSize()))
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                EventRecord eventRecord = results.get();
+                consumer.accept(eventRecord);
+                lastVersion = eventRecord.getVersion();
+                session.detach(eventRecord);
+            }
+        }
+        return lastVersion;
+    }
+
+    /**
+     * Passes at most the given number of events after the given event position to the consumer, in commit order.
+     * Pass the returned event position to the next call to continue reading.
+     *
+     * @param eventPosition The event position after which the events are read, {@link EventPosition#START} to
+     *                      read from the beginning
+     * @param limit         The maximum number of events to read
+     * @param consumer      The consumer of the event records
+     * @return The event position of the last consumed event, or the given one if there are no newer events
+     * @throws IOException If the consumer fails to process an event
+     */
+    @Transactional(readOnly = true)
+    public EventPosition readEventsFromPosition(EventPosition eventPosition, int limit,
+                                                EventStore.EventRecordConsumer consumer) throws IOException {
+        Pageable pageable = Pageable.from(0, Math.max(1, limit));
+        if (!isPostgres()) {
+            return consume(repository.readFromPosition(eventPosition.position(), pageable), eventPosition, consumer);
+        }
+        if (eventPosition.transactionId() == 0) {
+            // the events written before the transaction id was introduced have committed before all others
+            List<EventRecord> untracked = repository.readUntrackedFromPosition(eventPosition.position(), pageable);
+            if (!untracked.isEmpty()) {
+                return consume(untracked, eventPosition, consumer);
+            }
+        }
+        List<EventRecord> eventRecords = entityManager.unwrap(Session.class)
+            .createNativeQuery(COMMITTED_FROM_POSITION_QUERY, EventRecord.class)
+            .setParameter(1, eventPosition.transactionId())
+            .setParameter(2, eventPosition.position())
+            .setMaxResults(pageable.getSize())
+            .getResultList();
+        return consume(eventRecords, eventPosition, consumer);
+    }
+
+    private static EventPosition consume(List<EventRecord> eventRecords, EventPosition eventPosition,
+                                         EventStore.EventRecordConsumer consumer) throws IOException {
+        EventPosition last = eventPosition;
+        for (EventRecord eventRecord : eventRecords) {
+            consumer.accept(eventRecord);
+            Long transactionId = eventRecord.getTransactionId();
+            last = new EventPosition(transactionId != null ? transactionId : 0, eventRecord.getPosition());
+        }
+        return last;
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = entityManager.unwrap(Session.class).doReturningWork(connection ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+            postgres = result;
+        }
+        return result;
+    }
+}
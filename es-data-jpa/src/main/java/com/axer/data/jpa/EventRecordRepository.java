@@ -20,10 +20,12 @@ import com.axer.data.jpa.entities.EventRecord;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.data.annotation.Query;
 import io.micronaut.data.annotation.Repository;
+import io.micronaut.data.model.Pageable;
 import io.micronaut.data.repository.GenericRepository;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * EventStoreRepository.
@@ -33,16 +35,89 @@ public interface EventRecordRepository extends GenericRepository<EventRecord, En
 
   /**
    * Returns all events of the given aggregate with a version higher than the given
-   * version.
+   * version, ordered by version. The replay of the aggregates streams the events with the
+   * {@link EventReader} instead.
    *
    * @param aggregateId The id of the aggregate.
    * @param version      The version of the aggregate.
    * @return A list with all events of the given aggregate with a version higher
    * than the given version.
    */
-  @Query("SELECT er FROM EventRecord er WHERE er.aggregateId = :aggregateId and er.version > :version")
+  @Query("SELECT er FROM EventRecord er WHERE er.aggregateId = :aggregateId and er.version > :version ORDER BY er.version")
   List<EventRecord> loadEventsFromVersion(Long aggregateId, long version);
 
+  /**
+   * Returns the events of the given aggregate with a version higher than the first
+   * version and not higher than the last version, ordered by version.
+   *
+   * @param aggregateId  The id of the aggregate.
+   * @param fromVersion  The version after which the events are returned.
+   * @param toVersion    The version of the last returned event.
+   * @return A list with the events of the given aggregate in the given range.
+   */
+  @Query("SELECT er FROM EventRecord er WHERE er.aggregateId = :aggregateId and er.version > :fromVersion and er.version <= :toVersion ORDER BY er.version")
+  List<EventRecord> loadEventsBetween(Long aggregateId, long fromVersion, long toVersion);
+
+  /**
+   * Returns the next page of events after the given position, ordered by aggregate id and
+   * version. The position is used as a key, so every page is read with an index seek
+   * regardless of how far the scan has progressed.
+   *
+   * @param aggregateId   The aggregate id of the last read event.
+   * @param version       The version of the last read event.
+   * @param toAggregateId The aggregate id where the scan ends, exclusive.
+   * @param pageable      The size of the page, always the first page.
+   * @return The events after the given position.
+   */
+  @Query("SELECT er FROM EventRecord er WHERE er.aggregateId < :toAggregateId"
+      + " and (er.aggregateId > :aggregateId or (er.aggregateId = :aggregateId and er.version > :version))"
+      + " ORDER BY er.aggregateId, er.version")
+  List<EventRecord> scanEvents(long aggregateId, long version, long toAggregateId, Pageable pageable);
+
+  /**
+   * Returns the next page of events after the given global position, ordered by position.
+   * Event records written before the position was introduced are not returned.
+   *
+   * @param position The position of the last read event, -1 to read from the beginning.
+   * @param pageable The size of the page, always the first page.
+   * @return The events after the given position.
+   */
+  @Query("SELECT er FROM EventRecord er WHERE er.position > :position ORDER BY er.position")
+  List<EventRecord> readFromPosition(long position, Pageable pageable);
+
+  /**
+   * Returns the next page of events without a transaction id after the given global position, ordered by
+   * position. These are the events written before the transaction id was introduced.
+   *
+   * @param position The position of the last read event, -1 to read from the beginning.
+   * @param pageable The size of the page, always the first page.
+   * @return The events without a transaction id after the given position.
+   */
+  @Query("SELECT er FROM EventRecord er WHERE er.transactionId IS NULL and er.position > :position ORDER BY er.position")
+  List<EventRecord> readUntrackedFromPosition(long position, Pageable pageable);
+
+  /**
+   * @return The lowest aggregate id in the event store.
+   */
+  @Query("SELECT MIN(er.aggregateId) FROM EventRecord er")
+  Optional<Long> findMinAggregateId();
+
+  /**
+   * @return The highest aggregate id in the event store.
+   */
+  @Query("SELECT MAX(er.aggregateId) FROM EventRecord er")
+  Optional<Long> findMaxAggregateId();
+
+  /**
+   * Deletes the events of the given aggregate up to the given version, after they were archived.
+   *
+   * @param aggregateId The id of the aggregate.
+   * @param version     The version of the last deleted event.
+   * @return The number of deleted events.
+   */
+  @Query("DELETE FROM EventRecord er WHERE er.aggregateId = :aggregateId and er.version <= :version")
+  int deleteEventsUpTo(Long aggregateId, long version);
+
   /**
    * Saves all given entities, possibly returning new instances representing the saved state.
    *
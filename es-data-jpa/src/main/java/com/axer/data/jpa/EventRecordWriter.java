@@ -0,0 +1,162 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.data.jpa.entities.EventRecord;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Inserts event records and their outbox records with JDBC batches on a given connection.
+ * <p>
+ * Shared by the {@link EventAppender} and the appender of the plain JDBC store, so both stores insert the events
+ * with the same statements. The events of one append are sent to the database in a single round trip, as long
+ * as their number does not exceed the configured batch size.
+ * <p>
+ * On PostgreSQL the id of the inserting transaction is stored by the insert itself, so the {@link EventReader} can
+ * follow the events in commit order without an additional round trip.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+public final class EventRecordWriter {
+    static final String CURRENT_TRANSACTION_ID = "pg_current_xact_id()::text::bigint";
+    static final String INSERT_SQL = "INSERT INTO event_record (aggregate_id, version, date_created, payload, format, "
+        + "event_type_id, position, transaction_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String POSTGRES_INSERT_SQL = "INSERT INTO event_record (aggregate_id, version, date_created, payload, "
+        + "format, event_type_id, position, transaction_id) VALUES (?, ?, ?, ?, ?, ?, ?, "
+        + CURRENT_TRANSACTION_ID + ")";
+    static final String TRANSACTION_ID_SQL = "SELECT " + CURRENT_TRANSACTION_ID;
+    static final String OUTBOX_SQL = "INSERT INTO projection_outbox (aggregate_id, version, date_created) VALUES (?, ?, ?)";
+
+    private final AppendConfiguration configuration;
+    private volatile Boolean postgres;
+
+    /**
+     * Constructor.
+     *
+     * @param configuration AppendConfiguration
+     */
+    public EventRecordWriter(AppendConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Inserts the event records, which already have their positions, together with their outbox records for
+     * the asynchronous projections if requested. The creation time is set to the event records.
+     *
+     * @param connection   The connection of the current transaction
+     * @param eventRecords The event records to insert
+     * @param outbox       true if the outbox records are inserted as well
+     * @param now          The creation time of the event records
+     * @throws SQLException If an insert fails, a duplicate version of an aggregate fails with a constraint violation
+     */
+    public void write(Connection connection, List<EventRecord> eventRecords, boolean outbox, LocalDateTime now) throws SQLException {
+        boolean postgres = isPostgres(connection);
+        try (PreparedStatement statement = connection.prepareStatement(postgres ? POSTGRES_INSERT_SQL : INSERT_SQL)) {
+            execute(statement, eventRecords, (s, eventRecord) -> bind(s, eventRecord, now, postgres));
+        }
+        if (outbox) {
+            try (PreparedStatement statement = connection.prepareStatement(OUTBOX_SQL)) {
+                execute(statement, eventRecords, (s, eventRecord) -> {
+                    s.setLong(1, eventRecord.getAggregateId());
+                    s.setLong(2, eventRecord.getVersion());
+                    s.setTimestamp(3, Timestamp.valueOf(now));
+                });
+            }
+        }
+    }
+
+    /**
+     * Returns the id of the current transaction, to be stored with the event records which are not inserted by
+     * {@link #write(Connection, List, boolean, LocalDateTime)}.
+     *
+     * @param connection The connection of the current transaction
+     * @return The id of the current transaction, or null if the database is not PostgreSQL
+     * @throws SQLException If the query fails
+     */
+    public Long transactionId(Connection connection) throws SQLException {
+        if (!isPostgres(connection)) {
+            return null;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(TRANSACTION_ID_SQL);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private boolean isPostgres(Connection connection) throws SQLException {
+        Boolean result = postgres;
+        if (result == null) {
+            result = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+            postgres = result;
+        }
+        return result;
+    }
+
+    private void execute(PreparedStatement statement, List<EventRecord> eventRecords, Binder binder) throws SQLException {
+        if (eventRecords.size() == 1) {
+            binder.bind(statement, eventRecords.getFirst());
+            statement.executeUpdate();
+            return;
+        }
+        int batchSize = Math.max(1, configuration.getBatchSize());
+        int pending = 0;
+        for (EventRecord eventRecord : eventRecords) {
+            binder.bind(statement, eventRecord);
+            statement.addBatch();
+            if (++pending == batchSize) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            statement.executeBatch();
+        }
+    }
+
+    private static void bind(PreparedStatement statement, EventRecord eventRecord, LocalDateTime now,
+                             boolean postgres) throws SQLException {
+        eventRecord.setDateCreated(now);
+        statement.setLong(1, eventRecord.getAggregateId());
+        statement.setLong(2, eventRecord.getVersion());
+        statement.setTimestamp(3, Timestamp.valueOf(now));
+        statement.setBytes(4, eventRecord.getPayload());
+        statement.setShort(5, eventRecord.getFormat());
+        if (eventRecord.getEventTypeId() != null) {
+            statement.setInt(6, eventRecord.getEventTypeId());
+        } else {
+            statement.setNull(6, Types.INTEGER);
+        }
+        statement.setLong(7, eventRecord.getPosition());
+        if (!postgres) {
+            // the id of the transaction is only known on PostgreSQL, the readers fall back to the position order
+            statement.setNull(8, Types.BIGINT);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement statement, EventRecord eventRecord) throws SQLException;
+    }
+}
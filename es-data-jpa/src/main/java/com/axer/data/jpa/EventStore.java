@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.data.jpa.entities.AggregateRecord;
+import com.axer.data.jpa.entities.EventRecord;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage of the event records and snapshots of the aggregates, used by the command path of the
+ * {@link DefaultApplicationService} and by the {@link SnapshotWriter}.
+ * <p>
+ * The implementation is selected with {@code eventstore.store}, the JPA store is used by default. The methods
+ * are called in the transaction of the command. An event record or a snapshot with a version which already
+ * exists must fail with a constraint violation of the event_record or aggregate_record table, or with a
+ * {@link com.axer.component.exceptions.ConcurrencyConflictException}, so the command is retried from the
+ * current state.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+public interface EventStore {
+    /**
+     * The property which selects the store implementation.
+     */
+    String STORE_PROPERTY = "eventstore.store";
+
+    /**
+     * Passes the events of the given aggregate with a version higher than the given version to the consumer,
+     * ordered by version.
+     *
+     * @param aggregateId The id of the aggregate
+     * @param version     The version after which the events are read
+     * @param consumer    The consumer of the event records
+     * @return The version of the last consumed event, or the given version if there are no newer events
+     * @throws IOException If the consumer fails to process an event
+     */
+    long readEvents(Long aggregateId, long version, EventRecordConsumer consumer) throws IOException;
+
+    /**
+     * Appends the event records of one or more commands.
+     *
+     * @param eventRecords The event records to append
+     * @param outbox       true if the events are recorded for the asynchronous projections as well
+     */
+    void append(List<EventRecord> eventRecords, boolean outbox);
+
+    /**
+     * Gets the snapshot with the highest version of the given aggregate.
+     *
+     * @param aggregateId The id of the aggregate
+     * @return The last snapshot, or empty if the aggregate has none
+     */
+    Optional<AggregateRecord> findLastSnapshot(Long aggregateId);
+
+    /**
+     * Saves a snapshot.
+     *
+     * @param aggregateRecord The snapshot
+     */
+    void saveSnapshot(AggregateRecord aggregateRecord);
+
+    /**
+     * Saves several snapshots at once. A conflicting snapshot may fail the whole call.
+     *
+     * @param aggregateRecords The snapshots
+     */
+    void saveSnapshots(List<AggregateRecord> aggregateRecords);
+
+    /**
+     * Deletes the snapshots of the given aggregate except the newest ones. Stores which keep only the last
+     * snapshot of an aggregate do not need to implement this method.
+     *
+     * @param aggregateId The id of the aggregate
+     * @param retain      The number of the newest snapshots which are kept, 0 keeps all snapshots
+     * @return The number of deleted snapshots
+     */
+    default int pruneSnapshots(Long aggregateId, int retain) {
+        return 0;
+    }
+
+    /**
+     * Consumer of the event records read from the store.
+     */
+    @FunctionalInterface
+    interface EventRecordConsumer {
+        /**
+         * Processes one event record. The store may reuse or release the event record after this method
+         * returns, so it must not be kept.
+         *
+         * @param eventRecord The event record
+         * @throws IOException If there is an error deserializing the event
+         */
+        void accept(EventRecord eventRecord) throws IOException;
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.axer.component.anotation.DomainEvent;
+import com.axer.component.engine.EventSerializer;
+import com.axer.component.exceptions.EventStoreException;
+import com.axer.component.serialization.JsonEventSerializer;
+import com.axer.data.jpa.entities.EventRecord;
+import com.axer.data.jpa.entities.EventTypeRecord;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.core.annotation.AnnotationValue;
+import io.micronaut.inject.BeanDefinition;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dictionary of the domain event types.
+ * <p>
+ * At startup every {@link DomainEvent} name is mapped to a compact integer id stored in the event_type table,
+ * names which are not in the table yet are added. Event records store only the id, and the replay resolves
+ * the event class and serializer with an array index.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+public class EventTypeRegistry {
+    private static final Logger LOG = LoggerFactory.getLogger(EventTypeRegistry.class);
+    private static final int MAX_REGISTRATION_ATTEMPTS = 10;
+
+    private final EventTypeRepository eventTypeRepository;
+    private final ApplicationContext beanContext;
+    private final ObjectMapper om;
+    private final Map<String, EventType> byName = new HashMap<>();
+    private final Map<Class<?>, EventType> byClass = new HashMap<>();
+    private final Map<Short, EventSerializer> serializersByFormat = new HashMap<>();
+    private EventType[] byId = new EventType[0];
+
+    /**
+     * Constructor.
+     *
+     * @param eventTypeRepository EventTypeRepository
+     * @param beanContext         ApplicationContext
+     * @param om                  ObjectMapper
+     */
+    public EventTypeRegistry(EventTypeRepository eventTypeRepository, ApplicationContext beanContext, ObjectMapper om) {
+        this.eventTypeRepository = eventTypeRepository;
+        this.beanContext = beanContext;
+        this.om = om;
+    }
+
+    /**
+     * Retrieves the domain event definitions from the application context and registers them in the
+     * event type dictionary.
+     */
+    @PostConstruct
+    protected void init() {
+        beanContext.getBeansOfType(EventSerializer.class)
+            .forEach(serializer -> serializersByFormat.put(serializer.getFormat(), serializer));
+
+        Map<String, Class<?>> eventClasses = new LinkedHashMap<>();
+        Map<Class<?>, EventSerializer> eventSerializers = new HashMap<>();
+        Collection<BeanDefinition<?>> domainEventDefinitions = beanContext.getBeanDefinitions(Qualifiers.byStereotype(DomainEvent.class));
+        domainEventDefinitions.forEach(definition -> {
+            AnnotationValue<DomainEvent> domainEventAnnotation = definition.getAnnotationMetadata().getAnnotation(DomainEvent.class);
+            if (domainEventAnnotation != null) {
+                String eventName = domainEventAnnotation.stringValue("value")
+                        .orElse(definition.getBeanType().getSimpleName());
+                Class<?> serializerClass = domainEventAnnotation.classValue("serializer")
+                        .orElse(JsonEventSerializer.class);
+                eventClasses.put(eventName, definition.getBeanType());
+                eventSerializers.put(definition.getBeanType(), (EventSerializer) beanContext.getBean(serializerClass));
+            }
+        });
+
+        Map<String, Integer> ids = registerNames(eventClasses.keySet());
+        int maxId = ids.values().stream().mapToInt(Integer::intValue).max().orElse(-1);
+        EventType[] types = new EventType[maxId + 1];
+        eventClasses.forEach((name, eventClass) -> {
+            EventType eventType = new EventType(ids.get(name), name, eventClass, eventSerializers.get(eventClass));
+            types[eventType.id()] = eventType;
+            byName.put(name, eventType);
+            byClass.put(eventClass, eventType);
+        });
+        byId = types;
+    }
+
+    /**
+     * Gets the event type of the given event class.
+     *
+     * @param eventClass The class of the domain event
+     * @return The event type
+     */
+    public EventType get(Class<?> eventClass) {
+        EventType eventType = byClass.get(eventClass);
+        if (eventType == null) {
+            throw new EventStoreException("Class " + eventClass.getName() + " is not annotated with @DomainEvent");
+        }
+        return eventType;
+    }
+
+    /**
+     * Gets the event type with the given dictionary id.
+     *
+     * @param id The id of the event type
+     * @return The event type
+     */
+    public EventType get(int id) {
+        EventType[] types = byId;
+        EventType eventType = id < types.length ? types[id] : null;
+        if (eventType == null) {
+            throw new EventStoreException("Unknown event type id " + id);
+        }
+        return eventType;
+    }
+
+    /**
+     * Gets the event type by the event name, used for event records written before the dictionary.
+     *
+     * @param name The name of the event
+     * @return The event type
+     */
+    public EventType get(String name) {
+        EventType eventType = byName.get(name);
+        if (eventType == null) {
+            throw new EventStoreException("Unknown event name " + name);
+        }
+        return eventType;
+    }
+
+    /**
+     * Gets the serializer which wrote events with the given format marker.
+     *
+     * @param format The format marker
+     * @return The event serializer
+     */
+    public EventSerializer getSerializer(short format) {
+        EventSerializer serializer = serializersByFormat.get(format);
+        if (serializer == null) {
+            throw new EventStoreException("Unknown event format " + format);
+        }
+        return serializer;
+    }
+
+    /**
+     * Deserializes the given event record to an event object.
+     * The event type is resolved by the dictionary id, event records written before the dictionary are
+     * resolved by the event name. Event records in the legacy format are read from the json text column.
+     * A payload buffer is read as a stream, without copying it.
+     *
+     * @param eventRecord The event record to deserialize
+     * @return The deserialized event object
+     * @throws IOException If there is an error deserializing the event
+     */
+    public Object deserialize(EventRecord eventRecord) throws IOException {
+        Integer eventTypeId = eventRecord.getEventTypeId();
+        EventType eventType = eventTypeId != null ? get(eventTypeId) : get(eventRecord.getEventName());
+        if (eventRecord.getFormat() == EventRecord.LEGACY_JSON_FORMAT) {
+            return om.readValue(eventRecord.getJson(), eventType.eventClass());
+        }
+        EventSerializer serializer = getSerializer(eventRecord.getFormat());
+        ByteBuffer payloadBuffer = eventRecord.getPayloadBuffer();
+        if (payloadBuffer != null) {
+            return serializer.deserialize(new ByteBufferInputStream(payloadBuffer.duplicate()), eventType.eventClass());
+        }
+        return serializer.deserialize(eventRecord.getPayload(), eventType.eventClass());
+    }
+
+    /**
+     * Adds the missing names to the dictionary. Several nodes may start at the same time, so a failed insert
+     * reloads the dictionary and tries again.
+     *
+     * @param names The event names
+     * @return The ids of all given names
+     */
+    private Map<String, Integer> registerNames(Collection<String> names) {
+        for (int attempt = 1; ; attempt++) {
+            Map<String, Integer> ids = new HashMap<>();
+            int nextId = 0;
+            List<EventTypeRecord> records = eventTypeRepository.findAll();
+            for (EventTypeRecord record : records) {
+                ids.put(record.getName(), record.getId());
+                nextId = Math.max(nextId, record.getId() + 1);
+            }
+            try {
+                for (String name : names) {
+                    if (!ids.containsKey(name)) {
+                        eventTypeRepository.save(new EventTypeRecord(nextId, name));
+                        ids.put(name, nextId++);
+                    }
+                }
+                return ids;
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_REGISTRATION_ATTEMPTS) {
+                    throw new EventStoreException(e);
+                }
+                LOG.debug("Event type registration conflict, reloading the dictionary", e);
+            }
+        }
+    }
+
+    /**
+     * One entry of the event type dictionary.
+     *
+     * @param id         The dictionary id
+     * @param name       The logical name of the event
+     * @param eventClass The class of the event
+     * @param serializer The serializer used to write events of this type
+     */
+    public record EventType(int id, String name, Class<?> eventClass, EventSerializer serializer) {
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.data.jpa.entities.EventTypeRecord;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.data.annotation.Repository;
+import io.micronaut.data.repository.GenericRepository;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * EventTypeRepository.
+ */
+@Repository
+public interface EventTypeRepository extends GenericRepository<EventTypeRecord, Integer> {
+
+    /**
+     * Returns the whole event type dictionary.
+     *
+     * @return All event types.
+     */
+    @NonNull
+    List<EventTypeRecord> findAll();
+
+    /**
+     * Saves the given valid entity, returning a possibly new entity representing the saved state.
+     *
+     * @param entity The entity to save. Must not be {@literal null}.
+     * @return The saved entity will never be {@literal null}.
+     */
+    @NonNull
+    EventTypeRecord save(@Valid @NotNull @NonNull EventTypeRecord entity);
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+
+/**
+ * Configuration of the group commit, which writes the events of concurrent commands on different aggregates in
+ * one transaction.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@ConfigurationProperties("eventstore.group-commit")
+public class GroupCommitConfiguration {
+    private boolean enabled;
+    private Duration window = Duration.ofMillis(2);
+    private int batchSize = 32;
+    private int queueSize = 1024;
+
+    /**
+     * Gets if the commands are committed in groups.
+     *
+     * @return true if the group commit is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets if the commands are committed in groups.
+     *
+     * @param enabled true to enable the group commit
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the time the first command of a group waits for further commands.
+     *
+     * @return The window of a group
+     */
+    public Duration getWindow() {
+        return window;
+    }
+
+    /**
+     * Sets the time the first command of a group waits for further commands.
+     *
+     * @param window The window of a group
+     */
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    /**
+     * Gets the maximum number of commands committed in one group.
+     *
+     * @return The batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the maximum number of commands committed in one group.
+     *
+     * @param batchSize The batch size
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gets the maximum number of commands waiting for a group. Commands above this limit are committed alone.
+     *
+     * @return The queue size
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * Sets the maximum number of commands waiting for a group.
+     *
+     * @param queueSize The queue size
+     */
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+}
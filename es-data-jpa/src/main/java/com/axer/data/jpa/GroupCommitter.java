@@ -0,0 +1,248 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Gathers the commands arriving within a short window into groups, which are committed in one transaction by a
+ * single background thread.
+ * <p>
+ * A group holds at most one command per aggregate, a second command of the same aggregate waits for the next
+ * group. The caller of a command blocks until its group is committed. When the queue is full or the committer
+ * was stopped the command is not accepted and the caller commits it alone.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+final class GroupCommitter {
+    private static final Logger LOG = LoggerFactory.getLogger(GroupCommitter.class);
+
+    private final BlockingQueue<GroupMember> queue;
+    private final long windowNanos;
+    private final int batchSize;
+    private final Consumer<List<GroupMember>> committer;
+    private final LongAdder groups = new LongAdder();
+    private final LongAdder members = new LongAdder();
+    private Thread worker;
+    private volatile boolean stopped;
+
+    /**
+     * Constructor.
+     *
+     * @param configuration GroupCommitConfiguration
+     * @param committer     Commits a group, reports the committed members with {@link #committed(int)} and
+     *                      completes the members
+     */
+    GroupCommitter(GroupCommitConfiguration configuration, Consumer<List<GroupMember>> committer) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, configuration.getQueueSize()));
+        this.windowNanos = configuration.getWindow().toNanos();
+        this.batchSize = Math.max(1, configuration.getBatchSize());
+        this.committer = committer;
+    }
+
+    /**
+     * Queues the command for the next group.
+     *
+     * @param member The command
+     * @return true if the command was queued, false if the caller has to commit it alone
+     */
+    boolean submit(GroupMember member) {
+        if (!startWorker() || !queue.offer(member)) {
+            return false;
+        }
+        // stop() may have drained the queue before the command was added
+        return !stopped || !queue.remove(member);
+    }
+
+    /**
+     * Counts a committed group. Called by the committer before the members are completed, so a caller sees the
+     * group in the counters as soon as its command returns.
+     *
+     * @param committed The number of commands committed in the group
+     */
+    void committed(int committed) {
+        if (committed > 0) {
+            groups.increment();
+            members.add(committed);
+        }
+    }
+
+    /**
+     * @return The number of committed groups
+     */
+    long getGroups() {
+        return groups.sum();
+    }
+
+    /**
+     * @return The number of commands committed in groups
+     */
+    long getMembers() {
+        return members.sum();
+    }
+
+    /**
+     * Stops the background thread. The commands which are still queued are committed by their callers, later
+     * commands are not accepted.
+     */
+    synchronized void stop() {
+        stopped = true;
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+        List<GroupMember> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.forEach(GroupMember::isolate);
+    }
+
+    private synchronized boolean startWorker() {
+        if (stopped) {
+            return false;
+        }
+        if (worker == null) {
+            worker = Thread.ofPlatform().daemon().name("group-commit").start(this::run);
+        }
+        return true;
+    }
+
+    private void run() {
+        List<GroupMember> carryOver = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            List<GroupMember> group = new ArrayList<>(batchSize);
+            Set<Long> aggregateIds = new HashSet<>();
+            try {
+                List<GroupMember> next = new ArrayList<>(carryOver);
+                carryOver.clear();
+                if (next.isEmpty()) {
+                    next.add(queue.take());
+                }
+                long deadline = System.nanoTime() + windowNanos;
+                while (true) {
+                    for (GroupMember member : next) {
+                        if (group.size() < batchSize
+                            && (member.getAggregateRootId() == null || aggregateIds.add(member.getAggregateRootId()))) {
+                            group.add(member);
+                        } else {
+                            carryOver.add(member);
+                        }
+                    }
+                    next.clear();
+                    long remaining = deadline - System.nanoTime();
+                    if (group.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    GroupMember member = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (member == null) {
+                        break;
+                    }
+                    next.add(member);
+                }
+                committer.accept(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                group.forEach(GroupMember::isolate);
+                carryOver.forEach(GroupMember::isolate);
+            } catch (RuntimeException e) {
+                LOG.warn("Group commit of {} commands failed", group.size(), e);
+                group.forEach(GroupMember::isolate);
+            }
+        }
+    }
+
+    /**
+     * A command waiting for its group.
+     * The caller blocks on the result, which is the committed state, or null if the command has to be committed
+     * alone because the group could not be committed.
+     */
+    static final class GroupMember {
+        private final Object command;
+        private final DefaultApplicationService.AggregateInfo aggregateInfo;
+        private AggregateStateCache.CachedState cachedState;
+        private final Long aggregateRootId;
+        private final DefaultApplicationService.AttemptInfo attemptInfo = new DefaultApplicationService.AttemptInfo();
+        private final CompletableFuture<DefaultApplicationService.CommitInfo> result = new CompletableFuture<>();
+        private Throwable failure;
+
+        GroupMember(Object command,
+                    DefaultApplicationService.AggregateInfo aggregateInfo,
+                    AggregateStateCache.CachedState cachedState,
+                    Long aggregateRootId) {
+            this.command = command;
+            this.aggregateInfo = aggregateInfo;
+            this.cachedState = cachedState;
+            this.aggregateRootId = aggregateRootId;
+        }
+
+        Object getCommand() {
+            return command;
+        }
+
+        DefaultApplicationService.AggregateInfo getAggregateInfo() {
+            return aggregateInfo;
+        }
+
+        AggregateStateCache.CachedState getCachedState() {
+            return cachedState;
+        }
+
+        Long getAggregateRootId() {
+            return aggregateRootId;
+        }
+
+        DefaultApplicationService.AttemptInfo getAttemptInfo() {
+            return attemptInfo;
+        }
+
+        CompletableFuture<DefaultApplicationService.CommitInfo> getResult() {
+            return result;
+        }
+
+        Throwable getFailure() {
+            return failure;
+        }
+
+        void fail(Throwable failure) {
+            this.failure = failure;
+        }
+
+        /**
+         * Forgets the outcome of a group which was rolled back, before the command is executed in the next group.
+         *
+         * @param cachedState The state to continue from, or null if the state has to be restored
+         */
+        void reset(AggregateStateCache.CachedState cachedState) {
+            this.cachedState = cachedState;
+            this.failure = null;
+        }
+
+        void isolate() {
+            result.complete(null);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.component.exceptions.ConcurrencyConflictException;
+import com.axer.data.jpa.entities.AggregateRecord;
+import com.axer.data.jpa.entities.EventRecord;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.transaction.TransactionOperations;
+import io.micronaut.transaction.TransactionStatus;
+import io.micronaut.transaction.support.TransactionSynchronization;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link EventStore} which keeps the events and the last snapshot of every aggregate in memory, selected with
+ * {@code eventstore.store=memory}. Intended for tests and benchmarks, nothing survives a restart.
+ * <p>
+ * The events of an aggregate are kept in an array indexed by version. An append first reserves the versions
+ * it writes with a compare and set on the number of reserved events, which fails if another command appended
+ * in the meantime, so the optimistic version check needs no lock. The appended events become visible to the
+ * readers when the appender publishes the new number of events. Appends of several aggregates reserve all of
+ * them before any event is written, so a conflict appends nothing.
+ * <p>
+ * The store needs no datasource. When the events or snapshots are written in a transaction, they are kept back
+ * until the transaction commits: the reserved versions are published by a synchronization of the transaction
+ * after the commit and released after a rollback, so a command which rolls back leaves nothing behind and other
+ * commands never read uncommitted events. Without a transaction they are published at once. The events of a
+ * command with an outbox are handed to the {@link ProjectionDispatcher} after the commit, since this store has
+ * no outbox table the asynchronous projections read.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+@Requires(property = EventStore.STORE_PROPERTY, value = "memory")
+public class InMemoryEventStore implements EventStore {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<Long, EventStream> streams = new ConcurrentHashMap<>();
+    private final Map<Long, AggregateRecord> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong nextPosition = new AtomicLong();
+    private final List<TransactionOperations<?>> transactionOperations;
+    private final ProjectionDispatcher projectionDispatcher;
+
+    /**
+     * Constructor.
+     *
+     * @param transactionOperations The transaction managers of the application, empty without a datasource
+     * @param projectionDispatcher  ProjectionDispatcher
+     */
+    public InMemoryEventStore(List<TransactionOperations<?>> transactionOperations,
+                              ProjectionDispatcher projectionDispatcher) {
+        this.transactionOperations = transactionOperations;
+        this.projectionDispatcher = projectionDispatcher;
+    }
+
+    @Override
+    public long readEvents(Long aggregateId, long version, EventRecordConsumer consumer) throws IOException {
+        EventStream stream = streams.get(aggregateId);
+        if (stream == null) {
+            return version;
+        }
+        // read the published count before the array, the array is replaced before the count is published
+        int published = stream.published;
+        EventRecord[] events = stream.events;
+        long lastVersion = version;
+        for (long i = Math.max(0, version + 1); i < published; i++) {
+            EventRecord eventRecord = events[(int) i];
+            consumer.accept(eventRecord);
+            lastVersion = eventRecord.getVersion();
+        }
+        return lastVersion;
+    }
+
+    @Override
+    public void append(List<EventRecord> eventRecords, boolean outbox) {
+        if (eventRecords.isEmpty()) {
+            return;
+        }
+        Map<Long, List<EventRecord>> byAggregate = new LinkedHashMap<>();
+        for (EventRecord eventRecord : eventRecords) {
+            byAggregate.computeIfAbsent(eventRecord.getAggregateId(), id -> new ArrayList<>()).add(eventRecord);
+        }
+        List<Reservation> reservations = new ArrayList<>(byAggregate.size());
+        for (Map.Entry<Long, List<EventRecord>> entry : byAggregate.entrySet()) {
+            EventStream stream = streams.computeIfAbsent(entry.getKey(), id -> new EventStream());
+            List<EventRecord> records = entry.getValue();
+            long expected = records.getFirst().getVersion();
+            if (expected > Integer.MAX_VALUE - records.size()
+                || !stream.reserved.compareAndSet(expected, expected + records.size())) {
+                // only the reservations of this append can be released, nobody else can move them
+                reservations.forEach(Reservation::release);
+                throw new ConcurrencyConflictException(entry.getKey(), expected - 1);
+            }
+            reservations.add(new Reservation(stream, (int) expected, records));
+        }
+        onCommit(() -> publish(reservations, outbox ? eventRecords : List.of()),
+            () -> reservations.forEach(Reservation::release));
+    }
+
+    @Override
+    public Optional<AggregateRecord> findLastSnapshot(Long aggregateId) {
+        return Optional.ofNullable(snapshots.get(aggregateId));
+    }
+
+    @Override
+    public void saveSnapshot(AggregateRecord aggregateRecord) {
+        // a snapshot of a rolled back command is dropped
+        onCommit(() -> storeSnapshot(aggregateRecord), () -> { });
+    }
+
+    @Override
+    public void saveSnapshots(List<AggregateRecord> aggregateRecords) {
+        aggregateRecords.forEach(this::saveSnapshot);
+    }
+
+    /**
+     * @return The number of aggregates with events in the store
+     */
+    public int getAggregates() {
+        return streams.size();
+    }
+
+    /**
+     * @return The number of events in the store
+     */
+    public long getEvents() {
+        long events = 0;
+        for (EventStream stream : streams.values()) {
+            events += stream.published;
+        }
+        return events;
+    }
+
+    /**
+     * Removes all events and snapshots. Must not be called while commands are executed.
+     */
+    public void clear() {
+        streams.clear();
+        snapshots.clear();
+    }
+
+    private void storeSnapshot(AggregateRecord aggregateRecord) {
+        if (aggregateRecord.getDateCreated() == null) {
+            aggregateRecord.setDateCreated(LocalDateTime.now());
+        }
+        snapshots.merge(aggregateRecord.getAggregateId(), aggregateRecord,
+            (current, saved) -> saved.getVersion() > current.getVersion() ? saved : current);
+    }
+
+    private void publish(List<Reservation> reservations, List<EventRecord> outbox) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Reservation reservation : reservations) {
+            for (EventRecord eventRecord : reservation.records()) {
+                eventRecord.setDateCreated(now);
+                eventRecord.setPosition(nextPosition.getAndIncrement());
+            }
+            reservation.publish();
+        }
+        if (!outbox.isEmpty()) {
+            projectionDispatcher.publish(outbox);
+        }
+    }
+
+    /**
+     * Runs the given action after the current transaction commits, or at once if there is no transaction.
+     *
+     * @param committed  The action after the commit
+     * @param rolledBack The action after a rollback
+     */
+    private void onCommit(Runnable committed, Runnable rolledBack) {
+        for (TransactionOperations<?> operations : transactionOperations) {
+            TransactionStatus<?> status = operations.findTransactionStatus().orElse(null);
+            if (status != null) {
+                status.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(Status completion) {
+                        if (completion == Status.COMMITTED) {
+                            committed.run();
+                        } else {
+                            rolledBack.run();
+                        }
+                    }
+                });
+                return;
+            }
+        }
+        committed.run();
+    }
+
+    /**
+     * The events of one aggregate. Only the appender which reserved the next versions writes to the array.
+     */
+    private static final class EventStream {
+        private final AtomicLong reserved = new AtomicLong();
+        private volatile EventRecord[] events = new EventRecord[INITIAL_CAPACITY];
+        private volatile int published;
+    }
+
+    private record Reservation(EventStream stream, int from, List<EventRecord> records) {
+
+        void release() {
+            stream.reserved.set(from);
+        }
+
+        void publish() {
+            EventRecord[] events = stream.events;
+            int size = from + records.size();
+            if (size > events.length) {
+                events = Arrays.copyOf(events, Math.max(size, events.length * 2));
+            }
+            for (int i = 0; i < records.size(); i++) {
+                events[from + i] = records.get(i);
+            }
+            stream.events = events;
+            stream.published = size;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.data.jpa.entities.AggregateRecord;
+import com.axer.data.jpa.entities.EventRecord;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.transaction.annotation.Transactional;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The default {@link EventStore}. Events are appended by the {@link EventAppender} and streamed by the
+ * {@link EventReader}, snapshots are stored with the {@link AggregateRecordRepository}. Events moved to the
+ * {@link EventArchive} are read from the archive when the hot events of an aggregate start after a gap.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+@Requires(property = EventStore.STORE_PROPERTY, value = "jpa", defaultValue = "jpa")
+public class JpaEventStore implements EventStore {
+    private final EventReader eventReader;
+    private final EventAppender eventAppender;
+    private final AggregateRecordRepository aggregateRecordRepository;
+    private final EventArchive eventArchive;
+
+    /**
+     * Constructor.
+     *
+     * @param eventReader               EventReader
+     * @param eventAppender             EventAppender
+     * @param aggregateRecordRepository AggregateRecordRepository
+     * @param eventArchive              EventArchive
+     */
+    public JpaEventStore(EventReader eventReader,
+                         EventAppender eventAppender,
+                         AggregateRecordRepository aggregateRecordRepository,
+                         EventArchive eventArchive) {
+        this.eventReader = eventReader;
+        this.eventAppender = eventAppender;
+        this.aggregateRecordRepository = aggregateRecordRepository;
+        this.eventArchive = eventArchive;
+    }
+
+    @Override
+    public long readEvents(Long aggregateId, long version, EventRecordConsumer consumer) throws IOException {
+        return eventReader.readEventsFromVersion(aggregateId, version, eventArchive.withArchive(aggregateId, version, consumer));
+    }
+
+    @Override
+    public void append(List<EventRecord> eventRecords, boolean outbox) {
+        eventAppender.append(eventRecords, outbox);
+    }
+
+    @Override
+    public Optional<AggregateRecord> findLastSnapshot(Long aggregateId) {
+        return aggregateRecordRepository.findLastSnapshotFor(aggregateId);
+    }
+
+    @Override
+    public void saveSnapshot(AggregateRecord aggregateRecord) {
+        aggregateRecordRepository.save(aggregateRecord);
+    }
+
+    @Override
+    public void saveSnapshots(List<AggregateRecord> aggregateRecords) {
+        aggregateRecordRepository.saveAll(aggregateRecords);
+    }
+
+    @Override
+    @Transactional
+    public int pruneSnapshots(Long aggregateId, int retain) {
+        if (retain <= 0) {
+            return 0;
+        }
+        List<Long> versions = aggregateRecordRepository.findSnapshotVersions(aggregateId, Pageable.from(0, retain));
+        if (versions.size() < retain) {
+            return 0;
+        }
+        return aggregateRecordRepository.deleteSnapshotsBefore(aggregateId, versions.getLast());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.data.jpa.entities.EntityId;
+import com.axer.data.jpa.entities.OutboxRecord;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.annotation.Repository;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.repository.GenericRepository;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * OutboxRecordRepository.
+ */
+@Repository
+public interface OutboxRecordRepository extends GenericRepository<OutboxRecord, EntityId> {
+
+  /**
+   * Returns the oldest undelivered events, ordered by aggregate and version.
+   *
+   * @param pageable The page to load.
+   * @return The outbox records of the page.
+   */
+  @Query("SELECT o FROM OutboxRecord o ORDER BY o.aggregateId, o.version")
+  List<OutboxRecord> findPending(Pageable pageable);
+
+  /**
+   * Returns the undelivered events after the given event, ordered by aggregate and version, so the events of
+   * failing aggregates at the head of the outbox do not hide the following events.
+   *
+   * @param aggregateId The aggregate of the last event of the previous page.
+   * @param version     The version of the last event of the previous page.
+   * @param pageable    The page to load.
+   * @return The outbox records of the page.
+   */
+  @Query("SELECT o FROM OutboxRecord o WHERE o.aggregateId > :aggregateId "
+      + "OR (o.aggregateId = :aggregateId AND o.version > :version) ORDER BY o.aggregateId, o.version")
+  List<OutboxRecord> findPendingAfter(Long aggregateId, Long version, Pageable pageable);
+
+  /**
+   * Returns the creation time of the oldest undelivered event.
+   *
+   * @return The creation time, empty if all events were delivered.
+   */
+  @Query("SELECT MIN(o.dateCreated) FROM OutboxRecord o")
+  Optional<LocalDateTime> findOldest();
+
+  /**
+   * @return The number of undelivered events.
+   */
+  long count();
+
+  /**
+   * Saves all given entities.
+   *
+   * @param entities The entities to save. Must not be {@literal null}.
+   * @return The saved entities objects. will never be {@literal null}.
+   */
+  @NonNull
+  Iterable<OutboxRecord> saveAll(@Valid @NotNull @NonNull Iterable<OutboxRecord> entities);
+
+  /**
+   * Deletes the delivered events.
+   *
+   * @param entities The entities to delete.
+   */
+  void deleteAll(@NonNull Iterable<OutboxRecord> entities);
+}
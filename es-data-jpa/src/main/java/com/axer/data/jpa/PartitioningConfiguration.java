@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+
+/**
+ * Configuration of the partitioned layout of the event_record and aggregate_record tables.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@ConfigurationProperties("eventstore.partitioning")
+public class PartitioningConfiguration {
+    private Strategy strategy = Strategy.NONE;
+    private int partitions = 16;
+    private Duration range = Duration.ofDays(30);
+    private int rangesAhead = 2;
+
+    /**
+     * Gets how the tables are partitioned.
+     *
+     * @return The partitioning strategy
+     */
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Sets how the tables are partitioned.
+     *
+     * @param strategy The partitioning strategy
+     */
+    public void setStrategy(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Gets the number of partitions of {@link Strategy#HASH}.
+     *
+     * @return The number of partitions
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Sets the number of partitions of {@link Strategy#HASH}.
+     *
+     * @param partitions The number of partitions
+     */
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * Gets the period of the aggregate creation time covered by one partition of {@link Strategy#RANGE}.
+     *
+     * @return The range of one partition
+     */
+    public Duration getRange() {
+        return range;
+    }
+
+    /**
+     * Sets the period of the aggregate creation time covered by one partition of {@link Strategy#RANGE}.
+     *
+     * @param range The range of one partition
+     */
+    public void setRange(Duration range) {
+        this.range = range;
+    }
+
+    /**
+     * Gets the number of partitions of {@link Strategy#RANGE} created ahead of the current one.
+     *
+     * @return The number of future partitions
+     */
+    public int getRangesAhead() {
+        return rangesAhead;
+    }
+
+    /**
+     * Sets the number of partitions of {@link Strategy#RANGE} created ahead of the current one.
+     *
+     * @param rangesAhead The number of future partitions
+     */
+    public void setRangesAhead(int rangesAhead) {
+        this.rangesAhead = rangesAhead;
+    }
+
+    /**
+     * The partitioning strategy.
+     */
+    public enum Strategy {
+        /**
+         * The tables are not partitioned.
+         */
+        NONE,
+        /**
+         * The tables are partitioned by the hash of the aggregate id.
+         */
+        HASH,
+        /**
+         * The tables are partitioned by ranges of the aggregate id, which are ranges of the creation time of the
+         * aggregates, since the aggregate ids are TSIDs.
+         */
+        RANGE
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.data.jpa.entities.EventRecord;
+import com.axer.data.jpa.entities.PositionBlock;
+import io.micronaut.transaction.TransactionDefinition;
+import io.micronaut.transaction.annotation.Transactional;
+import jakarta.inject.Singleton;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import java.util.List;
+
+/**
+ * Allocates the global positions of the event records.
+ * <p>
+ * A node reserves a block of positions in a separate transaction and hands them out from memory with
+ * {@link PositionBlocks}, so the event_position row is locked once per block instead of once per event and the
+ * lock is released before the events are committed. Positions are unique and increase in the order the events
+ * are appended on one node. Positions of a block which is not used up before the node stops are skipped, and a
+ * transaction of another node may commit a lower position after a higher one, so consumers must not expect the
+ * positions without gaps or in commit order. The {@link EventReader} follows the store in commit order.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+public class PositionAllocator {
+    private final EntityManager entityManager;
+    private final PositionBlocks blocks;
+
+    /**
+     * Constructor.
+     *
+     * @param entityManager EntityManager
+     * @param configuration AppendConfiguration
+     */
+    public PositionAllocator(EntityManager entityManager, AppendConfiguration configuration) {
+        this.entityManager = entityManager;
+        this.blocks = new PositionBlocks(configuration, this::reserveBlock);
+    }
+
+    /**
+     * Sets the next positions to the given event records. The positions of one call are consecutive unless a new
+     * block is reserved in between.
+     *
+     * @param eventRecords The event records
+     */
+    public void assign(List<EventRecord> eventRecords) {
+        blocks.assign(eventRecords);
+    }
+
+    /**
+     * Moves the next position of the store forward by the block size, in its own transaction so the row lock is
+     * released before the events are committed.
+     *
+     * @param blockSize The number of positions to reserve
+     * @return The first reserved position
+     */
+    @Transactional(propagation = TransactionDefinition.Propagation.REQUIRES_NEW)
+    protected long reserveBlock(int blockSize) {
+        PositionBlock block = entityManager.find(PositionBlock.class, PositionBlock.EVENT_RECORD,
+            LockModeType.PESSIMISTIC_WRITE);
+        if (block == null) {
+            entityManager.persist(new PositionBlock(PositionBlock.EVENT_RECORD, blockSize));
+            entityManager.flush();
+            return 0;
+        }
+        long first = block.getNextPosition();
+        block.setNextPosition(first + blockSize);
+        return first;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.component.exceptions.EventStoreException;
+import com.axer.data.jpa.entities.EventRecord;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntToLongFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands out the global positions of the event records from blocks reserved by a node.
+ * <p>
+ * A block is reserved in a separate transaction and handed out from memory, so the event_position row is locked
+ * once per block instead of once per append and the appends of different aggregates and nodes do not wait for
+ * each other. Positions are unique and increase in the order the events are appended on one node. Positions of a
+ * block which is not used up before the node stops are skipped, and an append of another node may commit a lower
+ * position after a higher one, so the readers follow the store in commit order with the {@link EventReader}
+ * instead of the plain position. Shared by the {@link PositionAllocator} and the appender of the plain JDBC store.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+public final class PositionBlocks {
+    private static final Logger LOG = LoggerFactory.getLogger(PositionBlocks.class);
+    private static final int MAX_RESERVE_ATTEMPTS = 10;
+
+    private final AppendConfiguration configuration;
+    private final IntToLongFunction reservation;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long next;
+    private long limit;
+
+    /**
+     * Constructor.
+     *
+     * @param configuration AppendConfiguration
+     * @param reservation   Moves the next position of the store forward by the given block size in its own
+     *                      transaction and returns the first reserved position
+     */
+    public PositionBlocks(AppendConfiguration configuration, IntToLongFunction reservation) {
+        this.configuration = configuration;
+        this.reservation = reservation;
+    }
+
+    /**
+     * Sets the next positions to the given event records. The positions of one call are consecutive unless a new
+     * block is reserved in between.
+     *
+     * @param eventRecords The event records
+     */
+    public void assign(List<EventRecord> eventRecords) {
+        lock.lock();
+        try {
+            for (EventRecord eventRecord : eventRecords) {
+                if (next == limit) {
+                    reserve();
+                }
+                eventRecord.setPosition(next++);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reserve() {
+        int blockSize = Math.max(1, configuration.getPositionBlockSize());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                next = reservation.applyAsLong(blockSize);
+                limit = next + blockSize;
+                return;
+            } catch (RuntimeException e) {
+                // two nodes created the event_position row at the same time
+                if (attempt >= MAX_RESERVE_ATTEMPTS) {
+                    throw e instanceof EventStoreException ? e : new EventStoreException(e);
+                }
+                LOG.debug("Position block reservation conflict, trying again", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,474 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.data.jpa.entities.CheckpointId;
+import com.axer.data.jpa.entities.EventRecord;
+import com.axer.data.jpa.entities.OutboxRecord;
+import com.axer.data.jpa.entities.ProjectionCheckpoint;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.inject.ExecutableMethod;
+import io.micronaut.transaction.annotation.Transactional;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers the committed events to the asynchronous projections.
+ * <p>
+ * The command transaction writes an outbox record for every event. A single background thread reads the outbox
+ * in pages, loads the events of each aggregate in version order and hands them to every asynchronous projection.
+ * Each projection processes the events of one aggregate in its own transaction together with its checkpoint, the
+ * version of the last processed event, so events which are delivered again are skipped. The outbox records of an
+ * aggregate are removed when every projection has processed them.
+ * <p>
+ * The pages are read after the last record of the previous page, so the records left behind by a failed
+ * aggregate do not block the records after them. An aggregate which failed in a projection is parked for that
+ * projection until the end of the pass over the outbox, so its later events are not delivered out of order. The
+ * parked aggregates get their events again in the next pass, after the next poll, the other projections and
+ * aggregates are not affected.
+ * <p>
+ * The projections are independent of each other, so a page is handed to all projections in parallel on a bounded
+ * pool of threads. Each projection processes the aggregates of the page one after another. The deserialized
+ * events are shared by the projections and must not be modified.
+ * <p>
+ * Stores without an outbox table, like the {@link InMemoryEventStore}, {@link #publish(List) publish} the events
+ * after the commit instead. They are queued in memory and delivered by the same thread, the events of an aggregate
+ * which failed are queued again for the next pass.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+public class ProjectionDispatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(ProjectionDispatcher.class);
+
+    private final OutboxRecordRepository outboxRepository;
+    private final ProjectionCheckpointRepository checkpointRepository;
+    private final EventRecordRepository eventRecordRepository;
+    private final EventTypeRegistry eventTypes;
+    private final long pollIntervalNanos;
+    private final int batchSize;
+    private final int parallelism;
+    private final List<ProjectionInfo> projections = new CopyOnWriteArrayList<>();
+    private final Semaphore signal = new Semaphore(0);
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Map<Long, List<EventRecord>> published = new LinkedHashMap<>();
+    private Thread worker;
+    private ExecutorService executor;
+    private OutboxRecord lastDispatched;
+
+    /**
+     * Constructor.
+     *
+     * @param outboxRepository      OutboxRecordRepository
+     * @param checkpointRepository  ProjectionCheckpointRepository
+     * @param eventRecordRepository EventRecordRepository
+     * @param eventTypes            EventTypeRegistry
+     * @param configuration         ProjectionConfiguration
+     */
+    public ProjectionDispatcher(OutboxRecordRepository outboxRepository,
+                                ProjectionCheckpointRepository checkpointRepository,
+                                EventRecordRepository eventRecordRepository,
+                                EventTypeRegistry eventTypes,
+                                ProjectionConfiguration configuration) {
+        this.outboxRepository = outboxRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.eventRecordRepository = eventRecordRepository;
+        this.eventTypes = eventTypes;
+        this.pollIntervalNanos = configuration.getPollInterval().toNanos();
+        this.batchSize = Math.max(1, configuration.getBatchSize());
+        this.parallelism = Math.max(1, configuration.getParallelism());
+    }
+
+    /**
+     * Registers an asynchronous projection and starts the background thread.
+     *
+     * @param name          The name of the projection, used as the key of its checkpoints
+     * @param projection    The projection bean
+     * @param processMethod The method of the projection annotated with {@link com.axer.component.anotation.EventProcessor}
+     */
+    void register(String name, Object projection, ExecutableMethod<Object, Object> processMethod) {
+        projections.add(new ProjectionInfo(name, projection, processMethod, new ProjectionStats(name, true),
+            ConcurrentHashMap.newKeySet()));
+        startWorker();
+    }
+
+    /**
+     * @return true if there is at least one asynchronous projection, so the commands have to write the outbox
+     */
+    boolean isEnabled() {
+        return !projections.isEmpty();
+    }
+
+    /**
+     * Wakes up the background thread after a command with new events was committed.
+     */
+    void signal() {
+        if (signal.availablePermits() == 0) {
+            signal.release();
+        }
+    }
+
+    /**
+     * Queues the committed events of a store without an outbox for the asynchronous projections and wakes up the
+     * background thread.
+     *
+     * @param eventRecords The committed event records, in version order per aggregate
+     */
+    void publish(List<EventRecord> eventRecords) {
+        synchronized (published) {
+            for (EventRecord eventRecord : eventRecords) {
+                published.computeIfAbsent(eventRecord.getAggregateId(), id -> new ArrayList<>()).add(eventRecord);
+            }
+        }
+        signal();
+    }
+
+    /**
+     * @return The statistics of the asynchronous projections
+     */
+    public List<ProjectionStats> getProjectionStats() {
+        return projections.stream().map(ProjectionInfo::stats).toList();
+    }
+
+    /**
+     * @return The number of events processed by the asynchronous projections
+     */
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    /**
+     * @return The number of events skipped because the projection had already processed them
+     */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    /**
+     * @return The number of failed deliveries of the events of an aggregate to a projection
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return The number of events not yet processed by all asynchronous projections
+     */
+    public long getPending() {
+        long pending = outboxRepository.count();
+        synchronized (published) {
+            for (List<EventRecord> eventRecords : published.values()) {
+                pending += eventRecords.size();
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * @return The age of the oldest event not yet processed by all asynchronous projections
+     */
+    public Duration getLag() {
+        return outboxRepository.findOldest()
+            .map(oldest -> Duration.between(oldest, LocalDateTime.now()))
+            .orElse(Duration.ZERO);
+    }
+
+    /**
+     * Stops the background thread. Undelivered events stay in the outbox.
+     */
+    @PreDestroy
+    synchronized void stop() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Processes the events of one aggregate with one projection, in the transaction of the projection.
+     *
+     * @param projection  The projection
+     * @param aggregateId The aggregate id
+     * @param events      The events of the aggregate in version order
+     * @return The number of processed events
+     */
+    @Transactional
+    protected int deliver(ProjectionInfo projection, Long aggregateId, List<DeliveredEvent> events) {
+        CheckpointId checkpointId = new CheckpointId(projection.name(), aggregateId);
+        Optional<ProjectionCheckpoint> checkpoint = checkpointRepository.findById(checkpointId);
+        long lastVersion = checkpoint.map(ProjectionCheckpoint::getVersion).orElse(-1L);
+        int processed = 0;
+        for (DeliveredEvent event : events) {
+            if (event.version() <= lastVersion) {
+                skipped.increment();
+                continue;
+            }
+            projection.processMethod().invoke(projection.projection(), event.event(), aggregateId, event.version());
+            lastVersion = event.version();
+            processed++;
+        }
+        if (processed == 0) {
+            return 0;
+        }
+        if (checkpoint.isPresent()) {
+            checkpoint.get().setVersion(lastVersion);
+        } else {
+            checkpointRepository.save(new ProjectionCheckpoint(projection.name(), aggregateId, lastVersion));
+        }
+        return processed;
+    }
+
+    private synchronized void startWorker() {
+        if (worker == null) {
+            worker = Thread.ofPlatform().daemon().name("projection-dispatcher").start(this::run);
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().daemon().name("projection-", 0).factory());
+        }
+        return executor;
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                signal.tryAcquire(pollIntervalNanos, TimeUnit.NANOSECONDS);
+                signal.drainPermits();
+                while (dispatch() == batchSize) {
+                    // a full page was read, more events are waiting
+                }
+                dispatchPublished();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                LOG.warn("Dispatching of the projection outbox failed", e);
+            }
+        }
+    }
+
+    /**
+     * Delivers the next page of the outbox to every asynchronous projection. A page which is not full ends the
+     * pass, the next page is read from the beginning of the outbox and the parked aggregates are retried.
+     *
+     * @return The number of read outbox records
+     */
+    private int dispatch() throws InterruptedException {
+        List<OutboxRecord> page = lastDispatched == null
+            ? outboxRepository.findPending(Pageable.from(0, batchSize))
+            : outboxRepository.findPendingAfter(lastDispatched.getAggregateId(), lastDispatched.getVersion(),
+                Pageable.from(0, batchSize));
+        try {
+            deliverPage(page);
+        } finally {
+            if (page.size() < batchSize) {
+                lastDispatched = null;
+                projections.forEach(projection -> projection.parked().clear());
+            } else {
+                lastDispatched = page.getLast();
+            }
+        }
+        return page.size();
+    }
+
+    private void deliverPage(List<OutboxRecord> page) throws InterruptedException {
+        Map<Long, List<OutboxRecord>> byAggregate = new LinkedHashMap<>();
+        for (OutboxRecord outboxRecord : page) {
+            byAggregate.computeIfAbsent(outboxRecord.getAggregateId(), id -> new ArrayList<>()).add(outboxRecord);
+        }
+        Map<Long, List<DeliveredEvent>> events = new LinkedHashMap<>();
+        byAggregate.forEach((aggregateId, outboxRecords) -> {
+            try {
+                events.put(aggregateId, loadEvents(aggregateId, outboxRecords));
+            } catch (IOException | RuntimeException e) {
+                failed.increment();
+                projections.forEach(projection -> projection.parked().add(aggregateId));
+                LOG.warn("Events of aggregate {} could not be loaded for the projections", aggregateId, e);
+            }
+        });
+        Set<Long> failedAggregates = deliverToAll(events);
+        List<OutboxRecord> done = new ArrayList<>(page.size());
+        events.keySet().forEach(aggregateId -> {
+            if (!failedAggregates.contains(aggregateId)) {
+                done.addAll(byAggregate.get(aggregateId));
+            }
+        });
+        if (!done.isEmpty()) {
+            outboxRepository.deleteAll(done);
+        }
+    }
+
+    /**
+     * Delivers the published events of the stores without an outbox. The events of the aggregates which could
+     * not be delivered are queued again before the events published in the meantime; the checkpoints skip the
+     * events a projection has already processed.
+     */
+    private void dispatchPublished() throws InterruptedException {
+        Map<Long, List<EventRecord>> pending;
+        synchronized (published) {
+            if (published.isEmpty()) {
+                return;
+            }
+            pending = new LinkedHashMap<>(published);
+            published.clear();
+        }
+        Map<Long, List<DeliveredEvent>> events = new LinkedHashMap<>();
+        pending.forEach((aggregateId, eventRecords) -> {
+            try {
+                List<DeliveredEvent> aggregateEvents = new ArrayList<>(eventRecords.size());
+                for (EventRecord eventRecord : eventRecords) {
+                    aggregateEvents.add(new DeliveredEvent(eventRecord.getVersion(), eventTypes.deserialize(eventRecord)));
+                }
+                events.put(aggregateId, aggregateEvents);
+            } catch (IOException | RuntimeException e) {
+                failed.increment();
+                LOG.warn("Events of aggregate {} could not be deserialized for the projections", aggregateId, e);
+            }
+        });
+        Set<Long> failedAggregates = deliverToAll(events);
+        synchronized (published) {
+            for (Long aggregateId : failedAggregates) {
+                List<EventRecord> retry = new ArrayList<>(pending.get(aggregateId));
+                List<EventRecord> later = published.remove(aggregateId);
+                if (later != null) {
+                    retry.addAll(later);
+                }
+                published.put(aggregateId, retry);
+            }
+        }
+    }
+
+    /**
+     * Hands the events to all projections, in parallel if there is more than one.
+     *
+     * @param events The events by aggregate
+     * @return The aggregates which at least one projection failed to process
+     */
+    private Set<Long> deliverToAll(Map<Long, List<DeliveredEvent>> events) throws InterruptedException {
+        Set<Long> failedAggregates = ConcurrentHashMap.newKeySet();
+        List<ProjectionInfo> current = List.copyOf(projections);
+        if (current.size() == 1) {
+            deliverAll(current.getFirst(), events, failedAggregates);
+        } else {
+            List<Future<?>> futures = new ArrayList<>(current.size());
+            for (ProjectionInfo projection : current) {
+                futures.add(getExecutor().submit(() -> deliverAll(projection, events, failedAggregates)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    LOG.warn("Projection dispatch failed", e.getCause());
+                    failedAggregates.addAll(events.keySet());
+                    current.forEach(projection -> projection.parked().addAll(events.keySet()));
+                }
+            }
+        }
+        return failedAggregates;
+    }
+
+    /**
+     * Hands the events of a page to one projection, aggregate by aggregate. A failure of one aggregate does not
+     * stop the other aggregates. The failed aggregate is parked, its events are not delivered to the projection
+     * again before the next pass.
+     *
+     * @param projection       The projection
+     * @param events           The events of the page by aggregate
+     * @param failedAggregates Receives the aggregates which the projection failed to process
+     */
+    private void deliverAll(ProjectionInfo projection, Map<Long, List<DeliveredEvent>> events, Set<Long> failedAggregates) {
+        events.forEach((aggregateId, aggregateEvents) -> {
+            if (projection.parked().contains(aggregateId)) {
+                failedAggregates.add(aggregateId);
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                int processed = deliver(projection, aggregateId, aggregateEvents);
+                projection.stats().processed(processed, System.nanoTime() - start);
+                delivered.add(processed);
+            } catch (RuntimeException e) {
+                projection.stats().failed(System.nanoTime() - start);
+                failed.increment();
+                failedAggregates.add(aggregateId);
+                projection.parked().add(aggregateId);
+                LOG.warn("Projection {} failed on the events of aggregate {}", projection.name(), aggregateId, e);
+            }
+        });
+    }
+
+    private List<DeliveredEvent> loadEvents(Long aggregateId, List<OutboxRecord> outboxRecords) throws IOException {
+        long fromVersion = outboxRecords.getFirst().getVersion() - 1;
+        long toVersion = outboxRecords.getLast().getVersion();
+        List<EventRecord> eventRecords = eventRecordRepository.loadEventsBetween(aggregateId, fromVersion, toVersion);
+        List<DeliveredEvent> events = new ArrayList<>(eventRecords.size());
+        for (EventRecord eventRecord : eventRecords) {
+            events.add(new DeliveredEvent(eventRecord.getVersion(), eventTypes.deserialize(eventRecord)));
+        }
+        return events;
+    }
+
+    /**
+     * An asynchronous projection.
+     *
+     * @param name          The name of the projection
+     * @param projection    The projection bean
+     * @param processMethod The event processor method
+     * @param stats         The statistics of the projection
+     * @param parked        The aggregates which failed in the current pass over the outbox
+     */
+    record ProjectionInfo(String name, Object projection, ExecutableMethod<Object, Object> processMethod,
+                          ProjectionStats stats, Set<Long> parked) {
+    }
+
+    /**
+     * A deserialized event with its version.
+     *
+     * @param version The version of the event
+     * @param event   The event
+     */
+    record DeliveredEvent(long version, Object event) {
+    }
+}
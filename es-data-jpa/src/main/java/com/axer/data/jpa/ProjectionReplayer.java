@@ -0,0 +1,277 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.component.anotation.EventProcessor;
+import com.axer.component.exceptions.MissingSyncHandlerAnnotationException;
+import com.axer.data.jpa.entities.EventRecord;
+import com.axer.data.jpa.entities.ReplayCheckpoint;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.inject.BeanDefinition;
+import io.micronaut.inject.ExecutableMethod;
+import io.micronaut.transaction.annotation.Transactional;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rebuilds a projection from the whole event store.
+ * <p>
+ * The aggregate ids of the event store are split into ranges which are replayed in parallel. Each range is read
+ * in pages ordered by aggregate id and version with keyset pagination, so the events of one aggregate are always
+ * processed in order. A page is processed by the {@link EventProcessor} method of the projection in one
+ * transaction together with the checkpoint of its range, so a stopped replay continues after the last processed
+ * page. Events moved to the {@link EventArchive} are read from the archive before the first remaining event of
+ * their aggregate. The projection is responsible for clearing its read model before a replay from the beginning.
+ * <p>
+ * The ranges are fixed when the replay is started. The last range has no upper bound, and aggregate ids are
+ * time-sorted TSIDs, so aggregates created during the replay are replayed by the last range as long as it has not
+ * completed. Events appended after the replay passed their aggregate are not replayed, the projection gets them
+ * from its regular delivery.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+public class ProjectionReplayer {
+    private static final Logger LOG = LoggerFactory.getLogger(ProjectionReplayer.class);
+
+    private final ApplicationContext beanContext;
+    private final EventRecordRepository eventRecordRepository;
+    private final ReplayCheckpointRepository checkpointRepository;
+    private final EventTypeRegistry eventTypes;
+    private final ReplayConfiguration configuration;
+    private final EventArchive eventArchive;
+
+    /**
+     * Constructor.
+     *
+     * @param beanContext           ApplicationContext
+     * @param eventRecordRepository EventRecordRepository
+     * @param checkpointRepository  ReplayCheckpointRepository
+     * @param eventTypes            EventTypeRegistry
+     * @param configuration         ReplayConfiguration
+     * @param eventArchive          EventArchive
+     */
+    public ProjectionReplayer(ApplicationContext beanContext,
+                              EventRecordRepository eventRecordRepository,
+                              ReplayCheckpointRepository checkpointRepository,
+                              EventTypeRegistry eventTypes,
+                              ReplayConfiguration configuration,
+                              EventArchive eventArchive) {
+        this.beanContext = beanContext;
+        this.eventRecordRepository = eventRecordRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.eventTypes = eventTypes;
+        this.configuration = configuration;
+        this.eventArchive = eventArchive;
+    }
+
+    /**
+     * Starts or resumes the replay of all events into the given projection.
+     * The replay is resumed from its checkpoints if it was started before and has not been reset.
+     *
+     * @param projectionClass The class of the projection, annotated with
+     *                        {@link com.axer.component.anotation.ProjectionBuilder}
+     * @return The progress of the replay
+     */
+    public ReplayProgress replay(Class<?> projectionClass) {
+        String name = projectionClass.getName();
+        BeanDefinition<?> definition = beanContext.getBeanDefinition(projectionClass);
+        ReplayRun run = new ReplayRun(beanContext.getBean(projectionClass), getEventProcessorMethod(definition),
+            configuration.getMaxEventsPerSecond());
+        List<ReplayCheckpoint> checkpoints = checkpointRepository.findByNameOrderBySegment(name);
+        if (checkpoints.isEmpty()) {
+            checkpoints = createSegments(name);
+        }
+        List<ReplayCheckpoint> pending = new ArrayList<>();
+        for (ReplayCheckpoint checkpoint : checkpoints) {
+            if (!checkpoint.isDone()) {
+                pending.add(checkpoint);
+            }
+        }
+        ReplayProgress progress = new ReplayProgress(name, checkpoints.size(), checkpoints.size() - pending.size());
+        run.progress = progress;
+        if (pending.isEmpty()) {
+            progress.getCompletion().complete(progress);
+            return progress;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(pending.size(), configuration.getParallelism()),
+            Thread.ofPlatform().daemon().name("replay-", 0).factory());
+        for (ReplayCheckpoint checkpoint : pending) {
+            executor.execute(() -> replaySegment(run, checkpoint));
+        }
+        executor.shutdown();
+        return progress;
+    }
+
+    /**
+     * Removes the checkpoints of the replay of the given projection, so the next replay starts from the beginning.
+     *
+     * @param projectionClass The class of the projection
+     */
+    public void reset(Class<?> projectionClass) {
+        checkpointRepository.deleteByName(projectionClass.getName());
+    }
+
+    /**
+     * Replays one page of a range and moves its checkpoint, in one transaction.
+     *
+     * @param run        The running replay
+     * @param checkpoint The checkpoint of the range
+     * @return The number of replayed events
+     * @throws IOException If there is an error deserializing the events
+     */
+    @Transactional
+    protected int replayPage(ReplayRun run, ReplayCheckpoint checkpoint) throws IOException {
+        int pageSize = Math.max(1, configuration.getPageSize());
+        List<EventRecord> page = eventRecordRepository.scanEvents(checkpoint.getAggregateId(), checkpoint.getVersion(),
+            checkpoint.getToAggregateId(), Pageable.from(0, pageSize));
+        long aggregateId = checkpoint.getAggregateId();
+        long version = checkpoint.getVersion();
+        for (EventRecord eventRecord : page) {
+            long expected = eventRecord.getAggregateId() == aggregateId ? version + 1 : 0;
+            if (eventRecord.getVersion() > expected) {
+                eventArchive.readEvents(eventRecord.getAggregateId(), expected - 1, eventRecord.getVersion() - 1,
+                    archived -> process(run, archived));
+            }
+            process(run, eventRecord);
+            aggregateId = eventRecord.getAggregateId();
+            version = eventRecord.getVersion();
+        }
+        if (!page.isEmpty()) {
+            EventRecord last = page.getLast();
+            checkpoint.setAggregateId(last.getAggregateId());
+            checkpoint.setVersion(last.getVersion());
+        }
+        checkpoint.setDone(page.size() < pageSize);
+        checkpointRepository.update(checkpoint);
+        return page.size();
+    }
+
+    private void process(ReplayRun run, EventRecord eventRecord) throws IOException {
+        run.processMethod.invoke(run.projection, eventTypes.deserialize(eventRecord),
+            eventRecord.getAggregateId(), eventRecord.getVersion());
+    }
+
+    private void replaySegment(ReplayRun run, ReplayCheckpoint checkpoint) {
+        ReplayProgress progress = run.progress;
+        try {
+            while (!checkpoint.isDone()) {
+                if (progress.isCancelled()) {
+                    LOG.info("Replay {} stopped segment {}: {}", progress.getName(), checkpoint.getSegment(), progress);
+                    progress.segmentStopped();
+                    return;
+                }
+                int replayed = replayPage(run, checkpoint);
+                progress.replayed(replayed);
+                run.throttle(replayed);
+            }
+            LOG.info("Replay {} completed segment {}: {}", progress.getName(), checkpoint.getSegment(), progress);
+            progress.segmentCompleted();
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Replay {} failed in segment {}", progress.getName(), checkpoint.getSegment(), e);
+            progress.failed(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.failed(e);
+        }
+    }
+
+    /**
+     * Splits the aggregate ids of the event store into ranges of equal width and stores their checkpoints.
+     * The last range is open-ended, so it covers the aggregates created after the ranges were fixed.
+     *
+     * @param name The name of the replay
+     * @return The checkpoints of the ranges
+     */
+    private List<ReplayCheckpoint> createSegments(String name) {
+        List<ReplayCheckpoint> checkpoints = new ArrayList<>();
+        Long min = eventRecordRepository.findMinAggregateId().orElse(null);
+        Long max = eventRecordRepository.findMaxAggregateId().orElse(null);
+        if (min == null || max == null) {
+            return checkpoints;
+        }
+        int segments = Math.max(1, configuration.getParallelism());
+        long width = Math.max(1, (max - min) / segments + 1);
+        for (int segment = 0; segment < segments; segment++) {
+            long from = min + segment * width;
+            if (from > max) {
+                break;
+            }
+            boolean last = segment == segments - 1 || from + width > max;
+            long to = last ? Long.MAX_VALUE : from + width;
+            checkpoints.add(checkpointRepository.save(new ReplayCheckpoint(name, segment, from, to)));
+            if (last) {
+                break;
+            }
+        }
+        return checkpoints;
+    }
+
+    private static ExecutableMethod<Object, Object> getEventProcessorMethod(BeanDefinition<?> definition) {
+        for (ExecutableMethod<?, ?> executableMethod : definition.getExecutableMethods()) {
+            if (executableMethod.isAnnotationPresent(EventProcessor.class)) {
+                return (ExecutableMethod<Object, Object>) executableMethod;
+            }
+        }
+        throw new MissingSyncHandlerAnnotationException();
+    }
+
+    /**
+     * A running replay of one projection, shared by the threads of its ranges.
+     */
+    static final class ReplayRun {
+        private final Object projection;
+        private final ExecutableMethod<Object, Object> processMethod;
+        private final long maxEventsPerSecond;
+        private final long startNanos = System.nanoTime();
+        private final LongAdder events = new LongAdder();
+        private ReplayProgress progress;
+
+        ReplayRun(Object projection, ExecutableMethod<Object, Object> processMethod, long maxEventsPerSecond) {
+            this.projection = projection;
+            this.processMethod = processMethod;
+            this.maxEventsPerSecond = maxEventsPerSecond;
+        }
+
+        /**
+         * Waits until the rate of all ranges is within the limit.
+         *
+         * @param replayed The number of events replayed by the last page
+         * @throws InterruptedException If the thread is interrupted
+         */
+        void throttle(int replayed) throws InterruptedException {
+            if (maxEventsPerSecond <= 0) {
+                return;
+            }
+            events.add(replayed);
+            long dueNanos = events.sum() * 1_000_000_000L / maxEventsPerSecond;
+            long waitNanos = dueNanos - (System.nanoTime() - startNanos);
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+}
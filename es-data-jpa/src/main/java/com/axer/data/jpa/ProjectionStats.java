@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of one projection.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+public final class ProjectionStats {
+    private final String name;
+    private final boolean async;
+    private final LongAdder events = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    ProjectionStats(String name, boolean async) {
+        this.name = name;
+        this.async = async;
+    }
+
+    void processed(int count, long elapsedNanos) {
+        events.add(count);
+        nanos.add(elapsedNanos);
+    }
+
+    void failed(long elapsedNanos) {
+        failures.increment();
+        nanos.add(elapsedNanos);
+    }
+
+    /**
+     * @return The name of the projection
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return true if the projection gets the events after the commit
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * @return The number of processed events
+     */
+    public long getEvents() {
+        return events.sum();
+    }
+
+    /**
+     * @return The number of failed invocations of the projection
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * @return The total time spent in the projection, in milliseconds
+     */
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanos.sum());
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectionStats{name=" + name + ", async=" + async + ", events=" + getEvents()
+            + ", failures=" + getFailures() + ", totalMillis=" + getTotalMillis() + "}";
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.data.jpa.entities.ReplayCheckpoint;
+import com.axer.data.jpa.entities.ReplayCheckpointId;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.data.annotation.Repository;
+import io.micronaut.data.repository.GenericRepository;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * ReplayCheckpointRepository.
+ */
+@Repository
+public interface ReplayCheckpointRepository extends GenericRepository<ReplayCheckpoint, ReplayCheckpointId> {
+
+    /**
+     * Returns the segments of the replay.
+     *
+     * @param name The name of the replay.
+     * @return The checkpoints of all segments, empty if the replay was not started.
+     */
+    @NonNull
+    List<ReplayCheckpoint> findByNameOrderBySegment(@NonNull String name);
+
+    /**
+     * Saves the given valid entity, returning a possibly new entity representing the saved state.
+     *
+     * @param entity The entity to save. Must not be {@literal null}.
+     * @return The saved entity will never be {@literal null}.
+     */
+    @NonNull
+    ReplayCheckpoint save(@Valid @NotNull @NonNull ReplayCheckpoint entity);
+
+    /**
+     * Updates the given entity.
+     *
+     * @param entity The entity to update. Must not be {@literal null}.
+     * @return The updated entity.
+     */
+    @NonNull
+    ReplayCheckpoint update(@Valid @NotNull @NonNull ReplayCheckpoint entity);
+
+    /**
+     * Deletes the checkpoints of the replay.
+     *
+     * @param name The name of the replay.
+     */
+    void deleteByName(@NonNull String name);
+}
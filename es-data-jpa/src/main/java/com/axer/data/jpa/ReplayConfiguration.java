@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+/**
+ * Configuration of the projection replay.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@ConfigurationProperties("eventstore.replay")
+public class ReplayConfiguration {
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int pageSize = 1000;
+    private long maxEventsPerSecond;
+
+    /**
+     * Gets the number of aggregate id ranges replayed at the same time.
+     *
+     * @return The parallelism
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of aggregate id ranges replayed at the same time.
+     *
+     * @param parallelism The parallelism
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Gets the number of events read and processed in one transaction.
+     *
+     * @return The page size
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Sets the number of events read and processed in one transaction.
+     *
+     * @param pageSize The page size
+     */
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Gets the maximum rate of the replay over all ranges, 0 means no limit.
+     *
+     * @return The maximum number of events per second
+     */
+    public long getMaxEventsPerSecond() {
+        return maxEventsPerSecond;
+    }
+
+    /**
+     * Sets the maximum rate of the replay over all ranges, 0 means no limit.
+     *
+     * @param maxEventsPerSecond The maximum number of events per second
+     */
+    public void setMaxEventsPerSecond(long maxEventsPerSecond) {
+        this.maxEventsPerSecond = maxEventsPerSecond;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress of a running projection replay.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+public final class ReplayProgress {
+    private final String name;
+    private final int segments;
+    private final AtomicInteger completedSegments = new AtomicInteger();
+    private final AtomicInteger stoppedSegments = new AtomicInteger();
+    private final AtomicInteger finishedSegments = new AtomicInteger();
+    private final LongAdder events = new LongAdder();
+    private final long startNanos = System.nanoTime();
+    private final CompletableFuture<ReplayProgress> completion = new CompletableFuture<>();
+    private volatile boolean cancelled;
+
+    ReplayProgress(String name, int segments, int completedSegments) {
+        this.name = name;
+        this.segments = segments;
+        this.completedSegments.set(completedSegments);
+        this.finishedSegments.set(completedSegments);
+    }
+
+    void replayed(int count) {
+        events.add(count);
+    }
+
+    void segmentCompleted() {
+        completedSegments.incrementAndGet();
+        segmentFinished();
+    }
+
+    void segmentStopped() {
+        stoppedSegments.incrementAndGet();
+        segmentFinished();
+    }
+
+    private void segmentFinished() {
+        if (finishedSegments.incrementAndGet() < segments) {
+            return;
+        }
+        if (stoppedSegments.get() > 0) {
+            completion.completeExceptionally(new CancellationException("Replay " + name + " cancelled"));
+        } else {
+            completion.complete(this);
+        }
+    }
+
+    void failed(Throwable failure) {
+        completion.completeExceptionally(failure);
+    }
+
+    /**
+     * @return The name of the replay
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The number of aggregate id ranges of the replay
+     */
+    public int getSegments() {
+        return segments;
+    }
+
+    /**
+     * @return The number of aggregate id ranges which are completely replayed
+     */
+    public int getCompletedSegments() {
+        return completedSegments.get();
+    }
+
+    /**
+     * @return The number of events replayed since the replay was started or resumed
+     */
+    public long getEvents() {
+        return events.sum();
+    }
+
+    /**
+     * @return The time since the replay was started or resumed
+     */
+    public Duration getElapsed() {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return The average rate of the replay
+     */
+    public double getEventsPerSecond() {
+        long nanos = System.nanoTime() - startNanos;
+        return nanos > 0 ? getEvents() * 1e9 / nanos : 0;
+    }
+
+    /**
+     * @return The future completed when all ranges are replayed, or with the failure of the replay, or with a
+     * {@link CancellationException} when the replay was cancelled and all its running ranges have stopped
+     */
+    public CompletableFuture<ReplayProgress> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Stops the replay after the current page. The replay can be resumed later from its checkpoints.
+     * The completion fails with a {@link CancellationException} once all running ranges have stopped.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplayProgress{name=" + name + ", segments=" + getCompletedSegments() + "/" + segments
+            + ", events=" + getEvents() + ", eventsPerSecond=" + Math.round(getEventsPerSecond()) + "}";
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import java.time.LocalDateTime;
+
+/**
+ * Replay cost of an aggregate root since its last snapshot.
+ * The statistics travel with the aggregate root state, also through the state cache, and are owned by the
+ * command that owns the aggregate root.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+final class ReplayStats {
+    private final long snapshotVersion;
+    private final LocalDateTime snapshotCreated;
+    private LocalDateTime firstEventCreated;
+    private long events;
+    private long bytes;
+    private long nanos;
+
+    /**
+     * Constructor.
+     *
+     * @param snapshotVersion The version of the last snapshot, -1 if there is none
+     * @param snapshotCreated The time the last snapshot was created, null if there is none
+     */
+    ReplayStats(long snapshotVersion, LocalDateTime snapshotCreated) {
+        this.snapshotVersion = snapshotVersion;
+        this.snapshotCreated = snapshotCreated;
+    }
+
+    /**
+     * Records one replayed event.
+     *
+     * @param size        The size of the serialized event
+     * @param dateCreated The time the event was created
+     */
+    void replayed(long size, LocalDateTime dateCreated) {
+        if (firstEventCreated == null) {
+            firstEventCreated = dateCreated;
+        }
+        events++;
+        bytes += size;
+    }
+
+    /**
+     * Records the measured time of a replay.
+     *
+     * @param replayNanos The replay time in nanoseconds
+     */
+    void replayTime(long replayNanos) {
+        nanos += replayNanos;
+    }
+
+    /**
+     * Records events appended by a committed command. They were not replayed, so their replay time is
+     * estimated from the average replay time of the replayed events.
+     *
+     * @param count The number of appended events
+     * @param size  The size of the appended events
+     */
+    void appended(long count, long size) {
+        if (firstEventCreated == null) {
+            firstEventCreated = LocalDateTime.now();
+        }
+        nanos += estimateNanos(count);
+        events += count;
+        bytes += size;
+    }
+
+    /**
+     * Estimates the replay time of the given number of events.
+     *
+     * @param count The number of events
+     * @return The estimated replay time in nanoseconds
+     */
+    long estimateNanos(long count) {
+        return events == 0 ? 0 : nanos / events * count;
+    }
+
+    long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    LocalDateTime getSnapshotCreated() {
+        return snapshotCreated;
+    }
+
+    /**
+     * @return The time the first event after the last snapshot was created, null if there is none
+     */
+    LocalDateTime getFirstEventCreated() {
+        return firstEventCreated;
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    long getNanos() {
+        return nanos;
+    }
+}
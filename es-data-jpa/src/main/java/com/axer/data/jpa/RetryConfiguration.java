@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+
+/**
+ * Configuration of the retry of commands which failed on a concurrency conflict.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@ConfigurationProperties("eventstore.retry")
+public class RetryConfiguration {
+    private int maxAttempts = 3;
+    private Duration backoff = Duration.ofMillis(10);
+    private Duration maxBackoff = Duration.ofMillis(200);
+
+    /**
+     * Gets the maximum number of attempts to execute a command, 1 disables the retry.
+     *
+     * @return The maximum number of attempts
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Sets the maximum number of attempts to execute a command, 1 disables the retry.
+     *
+     * @param maxAttempts The maximum number of attempts
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Gets the backoff before the first retry. The backoff doubles with every retry and is randomized by up to
+     * half of its value.
+     *
+     * @return The backoff before the first retry
+     */
+    public Duration getBackoff() {
+        return backoff;
+    }
+
+    /**
+     * Sets the backoff before the first retry.
+     *
+     * @param backoff The backoff before the first retry
+     */
+    public void setBackoff(Duration backoff) {
+        this.backoff = backoff;
+    }
+
+    /**
+     * Gets the upper limit of the backoff.
+     *
+     * @return The maximum backoff
+     */
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Sets the upper limit of the backoff.
+     *
+     * @param maxBackoff The maximum backoff
+     */
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+}
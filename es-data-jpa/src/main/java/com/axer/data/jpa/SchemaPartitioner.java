@@ -0,0 +1,268 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the event_record and aggregate_record tables partitioned by the aggregate id on PostgreSQL, as
+ * configured with {@code eventstore.partitioning}.
+ * <p>
+ * The tables are created as soon as the data source is created, before the schema tool of Hibernate runs, so
+ * Hibernate finds them existing. Existing tables are never converted, a table which already exists without
+ * partitions has to be migrated by hand. Both strategies partition by the aggregate id, so the reads of the
+ * events and the snapshot of one aggregate only touch one partition.
+ * <p>
+ * {@link PartitioningConfiguration.Strategy#HASH} spreads the aggregates evenly over a fixed number of
+ * partitions. {@link PartitioningConfiguration.Strategy#RANGE} puts the aggregates created in the same period
+ * into one partition, since the high bits of the TSID aggregate ids are the creation time, so old partitions
+ * stop changing and can be vacuumed, archived or moved to cheaper storage. The partitions for the next periods
+ * are created ahead by a scheduled job, ids outside of all periods go to the default partition. When the job
+ * falls behind and rows of a period are already in the default partition, they are moved to the new partition
+ * of their period in the same transaction which attaches it. Every partition is created on its own, a failure
+ * is logged as an error and does not stop the other partitions.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+public class SchemaPartitioner implements BeanCreatedEventListener<DataSource> {
+    private static final Logger LOG = LoggerFactory.getLogger(SchemaPartitioner.class);
+    static final String EVENT_RECORD_COLUMNS = "aggregate_id bigint NOT NULL, version bigint NOT NULL, "
+        + "date_created timestamp(6), json text, payload bytea, format smallint, event_name text, "
+        + "event_type_id integer, position bigint, transaction_id bigint, PRIMARY KEY (aggregate_id, version)";
+    static final String AGGREGATE_RECORD_COLUMNS = "aggregate_id bigint NOT NULL, version bigint NOT NULL, "
+        + "date_created timestamp(6), data bytea, format smallint, PRIMARY KEY (aggregate_id, version)";
+    static final String[] TABLES = {"event_record", "aggregate_record"};
+
+    private final PartitioningConfiguration configuration;
+    private volatile DataSource dataSource;
+
+    /**
+     * Constructor.
+     *
+     * @param configuration PartitioningConfiguration
+     */
+    public SchemaPartitioner(PartitioningConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    @Override
+    public DataSource onCreated(BeanCreatedEvent<DataSource> event) {
+        DataSource created = event.getBean();
+        if (configuration.getStrategy() == PartitioningConfiguration.Strategy.NONE || dataSource != null) {
+            return created;
+        }
+        try (Connection connection = created.getConnection()) {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                LOG.warn("Partitioning of the event store is only supported on PostgreSQL, the tables are not partitioned");
+                return created;
+            }
+            dataSource = created;
+            for (String table : TABLES) {
+                createTable(connection, table);
+            }
+            executeAll(connection, List.of("CREATE INDEX IF NOT EXISTS event_record_position_idx ON event_record (position)",
+                "CREATE INDEX IF NOT EXISTS event_record_transaction_idx ON event_record (transaction_id, position)"));
+        } catch (SQLException e) {
+            LOG.warn("Partitioning of the event store failed", e);
+        }
+        return created;
+    }
+
+    /**
+     * Creates the range partitions of the current and the next periods, so the events of new aggregates do not
+     * fall into the default partition.
+     *
+     * @return The number of partitions which could not be created
+     */
+    @Scheduled(fixedDelay = "${eventstore.partitioning.maintenance-interval:1h}")
+    public int createRangePartitions() {
+        DataSource source = dataSource;
+        if (source == null || configuration.getStrategy() != PartitioningConfiguration.Strategy.RANGE) {
+            return 0;
+        }
+        int failed = 0;
+        try (Connection connection = source.getConnection()) {
+            for (String table : TABLES) {
+                if ("p".equals(getKind(connection, table))) {
+                    failed += createRangePartitions(connection, table);
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Creating the partitions of the next periods failed", e);
+            failed++;
+        }
+        return failed;
+    }
+
+    private void createTable(Connection connection, String table) throws SQLException {
+        String kind = getKind(connection, table);
+        if ("p".equals(kind)) {
+            if (configuration.getStrategy() == PartitioningConfiguration.Strategy.RANGE) {
+                createRangePartitions(connection, table);
+            }
+            return;
+        }
+        if (kind != null) {
+            LOG.warn("Table {} already exists without partitions and is left as it is", table);
+            return;
+        }
+        String columns = "event_record".equals(table) ? EVENT_RECORD_COLUMNS : AGGREGATE_RECORD_COLUMNS;
+        List<String> statements = new ArrayList<>();
+        if (configuration.getStrategy() == PartitioningConfiguration.Strategy.HASH) {
+            int partitions = Math.max(1, configuration.getPartitions());
+            statements.add("CREATE TABLE " + table + " (" + columns + ") PARTITION BY HASH (aggregate_id)");
+            for (int i = 0; i < partitions; i++) {
+                statements.add("CREATE TABLE " + table + "_h" + i + " PARTITION OF " + table
+                    + " FOR VALUES WITH (MODULUS " + partitions + ", REMAINDER " + i + ")");
+            }
+        } else {
+            statements.add("CREATE TABLE " + table + " (" + columns + ") PARTITION BY RANGE (aggregate_id)");
+            statements.add("CREATE TABLE " + table + "_default PARTITION OF " + table + " DEFAULT");
+            for (RangePartition partition : rangePartitions(table)) {
+                statements.add("CREATE TABLE " + partition.name() + " PARTITION OF " + table
+                    + " FOR VALUES FROM (" + partition.from() + ") TO (" + partition.to() + ")");
+            }
+        }
+        connection.setAutoCommit(false);
+        try {
+            executeAll(connection, statements);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        LOG.info("Created table {} with {} partitioning", table, configuration.getStrategy());
+    }
+
+    /**
+     * The partitions of the current period and the configured number of periods ahead. The periods are counted
+     * from the TSID epoch, so every node computes the same bounds.
+     */
+    private List<RangePartition> rangePartitions(String table) {
+        long rangeMillis = Math.max(1, configuration.getRange().toMillis());
+        long current = (System.currentTimeMillis() - TsidUtil.TSID_EPOCH_MILLIS) / rangeMillis;
+        List<RangePartition> partitions = new ArrayList<>();
+        for (long period = current; period <= current + configuration.getRangesAhead(); period++) {
+            long from = TsidUtil.lowestIdAt(Instant.ofEpochMilli(TsidUtil.TSID_EPOCH_MILLIS + period * rangeMillis));
+            long to = TsidUtil.lowestIdAt(Instant.ofEpochMilli(TsidUtil.TSID_EPOCH_MILLIS + (period + 1) * rangeMillis));
+            partitions.add(new RangePartition(table + "_r" + period, from, to));
+        }
+        return partitions;
+    }
+
+    /**
+     * Creates the missing range partitions of a partitioned table, each on its own.
+     *
+     * @return The number of partitions which could not be created
+     */
+    private int createRangePartitions(Connection connection, String table) {
+        int failed = 0;
+        for (RangePartition partition : rangePartitions(table)) {
+            try {
+                createRangePartition(connection, table, partition);
+            } catch (SQLException e) {
+                failed++;
+                LOG.error("Creating partition {} of table {} failed, the rows of its period stay in the default "
+                    + "partition", partition.name(), table, e);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Creates a range partition in one transaction. The partition is created as a plain table, the rows of its
+     * period are moved from the default partition and the table is attached, since a partition can not be
+     * created for a period which has rows in the default partition.
+     */
+    private void createRangePartition(Connection connection, String table, RangePartition partition) throws SQLException {
+        if (getKind(connection, partition.name()) != null) {
+            return;
+        }
+        int moved;
+        connection.setAutoCommit(false);
+        try {
+            executeAll(connection, List.of("CREATE TABLE " + partition.name() + " (LIKE " + table + " INCLUDING DEFAULTS)"));
+            try (PreparedStatement statement = connection.prepareStatement("WITH moved AS (DELETE FROM " + table
+                    + "_default WHERE aggregate_id >= ? AND aggregate_id < ? RETURNING *) INSERT INTO "
+                    + partition.name() + " SELECT * FROM moved")) {
+                statement.setLong(1, partition.from());
+                statement.setLong(2, partition.to());
+                moved = statement.executeUpdate();
+            }
+            executeAll(connection, List.of("ALTER TABLE " + table + " ATTACH PARTITION " + partition.name()
+                + " FOR VALUES FROM (" + partition.from() + ") TO (" + partition.to() + ")"));
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        if (moved > 0) {
+            LOG.warn("Moved {} rows from the default partition of table {} to the new partition {}", moved, table,
+                partition.name());
+        }
+    }
+
+    private static void executeAll(Connection connection, List<String> statements) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * @return The kind of the relation, p for a partitioned table, r for an ordinary table, null if it does not exist
+     */
+    private static String getKind(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT c.relkind FROM pg_class c WHERE c.oid = to_regclass(?)")) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    /**
+     * A range partition of a table.
+     *
+     * @param name The name of the partition
+     * @param from The lowest aggregate id of the partition
+     * @param to   The lowest aggregate id after the partition
+     */
+    private record RangePartition(String name, long from, long to) {
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+/**
+ * Configuration of the background snapshot writer used by aggregates with
+ * {@link com.axer.component.anotation.SnapshotMode#ASYNC} snapshot mode, and of the retention of the snapshots.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@ConfigurationProperties("eventstore.snapshot")
+public class SnapshotConfiguration {
+    private int queueSize = 1024;
+    private int batchSize = 64;
+    private int retain;
+
+    /**
+     * Gets the maximum number of snapshots waiting to be written. Snapshots above this limit are dropped.
+     *
+     * @return The queue size
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * Sets the maximum number of snapshots waiting to be written.
+     *
+     * @param queueSize The queue size
+     */
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Gets the maximum number of snapshots written in one transaction.
+     *
+     * @return The batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the maximum number of snapshots written in one transaction.
+     *
+     * @param batchSize The batch size
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gets the number of the newest snapshots kept for each aggregate. Older snapshots are deleted in the
+     * background, 0 keeps all snapshots, which is the default.
+     *
+     * @return The number of kept snapshots
+     */
+    public int getRetain() {
+        return retain;
+    }
+
+    /**
+     * Sets the number of the newest snapshots kept for each aggregate.
+     *
+     * @param retain The number of kept snapshots, 0 to keep all snapshots
+     */
+    public void setRetain(int retain) {
+        this.retain = retain;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa;
+
+import com.axer.component.engine.SnapshotSerializer;
+import com.axer.data.jpa.entities.AggregateRecord;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes snapshots of committed aggregate states outside the command transaction.
+ * <p>
+ * Snapshots are queued in a bounded queue and written in batches by a single background thread. When the
+ * queue is full the snapshot is dropped, because a snapshot is only an optimization of the restore.
+ * <p>
+ * If {@code eventstore.snapshot.retain} is set, the aggregates with a new snapshot are remembered, and a scheduled
+ * job deletes their snapshots except the newest {@code eventstore.snapshot.retain} ones, so the snapshot table does
+ * not grow with the activity of the aggregates. By default all snapshots are kept.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Singleton
+public class SnapshotWriter {
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotWriter.class);
+
+    private final EventStore eventStore;
+    private final BlockingQueue<PendingSnapshot> queue;
+    private final int batchSize;
+    private final int retain;
+    private final Set<Long> unpruned = ConcurrentHashMap.newKeySet();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder pruned = new LongAdder();
+    private Thread worker;
+
+    /**
+     * Constructor.
+     *
+     * @param eventStore    EventStore
+     * @param configuration SnapshotConfiguration
+     */
+    public SnapshotWriter(EventStore eventStore,
+                          SnapshotConfiguration configuration) {
+        this.eventStore = eventStore;
+        this.queue = new ArrayBlockingQueue<>(configuration.getQueueSize());
+        this.batchSize = Math.max(1, configuration.getBatchSize());
+        this.retain = configuration.getRetain();
+    }
+
+    /**
+     * Queues the snapshot of the committed aggregate state.
+     * The writer takes the ownership of the aggregate root until it is serialized, after that the aggregate
+     * root is put to the state cache, if given.
+     *
+     * @param aggregateId   The aggregate id
+     * @param version       The version of the last event applied to the aggregate root
+     * @param aggregateRoot The aggregate root with all committed events applied
+     * @param serializer    The snapshot serializer of the aggregate
+     * @param stateCache    The state cache of the aggregate, or null
+     * @return true if the snapshot was queued, false if it was dropped
+     */
+    boolean submit(Long aggregateId,
+                   long version,
+                   Object aggregateRoot,
+                   SnapshotSerializer serializer,
+                   AggregateStateCache stateCache) {
+        startWorker();
+        if (queue.offer(new PendingSnapshot(aggregateId, version, aggregateRoot, serializer, stateCache))) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Remembers the aggregate with a new snapshot, so its old snapshots are deleted by the next pruning.
+     *
+     * @param aggregateId The aggregate id
+     */
+    void pruneLater(Long aggregateId) {
+        if (retain > 0) {
+            unpruned.add(aggregateId);
+        }
+    }
+
+    /**
+     * Deletes the old snapshots of the aggregates with new snapshots.
+     */
+    @Scheduled(fixedDelay = "${eventstore.snapshot.prune-interval:10s}")
+    void pruneSnapshots() {
+        for (Long aggregateId : unpruned) {
+            unpruned.remove(aggregateId);
+            try {
+                pruned.add(eventStore.pruneSnapshots(aggregateId, retain));
+            } catch (RuntimeException e) {
+                LOG.warn("Old snapshots of aggregate {} could not be deleted", aggregateId, e);
+            }
+        }
+    }
+
+    /**
+     * @return The number of snapshots written to the database
+     */
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * @return The number of snapshots dropped because the queue was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return The number of snapshots that could not be serialized or saved
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return The number of old snapshots deleted by the retention
+     */
+    public long getPruned() {
+        return pruned.sum();
+    }
+
+    /**
+     * @return The number of snapshots waiting to be written
+     */
+    public int getPending() {
+        return queue.size();
+    }
+
+    /**
+     * Stops the background thread. Snapshots which are still queued are dropped.
+     */
+    @PreDestroy
+    synchronized void stop() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    private synchronized void startWorker() {
+        if (worker == null) {
+            worker = Thread.ofPlatform().daemon().name("snapshot-writer").start(this::run);
+        }
+    }
+
+    private void run() {
+        List<PendingSnapshot> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                LOG.warn("Writing of {} snapshots failed", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingSnapshot> batch) {
+        List<AggregateRecord> records = new ArrayList<>(batch.size());
+        for (PendingSnapshot snapshot : batch) {
+            try {
+                SnapshotSerializer serializer = snapshot.serializer();
+                records.add(new AggregateRecord(snapshot.aggregateId(), snapshot.version(),
+                    serializer.serialize(snapshot.aggregateRoot()), serializer.getFormat()));
+            } catch (IOException e) {
+                failed.increment();
+                LOG.warn("Snapshot of aggregate {} version {} could not be serialized", snapshot.aggregateId(), snapshot.version(), e);
+            }
+            if (snapshot.stateCache() != null) {
+                snapshot.stateCache().checkin(snapshot.aggregateId(), snapshot.aggregateRoot(), snapshot.version(),
+                    new ReplayStats(snapshot.version(), LocalDateTime.now()));
+            }
+        }
+        try {
+            eventStore.saveSnapshots(records);
+            written.add(records.size());
+            records.forEach(record -> pruneLater(record.getAggregateId()));
+        } catch (RuntimeException e) {
+            // one conflicting snapshot must not discard the whole batch
+            for (AggregateRecord record : records) {
+                try {
+                    eventStore.saveSnapshot(record);
+                    written.increment();
+                    pruneLater(record.getAggregateId());
+                } catch (RuntimeException ex) {
+                    failed.increment();
+                    LOG.debug("Snapshot of aggregate {} version {} was not saved", record.getAggregateId(), record.getVersion(), ex);
+                }
+            }
+        }
+    }
+
+    private record PendingSnapshot(Long aggregateId,
+                                   long version,
+                                   Object aggregateRoot,
+                                   SnapshotSerializer serializer,
+                                   AggregateStateCache stateCache) {
+    }
+}
@@ -17,6 +17,7 @@ package com.axer.data.jpa;
 
 import com.github.f4b6a3.tsid.TsidFactory;
 
+import java.time.Instant;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -28,12 +29,31 @@ public class TsidUtil {
     public static final String TSID_NODE_COUNT_ENV =
         "TSID_NODE_COUNT";
 
+    /**
+     * The time from which the TSIDs count milliseconds, 2020-01-01T00:00:00Z.
+     */
+    public static final long TSID_EPOCH_MILLIS = 1577836800000L;
+    /**
+     * The number of low bits of a TSID which hold the node and the counter, the high bits hold the time.
+     */
+    public static final int TSID_RANDOM_BITS = 22;
+
     private static final TsidFactory tsidFactory;
 
     public static TsidFactory getTsidFactory() {
         return tsidFactory;
     }
 
+    /**
+     * Gets the lowest TSID which can be created at the given time, all TSIDs created later are higher.
+     *
+     * @param time The time
+     * @return The lowest TSID of the given time
+     */
+    public static long lowestIdAt(Instant time) {
+        return Math.max(0, time.toEpochMilli() - TSID_EPOCH_MILLIS) << TSID_RANDOM_BITS;
+    }
+
     static {
         String nodeCountSetting = System.getProperty(
             TSID_NODE_COUNT_PROPERTY
@@ -15,35 +15,48 @@
  */
 package com.axer.data.jpa.entities;
 
+import com.axer.component.serialization.JsonSnapshotSerializer;
 import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.data.annotation.DateCreated;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.IdClass;
-import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
 /**
  * The class contains information about serialized snapshot.
+ * The state of the aggregate root is stored as bytes together with the format marker of the
+ * {@link com.axer.component.engine.SnapshotSerializer} that wrote it. The format column is nullable, so it can be
+ * added to a populated table, and a missing format reads as the JSON format of the snapshots written before it.
+ * The table and column names are fixed, since snapshots are also read and written with plain JDBC by the
+ * JDBC event store.
  *
  * @author Roman Naglic
  * @since 1.0.0
  */
 @Entity
+@Table(name = "aggregate_record")
 @IdClass(EntityId.class)
 public final class AggregateRecord {
     @Id
+    @Column(name = "aggregate_id")
     private Long aggregateId;
     @Id
+    @Column(name = "version")
     private Long version;
     @DateCreated
+    @Column(name = "date_created")
     private LocalDateTime dateCreated;
     @NonNull
-    @Column(name = "json")
-    @Lob
-    private String json;
+    @Column(name = "data")
+    private byte[] data;
+    @Nullable
+    @Column(name = "format")
+    private Short format;
 
     /**
      * Constructor
@@ -56,12 +69,14 @@ public final class AggregateRecord {
      *
      * @param aggregateId Aggregate id
      * @param version     Version
-     * @param json        JSON representation of the AggregateRoot
+     * @param data        Serialized state of the AggregateRoot
+     * @param format      Format marker of the snapshot serializer
      */
-    public AggregateRecord(Long aggregateId, Long version, @NonNull String json) {
+    public AggregateRecord(Long aggregateId, Long version, @NonNull byte[] data, short format) {
         this.aggregateId = aggregateId;
         this.version = version;
-        this.json = json;
+        this.data = data;
+        this.format = format;
     }
 
     /**
@@ -119,22 +134,40 @@ public final class AggregateRecord {
     }
 
     /**
-     * Gets the JSON representation of the AggregateRoot.
+     * Gets the serialized state of the AggregateRoot.
      *
-     * @return The JSON representation of the AggregateRoot.
+     * @return The serialized state of the AggregateRoot.
      */
     @NonNull
-    public String getJson() {
-        return json;
+    public byte[] getData() {
+        return data;
     }
 
     /**
-     * Sets the JSON representation of the AggregateRoot.
+     * Sets the serialized state of the AggregateRoot.
      *
-     * @param json The JSON representation of the AggregateRoot.
+     * @param data The serialized state of the AggregateRoot.
      */
-    public void setJson(@NonNull String json) {
-        this.json = json;
+    public void setData(@NonNull byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * Gets the format marker of the snapshot serializer which wrote the state.
+     *
+     * @return The format marker, the JSON format for snapshots written before the format was introduced.
+     */
+    public short getFormat() {
+        return format != null ? format : JsonSnapshotSerializer.FORMAT;
+    }
+
+    /**
+     * Sets the format marker of the snapshot serializer which wrote the state.
+     *
+     * @param format The format marker.
+     */
+    public void setFormat(short format) {
+        this.format = format;
     }
 
 }
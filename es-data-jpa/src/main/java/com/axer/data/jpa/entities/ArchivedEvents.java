@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * A compressed chunk of consecutive events of one aggregate, moved out of the event_record table by the
+ * {@link com.axer.data.jpa.EventArchive}. The id is the aggregate id and the version of the last event of
+ * the chunk.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "event_archive")
+@IdClass(EntityId.class)
+public final class ArchivedEvents {
+    @Id
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+    @Id
+    @Column(name = "version")
+    private Long version;
+    @Column(name = "from_version")
+    private long fromVersion;
+    @Column(name = "events")
+    private int events;
+    @Column(name = "data")
+    private byte[] data;
+    @Column(name = "date_created")
+    private LocalDateTime dateCreated;
+
+    public ArchivedEvents() {
+    }
+
+    public ArchivedEvents(Long aggregateId, long fromVersion, Long version, int events, byte[] data,
+                          LocalDateTime dateCreated) {
+        this.aggregateId = aggregateId;
+        this.fromVersion = fromVersion;
+        this.version = version;
+        this.events = events;
+        this.data = data;
+        this.dateCreated = dateCreated;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    /**
+     * @return The version of the last event of the chunk.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * @return The version of the first event of the chunk.
+     */
+    public long getFromVersion() {
+        return fromVersion;
+    }
+
+    public void setFromVersion(long fromVersion) {
+        this.fromVersion = fromVersion;
+    }
+
+    public int getEvents() {
+        return events;
+    }
+
+    public void setEvents(int events) {
+        this.events = events;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    public LocalDateTime getDateCreated() {
+        return dateCreated;
+    }
+
+    public void setDateCreated(LocalDateTime dateCreated) {
+        this.dateCreated = dateCreated;
+    }
+}
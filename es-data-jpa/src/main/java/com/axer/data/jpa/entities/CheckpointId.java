@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa.entities;
+
+import io.micronaut.core.annotation.ReflectiveAccess;
+import io.micronaut.data.annotation.Embeddable;
+import java.io.Serializable;
+
+/**
+ * The primary key of the projection checkpoints.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Embeddable
+@ReflectiveAccess
+public final class CheckpointId implements Serializable {
+    private String projection;
+    private Long aggregateId;
+
+    public CheckpointId() {
+    }
+
+    public CheckpointId(String projection, Long aggregateId) {
+        this.projection = projection;
+        this.aggregateId = aggregateId;
+    }
+
+    public String getProjection() {
+        return projection;
+    }
+
+    public void setProjection(String projection) {
+        this.projection = projection;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CheckpointId that)) {
+            return false;
+        }
+
+        if (!getProjection().equals(that.getProjection())) {
+            return false;
+        }
+        return getAggregateId().equals(that.getAggregateId());
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getProjection().hashCode();
+        result = 31 * result + getAggregateId().hashCode();
+        return result;
+    }
+}
@@ -16,34 +16,78 @@
 package com.axer.data.jpa.entities;
 
 import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.data.annotation.DateCreated;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 
 /**
  * The class contains information about serialized event.
+ * The event is stored as bytes together with the format marker of the
+ * {@link com.axer.component.engine.EventSerializer} that wrote it. Events written before the serializers were
+ * introduced have the format {@link #LEGACY_JSON_FORMAT} and keep their payload in the json text column. The format
+ * column is nullable, so it can be added to a populated table, and a missing format reads as the legacy format.
+ * The type of the event is stored as the id of the event_type dictionary, event records written before the
+ * dictionary was introduced have no id and keep the event name instead.
+ * The table and column names are fixed, since new event records are inserted with plain JDBC by the
+ * {@link com.axer.data.jpa.EventAppender}.
+ * The position is unique in the store, it is allocated by the {@link com.axer.data.jpa.PositionAllocator} from blocks
+ * reserved per node, so it follows the append order of one node only. On PostgreSQL the id of the inserting
+ * transaction is stored as well, the {@link com.axer.data.jpa.EventReader} follows the store in commit order by the
+ * transaction id and the position. Event records written before the position was introduced have none.
  *
  * @author Roman Naglic
  * @since 1.0.0
  */
 @Entity
+@Table(name = "event_record", indexes = {
+    @Index(name = "event_record_position_idx", columnList = "position", unique = true),
+    @Index(name = "event_record_transaction_idx", columnList = "transaction_id, position")
+})
 @IdClass(EntityId.class)
 public final class EventRecord {
+    public static final short LEGACY_JSON_FORMAT = 0;
+
     @Id
+    @Column(name = "aggregate_id")
     private Long aggregateId;
     @Id
+    @Column(name = "version")
     private Long version;
     @DateCreated
+    @Column(name = "date_created")
     private LocalDateTime dateCreated;
-    @NonNull
+    @Nullable
     @Column(name = "json", columnDefinition="text")
     private String json;
-    @NonNull
+    @Nullable
+    @Column(name = "payload")
+    private byte[] payload;
+    @Nullable
+    @Column(name = "format")
+    private Short format;
+    @Nullable
     @Column(name = "event_name", columnDefinition="text")
     private String eventName;
+    @Nullable
+    @Column(name = "event_type_id")
+    private Integer eventTypeId;
+    @Nullable
+    @Column(name = "position")
+    private Long position;
+    @Nullable
+    @Column(name = "transaction_id")
+    private Long transactionId;
+    @Nullable
+    @Transient
+    private ByteBuffer payloadBuffer;
 
     public EventRecord() {
     }
@@ -53,6 +97,15 @@ public final class EventRecord {
         this.version = version;
         this.json = json;
         this.eventName = eventName;
+        this.format = LEGACY_JSON_FORMAT;
+    }
+
+    public EventRecord(Long aggregateId, Long version, @NonNull byte[] payload, short format, int eventTypeId) {
+        this.aggregateId = aggregateId;
+        this.version = version;
+        this.payload = payload;
+        this.format = format;
+        this.eventTypeId = eventTypeId;
     }
 
     public Long getAggregateId() {
@@ -79,21 +132,96 @@ public final class EventRecord {
         this.dateCreated = dateCreated;
     }
 
-    @NonNull
+    @Nullable
     public String getJson() {
         return json;
     }
 
-    public void setJson(@NonNull String json) {
+    public void setJson(@Nullable String json) {
         this.json = json;
     }
 
-    @NonNull
+    @Nullable
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(@Nullable byte[] payload) {
+        this.payload = payload;
+    }
+
+    /**
+     * @return The format marker of the event serializer, {@link #LEGACY_JSON_FORMAT} for event records written
+     * before the format was introduced.
+     */
+    public short getFormat() {
+        return format != null ? format : LEGACY_JSON_FORMAT;
+    }
+
+    public void setFormat(short format) {
+        this.format = format;
+    }
+
+    /**
+     * @return The size of the serialized event.
+     */
+    public int getPayloadSize() {
+        if (payloadBuffer != null) {
+            return payloadBuffer.remaining();
+        }
+        return payload != null ? payload.length : json != null ? json.length() : 0;
+    }
+
+    @Nullable
     public String getEventName() {
         return eventName;
     }
 
-    public void setEventName(@NonNull String className) {
+    public void setEventName(@Nullable String className) {
         this.eventName = className;
     }
+
+    @Nullable
+    public Integer getEventTypeId() {
+        return eventTypeId;
+    }
+
+    public void setEventTypeId(@Nullable Integer eventTypeId) {
+        this.eventTypeId = eventTypeId;
+    }
+
+    @Nullable
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(@Nullable Long position) {
+        this.position = position;
+    }
+
+    /**
+     * @return The id of the transaction which inserted the event record, null on databases other than PostgreSQL
+     * and for event records written before the transaction id was introduced.
+     */
+    @Nullable
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(@Nullable Long transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    /**
+     * @return The payload as a view of the storage, set instead of the payload by stores which read events
+     * without copying them.
+     */
+    @Nullable
+    public ByteBuffer getPayloadBuffer() {
+        return payloadBuffer;
+    }
+
+    public void setPayloadBuffer(@Nullable ByteBuffer payloadBuffer) {
+        this.payloadBuffer = payloadBuffer;
+    }
 }
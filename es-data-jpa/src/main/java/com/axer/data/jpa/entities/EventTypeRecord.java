@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa.entities;
+
+import io.micronaut.core.annotation.NonNull;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * The dictionary entry of one domain event type.
+ * Event records reference the event type by the compact id instead of repeating the event name.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "event_type")
+public final class EventTypeRecord {
+    @Id
+    private Integer id;
+    @NonNull
+    @Column(name = "name", columnDefinition = "text", unique = true, nullable = false)
+    private String name;
+
+    public EventTypeRecord() {
+    }
+
+    public EventTypeRecord(Integer id, @NonNull String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    public void setName(@NonNull String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Reference to an event which has not been delivered to the asynchronous projections yet.
+ * The outbox record is written in the transaction of the command and removed when every asynchronous
+ * projection has processed the event.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "projection_outbox")
+@IdClass(EntityId.class)
+public final class OutboxRecord {
+    @Id
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+    @Id
+    @Column(name = "version")
+    private Long version;
+    @Column(name = "date_created")
+    private LocalDateTime dateCreated;
+
+    public OutboxRecord() {
+    }
+
+    public OutboxRecord(Long aggregateId, Long version, LocalDateTime dateCreated) {
+        this.aggregateId = aggregateId;
+        this.version = version;
+        this.dateCreated = dateCreated;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getDateCreated() {
+        return dateCreated;
+    }
+
+    public void setDateCreated(LocalDateTime dateCreated) {
+        this.dateCreated = dateCreated;
+    }
+}
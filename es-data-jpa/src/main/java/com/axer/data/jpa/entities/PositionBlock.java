@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * The next unreserved global position of the event store.
+ * Nodes reserve blocks of positions by moving the next position forward.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "event_position")
+public final class PositionBlock {
+    public static final String EVENT_RECORD = "event_record";
+
+    @Id
+    private String name;
+    @Column(name = "next_position")
+    private long nextPosition;
+
+    public PositionBlock() {
+    }
+
+    public PositionBlock(String name, long nextPosition) {
+        this.name = name;
+        this.nextPosition = nextPosition;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getNextPosition() {
+        return nextPosition;
+    }
+
+    public void setNextPosition(long nextPosition) {
+        this.nextPosition = nextPosition;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * The version of the last event of an aggregate processed by an asynchronous projection.
+ * The checkpoint is updated in the transaction of the projection, so redelivered events are skipped.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "projection_checkpoint")
+@IdClass(CheckpointId.class)
+public final class ProjectionCheckpoint {
+    @Id
+    @Column(name = "projection", length = 255)
+    private String projection;
+    @Id
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+    @Column(name = "version")
+    private long version;
+
+    public ProjectionCheckpoint() {
+    }
+
+    public ProjectionCheckpoint(String projection, Long aggregateId, long version) {
+        this.projection = projection;
+        this.aggregateId = aggregateId;
+        this.version = version;
+    }
+
+    public String getProjection() {
+        return projection;
+    }
+
+    public void setProjection(String projection) {
+        this.projection = projection;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * The position of one segment of a projection replay.
+ * A segment covers the aggregate ids from the first aggregate id up to, but not including, the last aggregate id.
+ * The position is the aggregate id and version of the last replayed event.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "replay_checkpoint")
+@IdClass(ReplayCheckpointId.class)
+public final class ReplayCheckpoint {
+    @Id
+    @Column(name = "name", length = 255)
+    private String name;
+    @Id
+    @Column(name = "segment")
+    private Integer segment;
+    @Column(name = "from_aggregate_id")
+    private long fromAggregateId;
+    @Column(name = "to_aggregate_id")
+    private long toAggregateId;
+    @Column(name = "aggregate_id")
+    private long aggregateId;
+    @Column(name = "version")
+    private long version;
+    @Column(name = "done")
+    private boolean done;
+
+    public ReplayCheckpoint() {
+    }
+
+    public ReplayCheckpoint(String name, int segment, long fromAggregateId, long toAggregateId) {
+        this.name = name;
+        this.segment = segment;
+        this.fromAggregateId = fromAggregateId;
+        this.toAggregateId = toAggregateId;
+        this.aggregateId = fromAggregateId;
+        this.version = -1;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getSegment() {
+        return segment;
+    }
+
+    public void setSegment(Integer segment) {
+        this.segment = segment;
+    }
+
+    public long getFromAggregateId() {
+        return fromAggregateId;
+    }
+
+    public void setFromAggregateId(long fromAggregateId) {
+        this.fromAggregateId = fromAggregateId;
+    }
+
+    public long getToAggregateId() {
+        return toAggregateId;
+    }
+
+    public void setToAggregateId(long toAggregateId) {
+        this.toAggregateId = toAggregateId;
+    }
+
+    public long getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+}
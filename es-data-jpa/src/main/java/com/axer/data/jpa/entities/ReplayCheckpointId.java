@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017-2022 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.axer.data.jpa.entities;
+
+import io.micronaut.core.annotation.ReflectiveAccess;
+import io.micronaut.data.annotation.Embeddable;
+import java.io.Serializable;
+
+/**
+ * The primary key of the replay checkpoints.
+ *
+ * @author Roman Naglic
+ * @since 1.0.0
+ */
+@Embeddable
+@ReflectiveAccess
+public final class ReplayCheckpointId implements Serializable {
+    private String name;
+    private Integer segment;
+
+    public ReplayCheckpointId() {
+    }
+
+    public ReplayCheckpointId(String name, int segment) {
+        this.name = name;
+        this.segment = segment;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getSegment() {
+        return segment;
+    }
+
+    public void setSegment(Integer segment) {
+        this.segment = segment;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReplayCheckpointId that)) {
+            return false;
+        }
+
+        if (!getName().equals(that.getName())) {
+            return false;
+        }
+        return getSegment().equals(that.getSegment());
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getName().hashCode();
+        result = 31 * result + getSegment().hashCode();
+        return result;
+    }
+}
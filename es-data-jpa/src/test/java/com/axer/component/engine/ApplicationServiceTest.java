@@ -0,0 +1,88 @@
+package com.axer.component.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Test;
+
+class ApplicationServiceTest {
+
+    /**
+     * Implements only the single command method, like the application services written before the batch and
+     * asynchronous methods were added.
+     */
+    private static final class CountingService implements ApplicationService {
+        private final List<Long> rootIds = new ArrayList<>();
+        private long version = -1;
+
+        @Override
+        public AggregateId executeCommand(Object command, Class<?> aggregateRootClass, Long aggregateRootId) {
+            rootIds.add(aggregateRootId);
+            if (command instanceof RuntimeException e) {
+                throw e;
+            }
+            return new AggregateId(7L, ++version);
+        }
+    }
+
+    @Test
+    void batchExecutesTheCommandsOnTheSameAggregate() {
+        CountingService service = new CountingService();
+
+        BatchResult result = service.executeCommands(List.of("a", "b", "c"), Object.class, null);
+
+        assertTrue(result.isSuccessful());
+        assertEquals(-1, result.getFailedCommandIndex());
+        assertEquals(3, result.getResults().size());
+        assertEquals(2L, result.getAggregateId().getVersion());
+        assertEquals(Arrays.asList(null, 7L, 7L), service.rootIds);
+    }
+
+    @Test
+    void batchStopsAtTheFirstFailure() {
+        CountingService service = new CountingService();
+        IllegalStateException failure = new IllegalStateException("rejected");
+
+        BatchResult result = service.executeCommands(List.of("a", failure, "c"), Object.class, 7L);
+
+        assertEquals(1, result.getFailedCommandIndex());
+        assertSame(failure, result.getFailure());
+        assertEquals(1, result.getResults().size());
+        assertEquals(0L, result.getAggregateId().getVersion());
+        assertEquals(2, service.rootIds.size());
+    }
+
+    @Test
+    void batchWithFailingFirstCommandHasNoAggregate() {
+        BatchResult result = new CountingService().executeCommands(List.of(new IllegalStateException()), Object.class, null);
+
+        assertEquals(0, result.getFailedCommandIndex());
+        assertNull(result.getAggregateId());
+        assertTrue(result.getResults().isEmpty());
+    }
+
+    @Test
+    void asyncCommandCompletesWithTheResult() throws Exception {
+        AggregateId aggregateId = new CountingService().executeCommandAsync("a", Object.class).get();
+
+        assertEquals(7L, aggregateId.getId());
+        assertEquals(0L, aggregateId.getVersion());
+    }
+
+    @Test
+    void asyncCommandCompletesExceptionally() {
+        IllegalStateException failure = new IllegalStateException("rejected");
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+            () -> new CountingService().executeCommandAsync(failure, Object.class, 7L).get());
+
+        assertSame(failure, e.getCause());
+    }
+}
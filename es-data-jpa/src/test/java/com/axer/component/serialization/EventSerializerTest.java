@@ -0,0 +1,55 @@
+package com.axer.component.serialization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.axer.component.engine.EventSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class EventSerializerTest {
+
+    static Stream<EventSerializer> serializers() {
+        ObjectMapper om = new ObjectMapper();
+        return Stream.of(new JsonEventSerializer(om), new SmileEventSerializer(om));
+    }
+
+    @ParameterizedTest
+    @MethodSource("serializers")
+    void roundTripFromBytes(EventSerializer serializer) throws IOException {
+        MoneyDeposited event = new MoneyDeposited("1234", new BigDecimal("10.50"));
+
+        Object restored = serializer.deserialize(serializer.serialize(event), MoneyDeposited.class);
+
+        assertEquals(event, restored);
+    }
+
+    @ParameterizedTest
+    @MethodSource("serializers")
+    void roundTripFromStream(EventSerializer serializer) throws IOException {
+        MoneyDeposited event = new MoneyDeposited("1234", new BigDecimal("10.50"));
+
+        Object restored = serializer.deserialize(new ByteArrayInputStream(serializer.serialize(event)), MoneyDeposited.class);
+
+        assertEquals(event, restored);
+    }
+
+    @Test
+    void formatsAreDistinctFromTheLegacyFormat() {
+        ObjectMapper om = new ObjectMapper();
+        short json = new JsonEventSerializer(om).getFormat();
+        short smile = new SmileEventSerializer(om).getFormat();
+        assertNotEquals(json, smile);
+        assertNotEquals(0, json);
+        assertNotEquals(0, smile);
+    }
+
+    public record MoneyDeposited(String accountNumber, BigDecimal amount) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.axer.component.serialization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.axer.component.engine.SnapshotSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class SnapshotSerializerTest {
+
+    static Stream<SnapshotSerializer> serializers() {
+        ObjectMapper om = new ObjectMapper();
+        return Stream.of(new JsonSnapshotSerializer(om), new SmileSnapshotSerializer(om), new DeflateSnapshotSerializer(om));
+    }
+
+    @ParameterizedTest
+    @MethodSource("serializers")
+    void roundTrip(SnapshotSerializer serializer) throws IOException {
+        Account account = new Account();
+        account.setName("savings");
+        account.setBalance(new BigDecimal("123.45"));
+        account.getOwners().add("john");
+        account.getOwners().add("jane");
+
+        byte[] data = serializer.serialize(account);
+        Account restored = new Account();
+        serializer.deserialize(data, restored);
+
+        assertEquals("savings", restored.getName());
+        assertEquals(new BigDecimal("123.45"), restored.getBalance());
+        assertEquals(List.of("john", "jane"), restored.getOwners());
+    }
+
+    @ParameterizedTest
+    @MethodSource("serializers")
+    void deserializeUpdatesTheGivenInstance(SnapshotSerializer serializer) throws IOException {
+        Account account = new Account();
+        account.setName("checking");
+        Account restored = new Account();
+        restored.setBalance(BigDecimal.TEN);
+
+        serializer.deserialize(serializer.serialize(account), restored);
+
+        assertEquals("checking", restored.getName());
+        assertNull(restored.getBalance());
+    }
+
+    @Test
+    void formatsAreDistinct() {
+        Set<Short> formats = serializers().map(SnapshotSerializer::getFormat).collect(Collectors.toSet());
+        assertEquals(3, formats.size());
+    }
+
+    public static class Account {
+        private String name;
+        private BigDecimal balance;
+        private List<String> owners = new ArrayList<>();
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public BigDecimal getBalance() {
+            return balance;
+        }
+
+        public void setBalance(BigDecimal balance) {
+            this.balance = balance;
+        }
+
+        public List<String> getOwners() {
+            return owners;
+        }
+
+        public void setOwners(List<String> owners) {
+            this.owners = owners;
+        }
+    }
+}
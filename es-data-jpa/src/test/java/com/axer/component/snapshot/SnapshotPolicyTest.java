@@ -0,0 +1,64 @@
+package com.axer.component.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.engine.SnapshotContext;
+import com.axer.component.engine.SnapshotPolicy;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class SnapshotPolicyTest {
+
+    private static SnapshotContext context(long version, long snapshotVersion, LocalDateTime snapshotCreated,
+                                           long replayedBytes, long replayNanos, long snapshotAfter,
+                                           long snapshotAfterBytes, long snapshotAfterMillis, long snapshotMaxAge) {
+        return context(version, snapshotVersion, snapshotCreated, null, replayedBytes, replayNanos, snapshotAfter,
+            snapshotAfterBytes, snapshotAfterMillis, snapshotMaxAge);
+    }
+
+    private static SnapshotContext context(long version, long snapshotVersion, LocalDateTime snapshotCreated,
+                                           LocalDateTime firstEventCreated, long replayedBytes, long replayNanos,
+                                           long snapshotAfter, long snapshotAfterBytes, long snapshotAfterMillis,
+                                           long snapshotMaxAge) {
+        return new SnapshotContext(1L, version, snapshotVersion, snapshotCreated, firstEventCreated, replayedBytes,
+            replayNanos, snapshotAfter, snapshotAfterBytes, snapshotAfterMillis, snapshotMaxAge);
+    }
+
+    @Test
+    void moduloPolicyWritesEverySnapshotAfterVersions() {
+        SnapshotPolicy policy = new ModuloSnapshotPolicy();
+        assertFalse(policy.isSnapshotDue(context(0, -1, null, 0, 0, 5, 0, 0, 0)));
+        assertFalse(policy.isSnapshotDue(context(4, -1, null, 0, 0, 5, 0, 0, 0)));
+        assertTrue(policy.isSnapshotDue(context(5, -1, null, 0, 0, 5, 0, 0, 0)));
+        assertTrue(policy.isSnapshotDue(context(10, 5, null, 0, 0, 5, 0, 0, 0)));
+        assertFalse(policy.isSnapshotDue(context(10, 5, null, 0, 0, 0, 0, 0, 0)));
+    }
+
+    @Test
+    void replayCostPolicyCountsEventsSinceTheLastSnapshot() {
+        SnapshotPolicy policy = new ReplayCostSnapshotPolicy();
+        assertFalse(policy.isSnapshotDue(context(7, 3, null, 0, 0, 5, 0, 0, 0)));
+        assertTrue(policy.isSnapshotDue(context(8, 3, null, 0, 0, 5, 0, 0, 0)));
+        assertFalse(policy.isSnapshotDue(context(3, 3, null, 0, 0, 1, 0, 0, 0)));
+        assertFalse(policy.isSnapshotDue(context(0, -1, null, 0, 0, 1, 0, 0, 0)));
+    }
+
+    @Test
+    void replayCostPolicyUsesBytesTimeAndAge() {
+        SnapshotPolicy policy = new ReplayCostSnapshotPolicy();
+        assertFalse(policy.isSnapshotDue(context(3, -1, null, 1023, 0, 0, 1024, 0, 0)));
+        assertTrue(policy.isSnapshotDue(context(3, -1, null, 1024, 0, 0, 1024, 0, 0)));
+
+        assertFalse(policy.isSnapshotDue(context(3, -1, null, 0, TimeUnit.MILLISECONDS.toNanos(9), 0, 0, 10, 0)));
+        assertTrue(policy.isSnapshotDue(context(3, -1, null, 0, TimeUnit.MILLISECONDS.toNanos(10), 0, 0, 10, 0)));
+
+        assertFalse(policy.isSnapshotDue(context(3, 1, LocalDateTime.now(), 0, 0, 0, 0, 0, 60)));
+        assertTrue(policy.isSnapshotDue(context(3, 1, LocalDateTime.now().minusMinutes(2), 0, 0, 0, 0, 0, 60)));
+        // without a snapshot the age is measured from the first event
+        assertFalse(policy.isSnapshotDue(context(3, -1, null, LocalDateTime.now(), 0, 0, 0, 0, 0, 60)));
+        assertTrue(policy.isSnapshotDue(context(3, -1, null, LocalDateTime.now().minusMinutes(2), 0, 0, 0, 0, 0, 60)));
+        assertFalse(policy.isSnapshotDue(context(3, -1, null, 0, 0, 0, 0, 0, 60)));
+    }
+}
@@ -0,0 +1,47 @@
+package com.axer.data.jpa;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.exceptions.ConcurrencyConflictException;
+import com.axer.component.exceptions.EventStoreException;
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyConflictTest {
+
+    private static SQLException uniqueViolation(String constraint) {
+        return new SQLException("ERROR: duplicate key value violates unique constraint \"" + constraint + "\"", "23505");
+    }
+
+    @Test
+    void duplicateVersionIsAConflict() {
+        assertTrue(DefaultApplicationService.isConcurrencyConflict(uniqueViolation("event_record_pkey")));
+        assertTrue(DefaultApplicationService.isConcurrencyConflict(uniqueViolation("aggregate_record_pkey")));
+        assertTrue(DefaultApplicationService.isConcurrencyConflict(uniqueViolation("event_record_h3_pkey")));
+        assertTrue(DefaultApplicationService.isConcurrencyConflict(new SQLException(
+            "Unique index or primary key violation: \"PUBLIC.PRIMARY_KEY_8 ON PUBLIC.EVENT_RECORD(AGGREGATE_ID, VERSION)\"",
+            "23505")));
+        assertTrue(DefaultApplicationService.isConcurrencyConflict(new ConcurrencyConflictException(1L, 2L)));
+    }
+
+    @Test
+    void conflictIsFoundInTheCauseAndNextExceptionChain() {
+        BatchUpdateException batch = new BatchUpdateException("Batch entry 0 was aborted", "23505", new int[0]);
+        batch.setNextException(uniqueViolation("event_record_pkey"));
+
+        assertTrue(DefaultApplicationService.isConcurrencyConflict(new EventStoreException(batch)));
+    }
+
+    @Test
+    void otherConstraintViolationsAreNotConflicts() {
+        assertFalse(DefaultApplicationService.isConcurrencyConflict(uniqueViolation("event_record_position_idx")));
+        assertFalse(DefaultApplicationService.isConcurrencyConflict(uniqueViolation("event_type_pkey")));
+        assertFalse(DefaultApplicationService.isConcurrencyConflict(new SQLException(
+            "ERROR: new row for relation \"event_record\" violates check constraint \"event_record_check\"", "23514")));
+        assertFalse(DefaultApplicationService.isConcurrencyConflict(new SQLException(
+            "ERROR: null value in column \"payload\" of relation \"event_record\" violates not-null constraint", "23502")));
+        assertFalse(DefaultApplicationService.isConcurrencyConflict(new IllegalStateException("event_record_pkey")));
+    }
+}
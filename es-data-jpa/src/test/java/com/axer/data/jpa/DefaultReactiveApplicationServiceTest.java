@@ -0,0 +1,111 @@
+package com.axer.data.jpa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.axer.component.engine.AggregateId;
+import com.axer.component.engine.ApplicationService;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+class DefaultReactiveApplicationServiceTest {
+    private final AtomicInteger executed = new AtomicInteger();
+    private final ApplicationService applicationService = (command, aggregateRootClass, aggregateRootId) -> {
+        executed.incrementAndGet();
+        if (command instanceof RuntimeException e) {
+            throw e;
+        }
+        return new AggregateId(aggregateRootId != null ? aggregateRootId : 11L, 3L);
+    };
+    private final DefaultReactiveApplicationService reactiveService = new DefaultReactiveApplicationService(applicationService);
+
+    @Test
+    void commandIsExecutedOnSubscribe() throws Exception {
+        Publisher<AggregateId> publisher = reactiveService.executeCommand("deposit", Object.class, 5L);
+        assertEquals(0, executed.get());
+
+        RecordingSubscriber subscriber = RecordingSubscriber.subscribe(publisher);
+
+        assertEquals(1, executed.get());
+        assertEquals(1, subscriber.items.size());
+        assertEquals(5L, subscriber.items.getFirst().getId());
+        assertEquals(3L, subscriber.items.getFirst().getVersion());
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    void failureOfTheCommandIsSignalled() throws Exception {
+        IllegalStateException failure = new IllegalStateException("rejected");
+
+        RecordingSubscriber subscriber = RecordingSubscriber.subscribe(reactiveService.executeCommand(failure, Object.class));
+
+        assertTrue(subscriber.items.isEmpty());
+        assertSame(failure, unwrap(subscriber.error));
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    void everySubscriptionExecutesTheCommand() throws Exception {
+        Publisher<AggregateId> publisher = reactiveService.executeCommand("deposit", Object.class);
+
+        RecordingSubscriber.subscribe(publisher);
+        RecordingSubscriber.subscribe(publisher);
+
+        assertEquals(2, executed.get());
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while (cause != null && cause.getCause() != null && !(cause instanceof IllegalStateException)) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static final class RecordingSubscriber implements Subscriber<AggregateId> {
+        private final List<AggregateId> items = new CopyOnWriteArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Throwable error;
+        private volatile boolean completed;
+
+        static RecordingSubscriber subscribe(Publisher<AggregateId> publisher) throws InterruptedException {
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+            publisher.subscribe(subscriber);
+            assertTrue(subscriber.done.await(10, TimeUnit.SECONDS), "publisher did not terminate");
+            return subscriber;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(AggregateId aggregateId) {
+            items.add(aggregateId);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.axer.data.jpa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class GroupCommitterTest {
+    private final List<List<Long>> groups = new CopyOnWriteArrayList<>();
+
+    private GroupCommitter committer(Duration window) {
+        GroupCommitConfiguration configuration = new GroupCommitConfiguration();
+        configuration.setWindow(window);
+        GroupCommitter[] committer = new GroupCommitter[1];
+        committer[0] = new GroupCommitter(configuration, group -> {
+            groups.add(group.stream().map(GroupCommitter.GroupMember::getAggregateRootId).toList());
+            committer[0].committed(group.size());
+            group.forEach(member -> member.getResult().complete(null));
+        });
+        return committer[0];
+    }
+
+    private static GroupCommitter.GroupMember member(Long aggregateRootId) {
+        return new GroupCommitter.GroupMember("command", null, null, aggregateRootId);
+    }
+
+    @Test
+    void commandsOfOneAggregateGoToDifferentGroups() throws Exception {
+        GroupCommitter committer = committer(Duration.ofMillis(200));
+        GroupCommitter.GroupMember first = member(1L);
+        GroupCommitter.GroupMember other = member(2L);
+        GroupCommitter.GroupMember second = member(1L);
+
+        assertTrue(committer.submit(first));
+        assertTrue(committer.submit(other));
+        assertTrue(committer.submit(second));
+        second.getResult().get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of(List.of(1L, 2L), List.of(1L)), groups);
+        assertEquals(2, committer.getGroups());
+        assertEquals(3, committer.getMembers());
+        committer.stop();
+    }
+
+    @Test
+    void commandsAreRejectedAfterStop() throws Exception {
+        GroupCommitter committer = committer(Duration.ofMillis(1));
+        GroupCommitter.GroupMember before = member(1L);
+        assertTrue(committer.submit(before));
+        before.getResult().get(10, TimeUnit.SECONDS);
+
+        committer.stop();
+
+        GroupCommitter.GroupMember after = member(2L);
+        assertFalse(committer.submit(after));
+        assertFalse(after.getResult().isDone());
+        assertEquals(1, groups.size());
+    }
+
+    @Test
+    void queuedCommandsAreCommittedAloneOnStop() throws Exception {
+        GroupCommitter committer = committer(Duration.ofSeconds(10));
+        GroupCommitter.GroupMember first = member(1L);
+        GroupCommitter.GroupMember second = member(2L);
+        assertTrue(committer.submit(first));
+        assertTrue(committer.submit(second));
+
+        committer.stop();
+
+        assertNull(first.getResult().get(10, TimeUnit.SECONDS));
+        assertNull(second.getResult().get(10, TimeUnit.SECONDS));
+        assertTrue(groups.isEmpty());
+    }
+}